@@ -14,11 +14,12 @@ if [[ "${JAVA_VERSION}" = "8" ]]; then
 fi
 
 if [[ "${JAVA_VERSION}" = "11" ]]; then
+  # The Netty requester is built and tested along with the other modules
   if [ "$TRAVIS_PULL_REQUEST" != "false" ] && [[ ! "$TRAVIS_PULL_REQUEST_SLUG" =~ ^algolia\/ ]]; then
-    eval $(./algolia-keys export) && mvn clean compile && mvn clean test;
+    eval $(./algolia-keys export) && mvn clean compile -Pnetty && mvn clean test -Pnetty;
     exit $?
   else
-    mvn clean compile && mvn clean test;
+    mvn clean compile -Pnetty && mvn clean test -Pnetty;
     exit $?
   fi
 fi
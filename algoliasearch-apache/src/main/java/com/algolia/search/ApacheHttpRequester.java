@@ -1,7 +1,9 @@
 package com.algolia.search;
 
 import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.models.ConnectionPoolStats;
 import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpRequestBody;
 import com.algolia.search.models.HttpResponse;
 import com.algolia.search.util.HttpStatusCodeUtils;
 import java.io.IOException;
@@ -9,8 +11,11 @@ import java.net.ConnectException;
 import java.net.SocketTimeoutException;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import org.apache.http.*;
 import org.apache.http.client.config.RequestConfig;
@@ -18,12 +23,28 @@ import org.apache.http.client.entity.DeflateDecompressingEntity;
 import org.apache.http.client.entity.GzipDecompressingEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.ManagedNHttpClientConnectionFactory;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.util.EntityUtils;
 
 /**
@@ -34,6 +55,8 @@ import org.apache.http.util.EntityUtils;
 final class ApacheHttpRequester implements HttpRequester {
 
   private final CloseableHttpAsyncClient asyncHttpClient;
+  private final PoolingNHttpClientConnectionManager connectionManager;
+  private final ScheduledFuture<?> idleConnectionsEviction;
   private final RequestConfig requestConfig;
   private final ConfigBase config;
 
@@ -47,12 +70,90 @@ final class ApacheHttpRequester implements HttpRequester {
             .setContentCompressionEnabled(true)
             .build();
 
-    asyncHttpClient =
-        config.getUseSystemProxy()
-            ? HttpAsyncClients.createSystem()
-            : HttpAsyncClients.createDefault();
+    connectionManager = buildConnectionManager(config);
 
+    HttpAsyncClientBuilder builder =
+        HttpAsyncClients.custom().setConnectionManager(connectionManager);
+
+    if (config.getConnectionKeepAlive() != null) {
+      builder.setKeepAliveStrategy(buildKeepAliveStrategy(config.getConnectionKeepAlive()));
+    }
+
+    if (config.getUseSystemProxy()) {
+      builder.useSystemProperties();
+    }
+
+    asyncHttpClient = builder.build();
     asyncHttpClient.start();
+
+    Integer idleTimeout = config.getConnectionIdleTimeout();
+    idleConnectionsEviction =
+        idleTimeout == null
+            ? null
+            : config
+                .getScheduler()
+                .scheduleWithFixedDelay(
+                    () -> {
+                      connectionManager.closeExpiredConnections();
+                      connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+                    },
+                    idleTimeout,
+                    idleTimeout,
+                    TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Builds the pool of connections, bounded per host and in total, on an I/O reactor with the
+   * configured number of threads. With the system proxy, TLS uses the system properties too.
+   *
+   * @param config The configuration of the client
+   * @throws AlgoliaRuntimeException When the I/O reactor can't be created
+   */
+  private static PoolingNHttpClientConnectionManager buildConnectionManager(ConfigBase config) {
+    IOReactorConfig.Builder reactorConfig = IOReactorConfig.custom();
+
+    if (config.getIoThreadCount() != null) {
+      reactorConfig.setIoThreadCount(config.getIoThreadCount());
+    }
+
+    Registry<SchemeIOSessionStrategy> strategies =
+        RegistryBuilder.<SchemeIOSessionStrategy>create()
+            .register("http", NoopIOSessionStrategy.INSTANCE)
+            .register(
+                "https",
+                config.getUseSystemProxy()
+                    ? SSLIOSessionStrategy.getSystemDefaultStrategy()
+                    : SSLIOSessionStrategy.getDefaultStrategy())
+            .build();
+
+    PoolingNHttpClientConnectionManager manager;
+
+    try {
+      manager =
+          new PoolingNHttpClientConnectionManager(
+              new DefaultConnectingIOReactor(reactorConfig.build()),
+              ManagedNHttpClientConnectionFactory.INSTANCE,
+              strategies,
+              DefaultSchemePortResolver.INSTANCE,
+              SystemDefaultDnsResolver.INSTANCE,
+              config.getConnectionTimeToLive() != null ? config.getConnectionTimeToLive() : -1,
+              TimeUnit.MILLISECONDS);
+    } catch (IOReactorException e) {
+      throw new AlgoliaRuntimeException("Error while creating the I/O reactor", e);
+    }
+
+    manager.setDefaultMaxPerRoute(config.getMaxConnectionsPerHost());
+    manager.setMaxTotal(config.getMaxConnections());
+    return manager;
+  }
+
+  /** Keeps connections alive as long as the server says, but never longer than the given time. */
+  private static ConnectionKeepAliveStrategy buildKeepAliveStrategy(long keepAlive) {
+    return (response, context) -> {
+      long duration =
+          DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+      return duration > 0 ? Math.min(duration, keepAlive) : keepAlive;
+    };
   }
 
   /**
@@ -64,26 +165,60 @@ final class ApacheHttpRequester implements HttpRequester {
    */
   public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
     HttpRequestBase requestToSend = buildRequest(request);
-    return toCompletableFuture(fc -> asyncHttpClient.execute(requestToSend, fc))
-        .thenApplyAsync(this::buildResponse, config.getExecutor())
-        .exceptionally(
-            t -> {
-              if (t.getCause() instanceof ConnectTimeoutException
-                  || t.getCause() instanceof SocketTimeoutException
-                  || t.getCause() instanceof ConnectException
-                  || t.getCause() instanceof TimeoutException
-                  || t.getCause() instanceof ConnectionPoolTimeoutException
-                  || t.getCause() instanceof NoHttpResponseException) {
-                return new HttpResponse(true);
-              } else if (t.getCause() instanceof HttpException) {
-                return new HttpResponse().setNetworkError(true);
-              }
-              throw new AlgoliaRuntimeException(t);
-            });
+    CompletableFuture<org.apache.http.HttpResponse> exchange = new CompletableFuture<>();
+    Future<org.apache.http.HttpResponse> execution =
+        asyncHttpClient.execute(requestToSend, toFutureCallback(exchange));
+
+    CompletableFuture<HttpResponse> response =
+        exchange
+            .thenApplyAsync(this::buildResponse, config.getExecutor())
+            .exceptionally(ApacheHttpRequester::buildFailedResponse);
+
+    // Aborting the exchange when the caller cancels the request, e.g. the loser of a hedged read
+    response.whenComplete(
+        (r, t) -> {
+          if (response.isCancelled()) {
+            execution.cancel(true);
+          }
+        });
+
+    return response;
+  }
+
+  /**
+   * Sends the http request and waits for the response, which is built on the calling thread instead
+   * of being handed to the executor service. Called from virtual threads, which block cheaply.
+   *
+   * @param request the request to send
+   * @throws AlgoliaRuntimeException When an error occurred while sending the request
+   */
+  @Override
+  public HttpResponse performRequest(HttpRequest request) {
+    CompletableFuture<org.apache.http.HttpResponse> exchange = new CompletableFuture<>();
+    asyncHttpClient.execute(buildRequest(request), toFutureCallback(exchange));
+
+    org.apache.http.HttpResponse response;
+    try {
+      response = exchange.join();
+    } catch (CompletionException e) {
+      return buildFailedResponse(e);
+    }
+
+    return buildResponse(response);
+  }
+
+  @Override
+  public ConnectionPoolStats getConnectionPoolStats() {
+    PoolStats stats = connectionManager.getTotalStats();
+    return new ConnectionPoolStats(
+        stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
   }
 
-  /** Closes the http client. */
+  /** Closes the http client, and its pool of connections. */
   public void close() throws IOException {
+    if (idleConnectionsEviction != null) {
+      idleConnectionsEviction.cancel(false);
+    }
     asyncHttpClient.close();
   }
 
@@ -107,6 +242,26 @@ final class ApacheHttpRequester implements HttpRequester {
     }
   }
 
+  /**
+   * Builds an Algolia response from a failed exchange
+   *
+   * @param t The failure, wrapped in a {@link CompletionException}
+   * @throws AlgoliaRuntimeException When the failure is neither a timeout nor a network error
+   */
+  private static HttpResponse buildFailedResponse(Throwable t) {
+    if (t.getCause() instanceof ConnectTimeoutException
+        || t.getCause() instanceof SocketTimeoutException
+        || t.getCause() instanceof ConnectException
+        || t.getCause() instanceof TimeoutException
+        || t.getCause() instanceof ConnectionPoolTimeoutException
+        || t.getCause() instanceof NoHttpResponseException) {
+      return new HttpResponse(true);
+    } else if (t.getCause() instanceof HttpException) {
+      return new HttpResponse().setNetworkError(true);
+    }
+    throw new AlgoliaRuntimeException(t);
+  }
+
   /**
    * Builds an Apache HttpRequest from an Algolia Request object
    *
@@ -127,19 +282,19 @@ final class ApacheHttpRequester implements HttpRequester {
 
       case HttpPost.METHOD_NAME:
         HttpPost post = new HttpPost(algoliaRequest.getUri().toString());
-        if (algoliaRequest.getBody() != null) post.setEntity(addEntity(algoliaRequest));
+        if (algoliaRequest.getRequestBody() != null) post.setEntity(addEntity(algoliaRequest));
         post.setConfig(buildRequestConfig(algoliaRequest));
         return addHeaders(post, algoliaRequest.getHeaders());
 
       case HttpPut.METHOD_NAME:
         HttpPut put = new HttpPut(algoliaRequest.getUri().toString());
-        if (algoliaRequest.getBody() != null) put.setEntity(addEntity(algoliaRequest));
+        if (algoliaRequest.getRequestBody() != null) put.setEntity(addEntity(algoliaRequest));
         put.setConfig(buildRequestConfig(algoliaRequest));
         return addHeaders(put, algoliaRequest.getHeaders());
 
       case HttpPatch.METHOD_NAME:
         HttpPatch patch = new HttpPatch(algoliaRequest.getUri().toString());
-        if (algoliaRequest.getBody() != null) patch.setEntity(addEntity(algoliaRequest));
+        if (algoliaRequest.getRequestBody() != null) patch.setEntity(addEntity(algoliaRequest));
         patch.setConfig(buildRequestConfig(algoliaRequest));
         return addHeaders(patch, algoliaRequest.getHeaders());
 
@@ -159,20 +314,22 @@ final class ApacheHttpRequester implements HttpRequester {
     return request;
   }
 
+  /**
+   * Builds the entity from the serialized body. The entity reads the body's buffer directly, and
+   * can be sent again if the request is retried on another host.
+   */
   private HttpEntity addEntity(@Nonnull HttpRequest request) {
-    try {
-      InputStreamEntity entity =
-          new InputStreamEntity(
-              request.getBody(), request.getBody().available(), ContentType.APPLICATION_JSON);
+    HttpRequestBody body = request.getRequestBody();
 
-      if (request.canCompress()) {
-        entity.setContentEncoding(Defaults.CONTENT_ENCODING_GZIP);
-      }
+    NByteArrayEntity entity =
+        new NByteArrayEntity(
+            body.getBuffer(), body.getOffset(), body.getLength(), ContentType.APPLICATION_JSON);
 
-      return entity;
-    } catch (IOException e) {
-      throw new AlgoliaRuntimeException("Error while getting body's content length.", e);
+    if (request.canCompress()) {
+      entity.setContentEncoding(Defaults.CONTENT_ENCODING_GZIP);
     }
+
+    return entity;
   }
 
   private static HttpEntity handleCompressedEntity(org.apache.http.HttpEntity entity) {
@@ -193,27 +350,23 @@ final class ApacheHttpRequester implements HttpRequester {
     return entity;
   }
 
-  private static CompletableFuture<org.apache.http.HttpResponse> toCompletableFuture(
-      Consumer<FutureCallback<org.apache.http.HttpResponse>> c) {
-    CompletableFuture<org.apache.http.HttpResponse> promise = new CompletableFuture<>();
-
-    c.accept(
-        new FutureCallback<org.apache.http.HttpResponse>() {
-          @Override
-          public void completed(org.apache.http.HttpResponse t) {
-            promise.complete(t);
-          }
+  private static FutureCallback<org.apache.http.HttpResponse> toFutureCallback(
+      CompletableFuture<org.apache.http.HttpResponse> promise) {
+    return new FutureCallback<org.apache.http.HttpResponse>() {
+      @Override
+      public void completed(org.apache.http.HttpResponse t) {
+        promise.complete(t);
+      }
 
-          @Override
-          public void failed(Exception e) {
-            promise.completeExceptionally(e);
-          }
+      @Override
+      public void failed(Exception e) {
+        promise.completeExceptionally(e);
+      }
 
-          @Override
-          public void cancelled() {
-            promise.cancel(true);
-          }
-        });
-    return promise;
+      @Override
+      public void cancelled() {
+        promise.cancel(true);
+      }
+    };
   }
 }
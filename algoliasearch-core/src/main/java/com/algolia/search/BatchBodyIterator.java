@@ -0,0 +1,129 @@
+package com.algolia.search;
+
+import com.algolia.search.models.HttpRequestBody;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+
+/**
+ * Lazily serializes operations into the bodies of batch requests, {@code {"requests":[...]}}. Each
+ * operation is serialized once, straight into the body of its chunk, and operations are pulled from
+ * the source only when the next body is requested.
+ *
+ * <p>A body is cut on a number of operations, or before the operation that would make it exceed a
+ * number of bytes. The bytes of that operation are then moved to the next body. An operation bigger
+ * than the limit is sent alone in its body.
+ *
+ * @param <E> The type of the elements to turn into operations
+ */
+final class BatchBodyIterator<E> implements Iterator<HttpRequestBody> {
+
+  private static final byte[] HEAD = "{\"requests\":[".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] TAIL = "]}".getBytes(StandardCharsets.UTF_8);
+
+  private final Iterator<E> source;
+  private final Function<E, ?> toOperation;
+  private final int chunkSize;
+  private final long maxChunkBytes;
+  private final HttpTransport transport;
+
+  // Serialized operation that didn't fit in the previous body
+  private byte[] pending;
+
+  /**
+   * @param source The elements to send
+   * @param toOperation Turns an element into the operation to serialize
+   * @param chunkSize The maximum number of operations per body
+   * @param maxChunkBytes The maximum size of a body
+   * @param transport Serializes the operations
+   */
+  BatchBodyIterator(
+      @Nonnull Iterator<E> source,
+      @Nonnull Function<E, ?> toOperation,
+      int chunkSize,
+      long maxChunkBytes,
+      @Nonnull HttpTransport transport) {
+    Objects.requireNonNull(source, "A source iterator is required.");
+    Objects.requireNonNull(toOperation, "An operation function is required.");
+
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("The chunk size must be greater than 0.");
+    }
+
+    this.source = source;
+    this.toOperation = toOperation;
+    this.chunkSize = chunkSize;
+    this.maxChunkBytes = maxChunkBytes;
+    this.transport = transport;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return pending != null || source.hasNext();
+  }
+
+  @Override
+  public HttpRequestBody next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    BodyBuffer body = new BodyBuffer();
+    body.write(HEAD, 0, HEAD.length);
+    int operations = 0;
+
+    if (pending != null) {
+      body.write(pending, 0, pending.length);
+      pending = null;
+      operations++;
+    }
+
+    while (operations < chunkSize && source.hasNext()) {
+      int start = body.size();
+
+      if (operations > 0) {
+        body.write(',');
+      }
+
+      transport.serialize(toOperation.apply(source.next()), body);
+
+      if (operations > 0 && body.size() + TAIL.length > maxChunkBytes) {
+        // Skipping the comma, the operation starts the next body
+        pending = body.cut(start + 1);
+        body.truncate(start);
+        break;
+      }
+
+      operations++;
+    }
+
+    body.write(TAIL, 0, TAIL.length);
+    return body.toRequestBody();
+  }
+
+  /** Buffer of a body, handed to the request without any copy. */
+  private static final class BodyBuffer extends ByteArrayOutputStream {
+
+    private BodyBuffer() {
+      super(1024);
+    }
+
+    /** Returns a copy of the bytes from the given position to the end. */
+    private byte[] cut(int from) {
+      return Arrays.copyOfRange(buf, from, count);
+    }
+
+    private void truncate(int size) {
+      count = size;
+    }
+
+    private HttpRequestBody toRequestBody() {
+      return new HttpRequestBody(buf, 0, count);
+    }
+  }
+}
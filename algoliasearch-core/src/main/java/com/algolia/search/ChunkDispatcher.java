@@ -0,0 +1,132 @@
+package com.algolia.search;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+
+/**
+ * Sends chunks pulled from an {@link Iterator} with a bounded number of requests in flight. A new
+ * chunk is pulled from the source only when a slot frees up, and no reference to a chunk is kept
+ * once its request has been sent. The results are returned in the order of the chunks.
+ *
+ * @param <C> The type of the chunks
+ * @param <R> The type of the result of each request
+ */
+class ChunkDispatcher<C, R> {
+
+  private final Iterator<C> source;
+  private final Function<C, CompletableFuture<R>> sender;
+  private final int maxInFlight;
+  private final Executor executor;
+  private final CompletableFuture<List<R>> promise = new CompletableFuture<>();
+
+  // Internal state, guarded by this
+  private final List<R> results = new ArrayList<>();
+  private int inFlight = 0;
+
+  /**
+   * Dispatches all the chunks of the given source and aggregates their results.
+   *
+   * @param source The chunks to send
+   * @param sender The function sending one chunk
+   * @param maxInFlight The maximum number of requests in flight. Null means unbounded
+   * @param executor The executor used to pull the next chunk when a request completes
+   */
+  static <C, R> CompletableFuture<List<R>> dispatch(
+      @Nonnull Iterator<C> source,
+      @Nonnull Function<C, CompletableFuture<R>> sender,
+      Integer maxInFlight,
+      @Nonnull Executor executor) {
+
+    if (maxInFlight != null && maxInFlight <= 0) {
+      throw new IllegalArgumentException(
+          "The maximum number of requests in flight must be greater than 0.");
+    }
+
+    ChunkDispatcher<C, R> dispatcher =
+        new ChunkDispatcher<>(
+            source, sender, maxInFlight == null ? Integer.MAX_VALUE : maxInFlight, executor);
+    dispatcher.pump();
+    return dispatcher.promise;
+  }
+
+  private ChunkDispatcher(
+      @Nonnull Iterator<C> source,
+      @Nonnull Function<C, CompletableFuture<R>> sender,
+      int maxInFlight,
+      @Nonnull Executor executor) {
+    this.source = Objects.requireNonNull(source, "A source is required.");
+    this.sender = Objects.requireNonNull(sender, "A sender is required.");
+    this.executor = Objects.requireNonNull(executor, "An executor is required.");
+    this.maxInFlight = maxInFlight;
+  }
+
+  /** Fills the free slots with new chunks, or completes the promise if everything is done. */
+  private void pump() {
+    while (true) {
+      C chunk;
+      int position;
+      boolean isDone;
+
+      synchronized (this) {
+        if (promise.isDone() || inFlight >= maxInFlight) {
+          return;
+        }
+
+        try {
+          isDone = !source.hasNext();
+          chunk = isDone ? null : source.next();
+        } catch (RuntimeException e) {
+          promise.completeExceptionally(e);
+          return;
+        }
+
+        if (isDone && inFlight > 0) {
+          return;
+        }
+
+        position = results.size();
+
+        if (!isDone) {
+          results.add(null);
+          inFlight++;
+        }
+      }
+
+      // Completing outside of the lock as the dependent stages may run on this thread
+      if (isDone) {
+        promise.complete(results);
+        return;
+      }
+
+      send(chunk).whenCompleteAsync((r, t) -> onComplete(position, r, t), executor);
+    }
+  }
+
+  private CompletableFuture<R> send(C chunk) {
+    try {
+      return sender.apply(chunk);
+    } catch (RuntimeException e) {
+      CompletableFuture<R> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+  }
+
+  private void onComplete(int position, R result, Throwable t) {
+    synchronized (this) {
+      if (t != null) {
+        promise.completeExceptionally(t);
+        return;
+      }
+      results.set(position, result);
+      inFlight--;
+    }
+    pump();
+  }
+}
@@ -0,0 +1,58 @@
+package com.algolia.search;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * Lazily splits an {@link Iterator} into chunks of at most {@code chunkSize} elements. Elements are
+ * pulled from the source only when the next chunk is requested, so the source is never fully loaded
+ * in memory.
+ *
+ * <p>See {@link BatchBodyIterator} to also cut the chunks on their serialized size.
+ *
+ * @param <E> The type of the elements
+ */
+class ChunkIterator<E> implements Iterator<List<E>> {
+
+  private final Iterator<E> source;
+  private final int chunkSize;
+
+  /**
+   * @param source The elements to split
+   * @param chunkSize The maximum number of elements per chunk
+   */
+  ChunkIterator(@Nonnull Iterator<E> source, int chunkSize) {
+    Objects.requireNonNull(source, "A source iterator is required.");
+
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("The chunk size must be greater than 0.");
+    }
+
+    this.source = source;
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return source.hasNext();
+  }
+
+  @Override
+  public List<E> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    List<E> chunk = new ArrayList<>(Math.min(chunkSize, 1000));
+
+    while (chunk.size() < chunkSize && hasNext()) {
+      chunk.add(source.next());
+    }
+
+    return chunk;
+  }
+}
@@ -1,13 +1,21 @@
 package com.algolia.search;
 
+import com.algolia.search.models.common.CacheableOperation;
 import com.algolia.search.models.common.CompressionType;
+import com.algolia.search.models.common.HostSelectionPolicy;
 import com.algolia.search.util.AlgoliaUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.zip.Deflater;
 import javax.annotation.Nonnull;
 
 /** Algolia's clients common configuration */
@@ -19,13 +27,37 @@ public abstract class ConfigBase {
   private final String apiKey;
   private final Map<String, String> defaultHeaders;
   private final int batchSize;
+  private final Integer maxInFlightBatches;
+  private final Long maxBatchBytes;
+  private final int getObjectsChunkSize;
+  private final int maxInFlightGetObjects;
   private final boolean useSystemProxy;
+  private final boolean useVirtualThreads;
+  private final int maxConnectionsPerHost;
+  private final int maxConnections;
+  private final Integer ioThreadCount;
+  private final Integer connectionKeepAlive;
+  private final Integer connectionIdleTimeout;
+  private final Integer connectionTimeToLive;
+  private final int http2ConnectionsPerHost;
+  private final Integer maxConcurrentStreams;
   private final Integer readTimeOut;
   private final Integer writeTimeOut;
   private final Integer connectTimeOut;
+  private final Integer readHedgingDelay;
+  private final boolean useReadCoalescing;
+  private final ResponseCache responseCache;
+  private final Map<CacheableOperation, Long> responseCacheTtls;
+  private final long responseCacheStaleWhileRevalidate;
   private final List<StatefulHost> hosts;
+  private final HostSelectionPolicy hostSelectionPolicy;
   private final ExecutorService executor;
+  private final Executor callbackExecutor;
+  private final ExecutorService virtualThreadExecutor;
+  private final ScheduledExecutorService scheduler;
   private final CompressionType compressionType;
+  private final int compressionLevel;
+  private final ObjectMapper objectMapper;
 
   /** Config base builder to ensure the immutability of the configuration. */
   public abstract static class Builder<T extends Builder<T>> {
@@ -34,13 +66,37 @@ public abstract class ConfigBase {
     private final String apiKey;
     private final Map<String, String> defaultHeaders;
     private int batchSize;
+    private Integer maxInFlightBatches;
+    private Long maxBatchBytes;
+    private int getObjectsChunkSize;
+    private int maxInFlightGetObjects;
     private boolean useSystemProxy;
+    private boolean useVirtualThreads;
+    private int maxConnectionsPerHost;
+    private Integer maxConnections;
+    private Integer ioThreadCount;
+    private Integer connectionKeepAlive;
+    private Integer connectionIdleTimeout;
+    private Integer connectionTimeToLive;
+    private int http2ConnectionsPerHost;
+    private Integer maxConcurrentStreams;
     private Integer readTimeOut;
     private Integer writeTimeOut;
     private Integer connectTimeOut;
+    private Integer readHedgingDelay;
+    private boolean useReadCoalescing;
+    private ResponseCache responseCache;
+    private final Map<CacheableOperation, Long> responseCacheTtls =
+        new EnumMap<>(CacheableOperation.class);
+    private long responseCacheStaleWhileRevalidate;
     private List<StatefulHost> hosts;
+    private HostSelectionPolicy hostSelectionPolicy;
     private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
     protected CompressionType compressionType;
+    protected int compressionLevel;
+    private ObjectMapper objectMapper;
+    private boolean useAcceleratorModule;
 
     /**
      * Builds a base configuration
@@ -60,10 +116,16 @@ public abstract class ConfigBase {
       this.apiKey = apiKey;
 
       this.useSystemProxy = false;
+      this.maxConnectionsPerHost = Defaults.MAX_CONNECTIONS_PER_HOST;
+      this.http2ConnectionsPerHost = 1;
       this.batchSize = 1000;
+      this.getObjectsChunkSize = 1000;
+      this.maxInFlightGetObjects = 4;
       this.hosts = defaultHosts;
+      this.hostSelectionPolicy = HostSelectionPolicy.ORDERED;
       this.connectTimeOut = Defaults.CONNECT_TIMEOUT_MS;
       this.compressionType = compressionType;
+      this.compressionLevel = Deflater.DEFAULT_COMPRESSION;
 
       this.defaultHeaders = new HashMap<>();
       this.defaultHeaders.put(Defaults.ALGOLIA_APPLICATION_HEADER, applicationID);
@@ -75,7 +137,7 @@ public abstract class ConfigBase {
       this.defaultHeaders.put(Defaults.ACCEPT_HEADER, Defaults.APPLICATION_JSON);
       this.defaultHeaders.put(Defaults.ACCEPT_ENCODING_HEADER, Defaults.CONTENT_ENCODING_GZIP);
 
-      this.executor = ForkJoinPool.commonPool();
+      this.scheduler = Defaults.getScheduler();
     }
 
     /** To prevent unchecked cast warning. */
@@ -87,12 +149,129 @@ public abstract class ConfigBase {
       return getThis();
     }
 
+    /**
+     * Caps the number of pooled connections to a single host, by the http requesters pooling their
+     * connections. Default = 20 connections
+     *
+     * <p>The total of {@link #setMaxConnections(int)}, when left to its default, is raised to this
+     * value if it's lower. A total set explicitly must be at least this value.
+     */
+    public T setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+      this.maxConnectionsPerHost = maxConnectionsPerHost;
+      return getThis();
+    }
+
+    /**
+     * Caps the number of pooled connections to all the hosts, by the http requesters pooling their
+     * connections. Must be at least the maximum per host. Default = 100 connections, or the maximum
+     * per host if higher
+     */
+    public T setMaxConnections(int maxConnections) {
+      this.maxConnections = maxConnections;
+      return getThis();
+    }
+
+    /**
+     * Overrides the number of I/O threads of the http requesters based on an I/O reactor. Default =
+     * null, one thread per available processor
+     */
+    public T setIoThreadCount(Integer ioThreadCount) {
+      this.ioThreadCount = ioThreadCount;
+      return getThis();
+    }
+
+    /**
+     * Caps the time an idle pooled connection is kept alive, whatever the Keep-Alive header of the
+     * responses. Default = null, as long as the Keep-Alive header says, or indefinitely without the
+     * header. In milliseconds
+     */
+    public T setConnectionKeepAlive(Integer connectionKeepAlive) {
+      this.connectionKeepAlive = connectionKeepAlive;
+      return getThis();
+    }
+
+    /**
+     * Closes the pooled connections idle for longer than this timeout. They are checked in the
+     * background, at the same interval. Default = null, idle connections are closed only once
+     * expired. In milliseconds
+     */
+    public T setConnectionIdleTimeout(Integer connectionIdleTimeout) {
+      this.connectionIdleTimeout = connectionIdleTimeout;
+      return getThis();
+    }
+
+    /**
+     * Caps the total time to live of pooled connections, so that they are opened again e.g. to
+     * follow DNS changes. Default = null, no limit. In milliseconds
+     */
+    public T setConnectionTimeToLive(Integer connectionTimeToLive) {
+      this.connectionTimeToLive = connectionTimeToLive;
+      return getThis();
+    }
+
+    /**
+     * Overrides the number of HTTP/2 connections opened to each host by the http requesters
+     * multiplexing their requests, the requests being spread over the least loaded connection.
+     * Default = 1 connection
+     */
+    public T setHttp2ConnectionsPerHost(int http2ConnectionsPerHost) {
+      this.http2ConnectionsPerHost = http2ConnectionsPerHost;
+      return getThis();
+    }
+
+    /**
+     * Caps the number of requests in flight on a single HTTP/2 connection, by the http requesters
+     * multiplexing their requests. The requests over the limit are queued until a stream is
+     * released. Default = null, only the limit announced by the server applies
+     */
+    public T setMaxConcurrentStreams(Integer maxConcurrentStreams) {
+      this.maxConcurrentStreams = maxConcurrentStreams;
+      return getThis();
+    }
+
     /** Overrides the default batch size for save methods. Default = 1000 objects per chunk. */
     public T setBatchSize(int batchSize) {
       this.batchSize = batchSize;
       return getThis();
     }
 
+    /**
+     * Caps the number of batches sent concurrently when saving objects. Records are then pulled
+     * from the given Iterable only when a batch completes. Default = unbounded.
+     */
+    public T setMaxInFlightBatches(Integer maxInFlightBatches) {
+      this.maxInFlightBatches = maxInFlightBatches;
+      return getThis();
+    }
+
+    /**
+     * Caps the size of the batches sent by save methods and multiple batch, in bytes of serialized
+     * JSON before compression. Chunks are then cut on whichever comes first between the batch size
+     * and this limit. Default = unbounded.
+     */
+    public T setMaxBatchBytes(Long maxBatchBytes) {
+      this.maxBatchBytes = maxBatchBytes;
+      return getThis();
+    }
+
+    /**
+     * Overrides the number of objectIDs fetched per request by get objects methods. Larger lists
+     * are split into several requests, sent in parallel. Default = 1000 objectIDs per request.
+     */
+    public T setGetObjectsChunkSize(int getObjectsChunkSize) {
+      this.getObjectsChunkSize = getObjectsChunkSize;
+      return getThis();
+    }
+
+    /**
+     * Caps the number of requests sent concurrently by get objects methods when the objectIDs are
+     * split into several requests. Default = 4 requests.
+     */
+    public T setMaxInFlightGetObjects(int maxInFlightGetObjects) {
+      this.maxInFlightGetObjects = maxInFlightGetObjects;
+      return getThis();
+    }
+
     /** Overrides the default read timeout. Default = 1000ms In milliseconds */
     public T setReadTimeOut(Integer readTimeOut) {
       this.readTimeOut = readTimeOut;
@@ -111,18 +290,136 @@ public abstract class ConfigBase {
       return getThis();
     }
 
+    /**
+     * Enables hedged read requests: if a read request hasn't been answered after this delay, the
+     * same request is sent to the next tryable host. The first successful response wins and the
+     * other request is cancelled. A good value is a high percentile of the read latency, e.g. the
+     * p95, so that only the slowest requests are hedged. Default = null, no hedging. In
+     * milliseconds
+     */
+    public T setReadHedgingDelay(Integer readHedgingDelay) {
+      this.readHedgingDelay = readHedgingDelay;
+      return getThis();
+    }
+
+    /**
+     * Coalesces identical read requests in flight: a read request sent while the same one is still
+     * waiting for its response gets that response instead of being sent again. The callers then
+     * share the same result instance, which must not be modified. Can be disabled per request with
+     * {@link com.algolia.search.models.RequestOptions#setCoalescing(boolean)}. Default = false.
+     */
+    public T setUseReadCoalescing(boolean useReadCoalescing) {
+      this.useReadCoalescing = useReadCoalescing;
+      return getThis();
+    }
+
+    /**
+     * Sets the cache of the responses of read requests, e.g. a {@link LruResponseCache}. Only the
+     * operations given a time to live with {@link #setResponseCacheTtl(CacheableOperation, long)}
+     * are cached. Default = null, no cache.
+     */
+    public T setResponseCache(ResponseCache responseCache) {
+      this.responseCache = responseCache;
+      return getThis();
+    }
+
+    /**
+     * Caches the responses of the given operation for the given time, when a response cache is set.
+     * Operations without a time to live are never cached. In milliseconds
+     */
+    public T setResponseCacheTtl(@Nonnull CacheableOperation operation, long ttl) {
+      this.responseCacheTtls.put(operation, ttl);
+      return getThis();
+    }
+
+    /**
+     * Once expired, cached responses are still served for this time while they're refreshed in the
+     * background, so that callers don't wait for the network. Default = 0, expired responses are
+     * never served. In milliseconds
+     */
+    public T setResponseCacheStaleWhileRevalidate(long staleWhileRevalidate) {
+      this.responseCacheStaleWhileRevalidate = staleWhileRevalidate;
+      return getThis();
+    }
+
     /** Sets a list of specific host to target. Default hosts will be overridden. */
     public T setHosts(@Nonnull List<StatefulHost> customHosts) {
       this.hosts = customHosts;
       return getThis();
     }
 
-    /** Sets a custom executor service. Default ForkJoinPool will be overridden. */
+    /**
+     * Sets the order in which the available hosts are tried. See {@link HostSelectionPolicy}.
+     * Default = {@link HostSelectionPolicy#ORDERED}, the order of the hosts list.
+     */
+    public T setHostSelectionPolicy(@Nonnull HostSelectionPolicy hostSelectionPolicy) {
+      this.hostSelectionPolicy = hostSelectionPolicy;
+      return getThis();
+    }
+
+    /**
+     * Runs the calls made from virtual threads on these threads, from the request to the
+     * deserialized response: the http requester is called through its blocking {@link
+     * HttpRequester#performRequest(com.algolia.search.models.HttpRequest)} and the callbacks of the
+     * asynchronous methods run on the virtual thread instead of being handed to the executor
+     * service. Calls made from other threads run the same way on a new virtual thread, even with a
+     * custom executor service, which therefore never blocks on a request. Unless a custom executor
+     * service is set, the executor service starts a virtual thread per task, so the common pool is
+     * never used. Requires Java 21. Default = false.
+     *
+     * <p>None of the http requesters of the client does blocking I/O: their {@code performRequest}
+     * waits for the asynchronous request, so the I/O still runs on their own threads. The Apache
+     * requester then builds the response on the virtual thread, without handing it to the executor
+     * service.
+     */
+    public T setUseVirtualThreads(boolean useVirtualThreads) {
+      this.useVirtualThreads = useVirtualThreads;
+      return getThis();
+    }
+
+    /**
+     * Sets a custom executor service. Default = the common ForkJoinPool, or a virtual thread per
+     * task with {@link #setUseVirtualThreads(boolean)}.
+     */
     public T setExecutorService(ExecutorService executorService) {
       this.executor = executorService;
       return getThis();
     }
 
+    /**
+     * Sets the Jackson mapper used to serialize the requests and deserialize the responses of this
+     * client, for example a mapper tuned for the records' classes. Default = {@link
+     * Defaults#getObjectMapper()}, shared by all the clients.
+     *
+     * <p>The responses of the API can't be read without the settings of the default mapper, such as
+     * the {@code JavaTimeModule} or ignoring unknown properties. A custom mapper must therefore
+     * start from {@code Defaults.getObjectMapper().copy()} rather than from a new mapper.
+     */
+    public T setObjectMapper(@Nonnull ObjectMapper objectMapper) {
+      this.objectMapper = objectMapper;
+      return getThis();
+    }
+
+    /**
+     * Registers Blackbird or Afterburner, whichever is found first on the classpath, on a copy of
+     * the client's mapper. These modules generate accessors instead of relying on reflection, which
+     * speeds up the deserialization of large pages of hits. Nothing changes if none of them is on
+     * the classpath. Default = false.
+     */
+    public T setUseAcceleratorModule(boolean useAcceleratorModule) {
+      this.useAcceleratorModule = useAcceleratorModule;
+      return getThis();
+    }
+
+    /**
+     * Sets a custom scheduler, used to trigger delayed actions such as hedged requests. The actions
+     * themselves run on the executor service. Default = a daemon scheduler shared by all clients.
+     */
+    public T setScheduledExecutorService(@Nonnull ScheduledExecutorService scheduler) {
+      this.scheduler = scheduler;
+      return getThis();
+    }
+
     /**
      * Associates the specified value with the specified key in this map. If the map previously
      * contained a mapping for the key, the old value is replaced.
@@ -147,6 +444,8 @@ public abstract class ConfigBase {
     Objects.requireNonNull(builder.applicationID, "An ApplicationID is required.");
     Objects.requireNonNull(builder.apiKey, "An API key is required.");
     Objects.requireNonNull(builder.hosts, "Default hosts are required.");
+    Objects.requireNonNull(builder.hostSelectionPolicy, "A host selection policy is required.");
+    Objects.requireNonNull(builder.scheduler, "A scheduler is required.");
 
     if (AlgoliaUtils.isEmptyWhiteSpace(builder.applicationID)) {
       throw new IllegalArgumentException("The ApplicationID can't be empty.");
@@ -156,17 +455,130 @@ public abstract class ConfigBase {
       throw new IllegalArgumentException("The APIKey can't be empty.");
     }
 
+    if (builder.maxInFlightBatches != null && builder.maxInFlightBatches <= 0) {
+      throw new IllegalArgumentException("The maximum number of batches in flight must be > 0.");
+    }
+
+    if (builder.maxBatchBytes != null && builder.maxBatchBytes <= 0) {
+      throw new IllegalArgumentException("The maximum size of a batch must be > 0.");
+    }
+
+    if (builder.getObjectsChunkSize <= 0) {
+      throw new IllegalArgumentException("The get objects chunk size must be > 0.");
+    }
+
+    if (builder.maxInFlightGetObjects <= 0) {
+      throw new IllegalArgumentException(
+          "The maximum number of get objects requests in flight must be > 0.");
+    }
+
+    if (builder.maxConnectionsPerHost <= 0) {
+      throw new IllegalArgumentException("The maximum number of connections per host must be > 0.");
+    }
+
+    if (builder.maxConnections != null && builder.maxConnections < builder.maxConnectionsPerHost) {
+      throw new IllegalArgumentException(
+          "The maximum number of connections must be >= the maximum per host.");
+    }
+
+    if (builder.ioThreadCount != null && builder.ioThreadCount <= 0) {
+      throw new IllegalArgumentException("The number of I/O threads must be > 0.");
+    }
+
+    if (builder.connectionKeepAlive != null && builder.connectionKeepAlive <= 0) {
+      throw new IllegalArgumentException("The connection keep-alive must be > 0.");
+    }
+
+    if (builder.connectionIdleTimeout != null && builder.connectionIdleTimeout <= 0) {
+      throw new IllegalArgumentException("The connection idle timeout must be > 0.");
+    }
+
+    if (builder.connectionTimeToLive != null && builder.connectionTimeToLive <= 0) {
+      throw new IllegalArgumentException("The connection time to live must be > 0.");
+    }
+
+    if (builder.http2ConnectionsPerHost <= 0) {
+      throw new IllegalArgumentException("The number of HTTP/2 connections per host must be > 0.");
+    }
+
+    if (builder.maxConcurrentStreams != null && builder.maxConcurrentStreams <= 0) {
+      throw new IllegalArgumentException("The maximum number of concurrent streams must be > 0.");
+    }
+
+    if (builder.readHedgingDelay != null && builder.readHedgingDelay <= 0) {
+      throw new IllegalArgumentException("The read hedging delay must be > 0.");
+    }
+
+    if (builder.responseCacheTtls.values().stream().anyMatch(ttl -> ttl <= 0)) {
+      throw new IllegalArgumentException("The time to live of cached responses must be > 0.");
+    }
+
+    if (builder.responseCacheStaleWhileRevalidate < 0) {
+      throw new IllegalArgumentException("The stale-while-revalidate time must be >= 0.");
+    }
+
+    if (builder.compressionLevel != Deflater.DEFAULT_COMPRESSION
+        && (builder.compressionLevel < Deflater.NO_COMPRESSION
+            || builder.compressionLevel > Deflater.BEST_COMPRESSION)) {
+      throw new IllegalArgumentException("The compression level must be between 0 and 9.");
+    }
+
+    ExecutorService executor = builder.executor;
+    ExecutorService virtualThreadExecutor = null;
+
+    if (builder.useVirtualThreads) {
+      if (!Defaults.isVirtualThreadSupported()) {
+        throw new IllegalArgumentException("Virtual threads require Java 21 or later.");
+      }
+      virtualThreadExecutor = Defaults.newVirtualThreadPerTaskExecutor();
+      if (executor == null) {
+        executor = virtualThreadExecutor;
+      }
+    }
+
     this.apiKey = builder.apiKey;
     this.applicationID = builder.applicationID;
     this.defaultHeaders = builder.defaultHeaders;
     this.useSystemProxy = builder.useSystemProxy;
+    this.useVirtualThreads = builder.useVirtualThreads;
+    this.maxConnectionsPerHost = builder.maxConnectionsPerHost;
+    this.maxConnections =
+        builder.maxConnections != null
+            ? builder.maxConnections
+            : Math.max(Defaults.MAX_CONNECTIONS, builder.maxConnectionsPerHost);
+    this.ioThreadCount = builder.ioThreadCount;
+    this.connectionKeepAlive = builder.connectionKeepAlive;
+    this.connectionIdleTimeout = builder.connectionIdleTimeout;
+    this.connectionTimeToLive = builder.connectionTimeToLive;
+    this.http2ConnectionsPerHost = builder.http2ConnectionsPerHost;
+    this.maxConcurrentStreams = builder.maxConcurrentStreams;
     this.batchSize = builder.batchSize;
+    this.maxInFlightBatches = builder.maxInFlightBatches;
+    this.maxBatchBytes = builder.maxBatchBytes;
+    this.getObjectsChunkSize = builder.getObjectsChunkSize;
+    this.maxInFlightGetObjects = builder.maxInFlightGetObjects;
     this.compressionType = builder.compressionType;
+    this.compressionLevel = builder.compressionLevel;
+
+    ObjectMapper mapper =
+        builder.objectMapper != null ? builder.objectMapper : Defaults.getObjectMapper();
+    this.objectMapper =
+        builder.useAcceleratorModule ? Defaults.withAcceleratorModule(mapper) : mapper;
     this.readTimeOut = builder.readTimeOut;
     this.writeTimeOut = builder.writeTimeOut;
     this.connectTimeOut = builder.connectTimeOut;
+    this.readHedgingDelay = builder.readHedgingDelay;
+    this.useReadCoalescing = builder.useReadCoalescing;
+    this.responseCache = builder.responseCache;
+    this.responseCacheTtls = Collections.unmodifiableMap(new EnumMap<>(builder.responseCacheTtls));
+    this.responseCacheStaleWhileRevalidate = builder.responseCacheStaleWhileRevalidate;
     this.hosts = builder.hosts;
-    this.executor = builder.executor;
+    this.hostSelectionPolicy = builder.hostSelectionPolicy;
+    this.executor = executor != null ? executor : ForkJoinPool.commonPool();
+    this.callbackExecutor =
+        useVirtualThreads ? inlineOnVirtualThreads(this.executor) : this.executor;
+    this.virtualThreadExecutor = virtualThreadExecutor;
+    this.scheduler = builder.scheduler;
   }
 
   public String getApplicationID() {
@@ -185,14 +597,74 @@ public abstract class ConfigBase {
     return useSystemProxy;
   }
 
+  public boolean getUseVirtualThreads() {
+    return useVirtualThreads;
+  }
+
+  public int getMaxConnectionsPerHost() {
+    return maxConnectionsPerHost;
+  }
+
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public Integer getIoThreadCount() {
+    return ioThreadCount;
+  }
+
+  public Integer getConnectionKeepAlive() {
+    return connectionKeepAlive;
+  }
+
+  public Integer getConnectionIdleTimeout() {
+    return connectionIdleTimeout;
+  }
+
+  public Integer getConnectionTimeToLive() {
+    return connectionTimeToLive;
+  }
+
+  public int getHttp2ConnectionsPerHost() {
+    return http2ConnectionsPerHost;
+  }
+
+  public Integer getMaxConcurrentStreams() {
+    return maxConcurrentStreams;
+  }
+
   public int getBatchSize() {
     return batchSize;
   }
 
+  public Integer getMaxInFlightBatches() {
+    return maxInFlightBatches;
+  }
+
+  public Long getMaxBatchBytes() {
+    return maxBatchBytes;
+  }
+
+  public int getGetObjectsChunkSize() {
+    return getObjectsChunkSize;
+  }
+
+  public int getMaxInFlightGetObjects() {
+    return maxInFlightGetObjects;
+  }
+
   public CompressionType getCompressionType() {
     return compressionType;
   }
 
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  public ObjectMapper getObjectMapper() {
+    return objectMapper;
+  }
+
   public Integer getReadTimeOut() {
     return readTimeOut;
   }
@@ -205,11 +677,68 @@ public abstract class ConfigBase {
     return connectTimeOut;
   }
 
+  public Integer getReadHedgingDelay() {
+    return readHedgingDelay;
+  }
+
+  public boolean getUseReadCoalescing() {
+    return useReadCoalescing;
+  }
+
+  public ResponseCache getResponseCache() {
+    return responseCache;
+  }
+
+  /** The time to live of the cached responses of the given operation, null if it isn't cached */
+  public Long getResponseCacheTtl(@Nonnull CacheableOperation operation) {
+    return responseCacheTtls.get(operation);
+  }
+
+  public long getResponseCacheStaleWhileRevalidate() {
+    return responseCacheStaleWhileRevalidate;
+  }
+
   public List<StatefulHost> getHosts() {
     return hosts;
   }
 
+  public HostSelectionPolicy getHostSelectionPolicy() {
+    return hostSelectionPolicy;
+  }
+
   public ExecutorService getExecutor() {
     return executor;
   }
+
+  /**
+   * The executor the callbacks of the asynchronous methods are handed to. With virtual threads, a
+   * callback runs right away on the virtual thread completing the future, instead of hopping to
+   * another thread.
+   */
+  Executor getCallbackExecutor() {
+    return callbackExecutor;
+  }
+
+  /**
+   * The executor starting a virtual thread per task, whatever the executor service, or null without
+   * virtual threads. The calls made from other threads block on its threads, never on the executor
+   * service, which the http requesters may need to complete them.
+   */
+  ExecutorService getVirtualThreadExecutor() {
+    return virtualThreadExecutor;
+  }
+
+  private static Executor inlineOnVirtualThreads(Executor executor) {
+    return task -> {
+      if (Defaults.isVirtualThread(Thread.currentThread())) {
+        task.run();
+      } else {
+        executor.execute(task);
+      }
+    };
+  }
+
+  public ScheduledExecutorService getScheduler() {
+    return scheduler;
+  }
 }
@@ -2,10 +2,18 @@ package com.algolia.search;
 
 import static com.fasterxml.jackson.core.JsonGenerator.Feature;
 
+import com.fasterxml.jackson.core.ObjectCodec;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /** Class holding shared objects between all clients. */
 public class Defaults {
@@ -44,12 +52,140 @@ public class Defaults {
     return Holder.DEFAULT_OBJECT_MAPPER;
   }
 
+  /**
+   * Returns the mapper behind the given codec, i.e. the mapper of the client serializing or
+   * deserializing, or the default one if the codec isn't a mapper. Meant for custom serializers and
+   * deserializers.
+   *
+   * @param codec The codec of a generator or a parser
+   */
+  public static ObjectMapper getObjectMapper(ObjectCodec codec) {
+    return codec instanceof ObjectMapper ? (ObjectMapper) codec : getObjectMapper();
+  }
+
+  /** Singleton holding the scheduler shared by all the clients, created on first use. */
+  private static class SchedulerHolder {
+    private static final ScheduledExecutorService DEFAULT_SCHEDULER =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "algolia-scheduler");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Scheduler shared between all clients. It only triggers delayed actions, which then run on the
+   * client's executor, so a single daemon thread is enough.
+   */
+  static ScheduledExecutorService getScheduler() {
+    return SchedulerHolder.DEFAULT_SCHEDULER;
+  }
+
+  /** Virtual threads API, resolved on first use. Null before Java 21. */
+  private static class VirtualThreadsHolder {
+    private static final Method NEW_EXECUTOR =
+        findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+    // Resolved once, as a handle the JIT inlines: it's called on every callback
+    private static final MethodHandle IS_VIRTUAL =
+        findHandle(findMethod(Thread.class, "isVirtual"));
+    // Before Java 21, virtual threads are a preview feature, usually disabled
+    private static final boolean IS_SUPPORTED =
+        NEW_EXECUTOR != null && IS_VIRTUAL != null && featureVersion() >= 21;
+
+    private static MethodHandle findHandle(Method method) {
+      try {
+        return method != null ? MethodHandles.publicLookup().unreflect(method) : null;
+      } catch (IllegalAccessException e) {
+        return null;
+      }
+    }
+
+    private static Method findMethod(Class<?> clazz, String name) {
+      try {
+        return clazz.getMethod(name);
+      } catch (NoSuchMethodException e) {
+        return null;
+      }
+    }
+
+    /** The feature version of the JVM, 0 before Java 9 whose versions start with "1.". */
+    private static int featureVersion() {
+      try {
+        return Integer.parseInt(System.getProperty("java.specification.version", "0"));
+      } catch (NumberFormatException e) {
+        return 0;
+      }
+    }
+  }
+
+  /** Whether the JVM can start virtual threads, found out without starting any. */
+  static boolean isVirtualThreadSupported() {
+    return VirtualThreadsHolder.IS_SUPPORTED;
+  }
+
+  /**
+   * Returns an executor starting a new virtual thread for each task, or null if the JVM can't start
+   * virtual threads.
+   */
+  static ExecutorService newVirtualThreadPerTaskExecutor() {
+    if (VirtualThreadsHolder.NEW_EXECUTOR == null) {
+      return null;
+    }
+    try {
+      return (ExecutorService) VirtualThreadsHolder.NEW_EXECUTOR.invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // Virtual threads are a preview feature before Java 21
+      return null;
+    }
+  }
+
+  /** Whether the given thread is a virtual thread, always false before Java 21. */
+  static boolean isVirtualThread(Thread thread) {
+    if (VirtualThreadsHolder.IS_VIRTUAL == null) {
+      return false;
+    }
+    try {
+      return (boolean) VirtualThreadsHolder.IS_VIRTUAL.invokeExact(thread);
+    } catch (Throwable e) {
+      // Thread#isVirtual doesn't throw
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Modules replacing reflection by generated accessors, by order of preference. */
+  private static final String[] ACCELERATOR_MODULES = {
+    "com.fasterxml.jackson.module.blackbird.BlackbirdModule",
+    "com.fasterxml.jackson.module.afterburner.AfterburnerModule"
+  };
+
+  /**
+   * Returns a copy of the given mapper with the first accessor module found on the classpath
+   * registered, Blackbird or Afterburner. The given mapper is never modified. If none of these
+   * modules is on the classpath, the given mapper is returned as is.
+   *
+   * @param objectMapper The mapper to accelerate
+   */
+  public static ObjectMapper withAcceleratorModule(ObjectMapper objectMapper) {
+    for (String className : ACCELERATOR_MODULES) {
+      try {
+        Module module = (Module) Class.forName(className).getDeclaredConstructor().newInstance();
+        return objectMapper.copy().registerModule(module);
+      } catch (ReflectiveOperationException | LinkageError e) {
+        // Module not available, trying the next one
+      }
+    }
+    return objectMapper;
+  }
+
   public static final String CONTENT_ENCODING_GZIP = "gzip";
   public static final String CONTENT_ENCODING_DEFLATE = "deflate";
   static final long MAX_TIME_MS_TO_WAIT = 10000L;
   static final int READ_TIMEOUT_MS = 5 * 1000; // 5 seconds
   static final int WRITE_TIMEOUT_MS = 30 * 1000; // 30 seconds
   static final int CONNECT_TIMEOUT_MS = 2 * 1000; // 2 seconds
+  static final int MAX_CONNECTIONS_PER_HOST = 20;
+  static final int MAX_CONNECTIONS = 100;
   static final String APPLICATION_JSON = "application/json";
   static final String ACCEPT_HEADER = "Accept";
   static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
@@ -0,0 +1,125 @@
+package com.algolia.search;
+
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.RequestOptions;
+import com.algolia.search.models.common.CacheableOperation;
+import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.indexing.MultipleGetObject;
+import com.algolia.search.models.indexing.MultipleGetObjectsRequest;
+import com.algolia.search.models.indexing.MultipleGetObjectsResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+
+/**
+ * Fetches objects by objectID in chunks of {@link ConfigBase#getGetObjectsChunkSize()} queries,
+ * sent in parallel with at most {@link ConfigBase#getMaxInFlightGetObjects()} requests in flight,
+ * so that a large list doesn't end up in a single request exceeding the read timeout.
+ */
+final class GetObjectsDispatcher {
+
+  private GetObjectsDispatcher() {}
+
+  /**
+   * Fetches all the objects, reassembled in the order of the queries. Objects not found are null.
+   *
+   * @param transport The transport of the client
+   * @param config The configuration of the client
+   * @param queries The objects to fetch
+   * @param clazz The class of the objects
+   * @param requestOptions Options to pass to every request
+   */
+  static <T> CompletableFuture<List<T>> fetch(
+      @Nonnull HttpTransport transport,
+      @Nonnull ConfigBase config,
+      @Nonnull List<MultipleGetObject> queries,
+      @Nonnull Class<T> clazz,
+      RequestOptions requestOptions) {
+
+    return dispatch(transport, config, queries, clazz, requestOptions, results -> results)
+        .thenApply(
+            chunks -> {
+              List<T> objects = new ArrayList<>(queries.size());
+              chunks.forEach(objects::addAll);
+              return objects;
+            });
+  }
+
+  /**
+   * Fetches all the objects, handing the objects of each chunk to the consumer as soon as the chunk
+   * arrives. The consumer is never called concurrently, and objects not found are skipped. The
+   * chunks may arrive in any order.
+   *
+   * @param transport The transport of the client
+   * @param config The configuration of the client
+   * @param queries The objects to fetch
+   * @param clazz The class of the objects
+   * @param requestOptions Options to pass to every request
+   * @param consumer Receives the objects
+   */
+  static <T> CompletableFuture<Void> stream(
+      @Nonnull HttpTransport transport,
+      @Nonnull ConfigBase config,
+      @Nonnull List<MultipleGetObject> queries,
+      @Nonnull Class<T> clazz,
+      RequestOptions requestOptions,
+      @Nonnull Consumer<? super T> consumer) {
+
+    Objects.requireNonNull(consumer, "A consumer is required.");
+
+    Object lock = new Object();
+
+    return dispatch(
+            transport,
+            config,
+            queries,
+            clazz,
+            requestOptions,
+            results -> {
+              synchronized (lock) {
+                results.stream().filter(Objects::nonNull).forEach(consumer);
+              }
+              return Collections.<T>emptyList();
+            })
+        .thenApply(chunks -> null);
+  }
+
+  private static <T> CompletableFuture<List<List<T>>> dispatch(
+      HttpTransport transport,
+      ConfigBase config,
+      List<MultipleGetObject> queries,
+      Class<T> clazz,
+      RequestOptions requestOptions,
+      Function<List<T>, List<T>> onChunk) {
+
+    Objects.requireNonNull(queries, "Queries are required.");
+    Objects.requireNonNull(clazz, "A class is required.");
+
+    return ChunkDispatcher.dispatch(
+        new ChunkIterator<>(queries.iterator(), config.getGetObjectsChunkSize()),
+        chunk ->
+            transport
+                .executeRequestAsync(
+                    HttpMethod.POST,
+                    "/1/indexes/*/objects",
+                    CallType.READ,
+                    new MultipleGetObjectsRequest(chunk),
+                    MultipleGetObjectsResponse.class,
+                    clazz,
+                    requestOptions,
+                    CacheableOperation.GET_OBJECTS)
+                .thenApply(
+                    resp -> {
+                      @SuppressWarnings("unchecked")
+                      List<T> results = ((MultipleGetObjectsResponse<T>) resp).getResults();
+                      return onChunk.apply(results != null ? results : Collections.emptyList());
+                    }),
+        config.getMaxInFlightGetObjects(),
+        config.getExecutor());
+  }
+}
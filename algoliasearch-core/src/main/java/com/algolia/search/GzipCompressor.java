@@ -0,0 +1,196 @@
+package com.algolia.search;
+
+import com.algolia.search.models.HttpRequestBody;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import javax.annotation.Nonnull;
+
+/**
+ * Gzip compression stage of the transport. {@link Deflater} instances and output buffers are taken
+ * from bounded pools and given back once the request is done, instead of allocating a new {@link
+ * java.util.zip.GZIPOutputStream} (and its native memory) plus a growing buffer for each request.
+ *
+ * <p>The compressed bytes are deflated straight into the output buffer, which is handed to the
+ * requester without any copy. The buffer is therefore leased: it goes back to the pool only when
+ * {@link Lease#release()} is called.
+ */
+class GzipCompressor {
+
+  /** Number of deflaters and buffers kept in the pools */
+  private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+  private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+  /** Bigger buffers are left to the garbage collector to avoid retaining too much memory */
+  private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
+  // Header with no flag, no modification time and no extra field
+  private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+  private static final int TRAILER_SIZE = 8;
+
+  private final int level;
+  private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+  private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+  /** @param level The compression level, from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION} */
+  GzipCompressor(int level) {
+    if (level != Deflater.DEFAULT_COMPRESSION
+        && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+      throw new IllegalArgumentException("The compression level must be between 0 and 9.");
+    }
+    this.level = level;
+  }
+
+  /**
+   * Compresses everything the writer writes to the given stream.
+   *
+   * @param writer Writes the uncompressed content
+   * @return The compressed body, whose buffer must be released once the request is done
+   */
+  Lease compress(@Nonnull BodyWriter writer) throws IOException {
+    Deflater deflater = acquireDeflater();
+    GzipStream stream = new GzipStream(deflater, acquireBuffer());
+
+    try {
+      writer.writeTo(stream);
+      stream.finish();
+    } catch (IOException | RuntimeException e) {
+      releaseBuffer(stream.buffer);
+      throw e;
+    } finally {
+      releaseDeflater(deflater);
+    }
+
+    return new Lease(new HttpRequestBody(stream.buffer, 0, stream.count));
+  }
+
+  private Deflater acquireDeflater() {
+    Deflater deflater = deflaters.poll();
+    return deflater != null ? deflater : new Deflater(level, true);
+  }
+
+  private void releaseDeflater(Deflater deflater) {
+    deflater.reset();
+    if (!deflaters.offer(deflater)) {
+      // Freeing the native memory right away instead of waiting for the finalizer
+      deflater.end();
+    }
+  }
+
+  private byte[] acquireBuffer() {
+    byte[] buffer = buffers.poll();
+    return buffer != null ? buffer : new byte[INITIAL_BUFFER_SIZE];
+  }
+
+  private void releaseBuffer(byte[] buffer) {
+    if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+      buffers.offer(buffer);
+    }
+  }
+
+  /** Writes the uncompressed content of a body. */
+  @FunctionalInterface
+  interface BodyWriter {
+    void writeTo(OutputStream out) throws IOException;
+  }
+
+  /** A compressed body, whose buffer belongs to the pool once released. */
+  final class Lease {
+
+    private final HttpRequestBody body;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    private Lease(HttpRequestBody body) {
+      this.body = body;
+    }
+
+    HttpRequestBody getBody() {
+      return body;
+    }
+
+    /** Gives the buffer back to the pool. The body must not be read anymore. */
+    void release() {
+      if (released.compareAndSet(false, true)) {
+        releaseBuffer(body.getBuffer());
+      }
+    }
+
+    /**
+     * Forgets the buffer without giving it back to the pool, for example when a requester may still
+     * be reading it. It's then left to the garbage collector.
+     */
+    void discard() {
+      released.set(true);
+    }
+  }
+
+  /** Gzip stream deflating directly into a growable buffer. */
+  private static final class GzipStream extends OutputStream {
+
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] single = new byte[1];
+    private byte[] buffer;
+    private int count;
+
+    private GzipStream(Deflater deflater, byte[] buffer) {
+      this.deflater = deflater;
+      this.buffer = buffer;
+      System.arraycopy(HEADER, 0, buffer, 0, HEADER.length);
+      this.count = HEADER.length;
+    }
+
+    @Override
+    public void write(int b) {
+      single[0] = (byte) b;
+      write(single, 0, 1);
+    }
+
+    @Override
+    public void write(@Nonnull byte[] b, int off, int len) {
+      if (len == 0) {
+        return;
+      }
+      crc.update(b, off, len);
+      deflater.setInput(b, off, len);
+      while (!deflater.needsInput()) {
+        deflate();
+      }
+    }
+
+    private void finish() {
+      deflater.finish();
+      while (!deflater.finished()) {
+        deflate();
+      }
+      ensureCapacity(TRAILER_SIZE);
+      writeInt((int) crc.getValue());
+      writeInt((int) deflater.getBytesRead());
+    }
+
+    private void deflate() {
+      ensureCapacity(1);
+      count += deflater.deflate(buffer, count, buffer.length - count);
+    }
+
+    private void ensureCapacity(int minFree) {
+      if (buffer.length - count < minFree) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + minFree));
+      }
+    }
+
+    /** Writes an int in little endian order, as required by the gzip trailer */
+    private void writeInt(int value) {
+      buffer[count++] = (byte) value;
+      buffer[count++] = (byte) (value >> 8);
+      buffer[count++] = (byte) (value >> 16);
+      buffer[count++] = (byte) (value >> 24);
+    }
+  }
+}
@@ -1,11 +1,19 @@
 package com.algolia.search;
 
+import com.algolia.search.models.ConnectionPoolStats;
 import com.algolia.search.models.HttpRequest;
 import com.algolia.search.models.HttpResponse;
 import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 
-/** This contract allows you to inject a custom HTTPClient to any Algolia clients of the library. */
+/**
+ * This contract allows you to inject a custom HTTPClient to any Algolia clients of the library.
+ *
+ * <p>When a host fails, the retry strategy sends the same body again to the next host. An
+ * implementation must therefore read the body from {@link HttpRequest#getRequestBody()}, or from a
+ * new {@link HttpRequest#getBody()} stream, for each request. It must not keep any reference to the
+ * body once the returned future is completed.
+ */
 public interface HttpRequester {
 
   /**
@@ -16,6 +24,30 @@ public interface HttpRequester {
    */
   CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request);
 
+  /**
+   * Performs a request to the Algolia API, blocking the calling thread until the response is
+   * received. Called instead of {@link #performRequestAsync(HttpRequest)} from virtual threads, see
+   * {@link ConfigBase#getUseVirtualThreads()}. By default, waits for the asynchronous request. None
+   * of the requesters of the client does blocking I/O, but the Apache one overrides this method to
+   * build the response on the calling thread, without handing it to the executor service.
+   *
+   * @param request The {@link HttpRequest} to send.
+   * @return The {@link HttpResponse}.
+   * @throws java.util.concurrent.CompletionException When the request failed
+   */
+  default HttpResponse performRequest(HttpRequest request) {
+    return performRequestAsync(request).join();
+  }
+
+  /**
+   * Returns a snapshot of the connection pool of the requester.
+   *
+   * @return The pool stats, or null if the requester doesn't expose its connection pool
+   */
+  default ConnectionPoolStats getConnectionPoolStats() {
+    return null;
+  }
+
   /** Closes the underlying resources. */
   void close() throws IOException;
 }
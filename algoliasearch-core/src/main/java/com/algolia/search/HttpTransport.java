@@ -4,20 +4,48 @@ import com.algolia.search.exceptions.AlgoliaApiException;
 import com.algolia.search.exceptions.AlgoliaRetryException;
 import com.algolia.search.exceptions.AlgoliaRuntimeException;
 import com.algolia.search.models.*;
+import com.algolia.search.models.common.CacheableOperation;
 import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.indexing.BrowseIndexQuery;
+import com.algolia.search.models.indexing.BrowseIndexResponse;
+import com.algolia.search.models.indexing.MultipleGetObjectsResponse;
+import com.algolia.search.models.indexing.Query;
+import com.algolia.search.models.indexing.SearchResult;
 import com.algolia.search.util.CompletableFutureUtils;
 import com.algolia.search.util.QueryStringUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.zip.GZIPOutputStream;
 import javax.annotation.Nonnull;
 
 /**
@@ -28,18 +56,95 @@ class HttpTransport {
   private final HttpRequester httpRequester;
   private final RetryStrategy retryStrategy;
   private final ConfigBase config;
+  private final GzipCompressor compressor;
+
+  // Readers and writers are resolved once per type, they are immutable and thread-safe
+  private final Map<ReaderKey, ObjectReader> readers = new ConcurrentHashMap<>();
+  private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+  // Read calls in flight, shared by identical requests when coalescing is enabled
+  private final Map<FlightKey, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+  // Keys of the cached responses being refreshed in the background
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
   private static final Logger LOGGER = Logger.getLogger(HttpTransport.class.getName());
 
   HttpTransport(@Nonnull ConfigBase config, @Nonnull HttpRequester httpRequester) {
     this.config = config;
     this.httpRequester = httpRequester;
     this.retryStrategy = new RetryStrategy(config);
+    this.compressor = new GzipCompressor(config.getCompressionLevel());
   }
 
   void close() throws IOException {
     httpRequester.close();
   }
 
+  /**
+   * Opens connections to the tryable read hosts ahead of the first requests, and resolves the
+   * readers and writers of the given record classes. Each connection is opened by a request to the
+   * health endpoint of the host, all sent concurrently so that the requester can't reuse a single
+   * connection. It's a best effort: the returned future is completed once all the requests are
+   * answered or have failed, and the state of the hosts isn't updated.
+   *
+   * @param connectionsPerHost The number of connections to open to each tryable read host
+   * @param recordClasses The classes of the records searched or browsed by the client
+   */
+  CompletableFuture<Void> warmUpAsync(
+      int connectionsPerHost, @Nonnull List<Class<?>> recordClasses) {
+    recordClasses.forEach(this::warmUpSerialization);
+    writerFor(Query.class);
+    writerFor(BrowseIndexQuery.class);
+
+    List<CompletableFuture<?>> requests = new ArrayList<>();
+
+    for (StatefulHost host : retryStrategy.getTryableHosts(CallType.READ)) {
+      for (int i = 0; i < connectionsPerHost; i++) {
+        HttpRequest request = buildRequest(HttpMethod.GET, "/1/isalive", CallType.READ, null);
+        requests.add(warmUpConnection(buildAttempt(request, host)));
+      }
+    }
+
+    return CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0]));
+  }
+
+  /** Sends a warm-up request, ignoring its outcome. */
+  private CompletableFuture<Void> warmUpConnection(HttpRequest request) {
+    CompletableFuture<HttpResponse> response;
+
+    try {
+      response = httpRequester.performRequestAsync(request);
+    } catch (RuntimeException e) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    return response.handle(
+        (resp, t) -> {
+          if (resp != null && resp.getBody() != null) {
+            try {
+              resp.getBody().close();
+            } catch (IOException ignored) {
+              // Only the connection matters
+            }
+          }
+          return null;
+        });
+  }
+
+  /** Resolves the readers and writers used to search, browse, get and save records of a class. */
+  private void warmUpSerialization(@Nonnull Class<?> recordClass) {
+    readerFor(recordClass, null);
+    readerFor(SearchResult.class, recordClass);
+    readerFor(BrowseIndexResponse.class, recordClass);
+    readerFor(MultipleGetObjectsResponse.class, recordClass);
+    writerFor(recordClass);
+  }
+
+  /** Returns a snapshot of the connection pool of the requester, or null if it isn't exposed. */
+  ConnectionPoolStats getConnectionPoolStats() {
+    return httpRequester.getConnectionPoolStats();
+  }
+
   /**
    * Executes the request to Algolia asynchronously with the retry strategy.
    *
@@ -114,18 +219,340 @@ class HttpTransport {
       Class<TInnerResult> innerClazz,
       RequestOptions requestOptions) {
 
+    return executeRequestAsync(
+        method, path, callType, data, returnClazz, innerClazz, requestOptions, null);
+  }
+
+  /**
+   * Executes the request to Algolia asynchronously with the retry strategy. The response may be
+   * served from the response cache of the configuration, if the operation is cached.
+   *
+   * @param method The http method used for the request (Get,Post,etc.)
+   * @param path The path of the API endpoint
+   * @param callType The Algolia call type of the request : read or write
+   * @param data The data to send if any
+   * @param returnClazz The type that will be returned
+   * @param innerClazz The type of the nested class, if any
+   * @param requestOptions Requests options to add to the request (if so)
+   * @param operation The operation performed by the request, if it's cacheable
+   * @param <TResult> The type of the result
+   * @param <TInnerResult> The type of the nested class
+   * @param <TData> The type of the data to send (if so)
+   * @throws AlgoliaRetryException When the retry has failed on all hosts
+   * @throws AlgoliaApiException When the API sends an error
+   * @throws AlgoliaRuntimeException When an error occurred during the serialization.
+   */
+  <TResult, TInnerResult, TData> CompletableFuture<TResult> executeRequestAsync(
+      @Nonnull HttpMethod method,
+      @Nonnull String path,
+      @Nonnull CallType callType,
+      TData data,
+      Class<TResult> returnClazz,
+      Class<TInnerResult> innerClazz,
+      RequestOptions requestOptions,
+      CacheableOperation operation) {
+
     Iterator<StatefulHost> hosts = retryStrategy.getTryableHosts(callType).iterator();
 
-    HttpRequest request = buildRequest(method, path, callType, requestOptions, data);
+    HttpRequest request = buildRequest(method, path, callType, requestOptions);
+    GzipCompressor.Lease lease = data != null ? setBody(request, data) : null;
+
+    ObjectReader reader = readerFor(returnClazz, innerClazz);
 
-    JavaType type =
-        innerClazz == null
-            ? Defaults.getObjectMapper().getTypeFactory().constructType(returnClazz)
-            : Defaults.getObjectMapper()
-                .getTypeFactory()
-                .constructParametricType(returnClazz, innerClazz);
+    Long ttl =
+        operation != null && config.getResponseCache() != null
+            ? config.getResponseCacheTtl(operation)
+            : null;
+
+    if (ttl != null) {
+      return executeCached(ttl, callType, hosts, request, reader, lease, requestOptions);
+    }
 
-    return executeWithRetry(hosts, request, type);
+    return send(
+        callType,
+        hosts,
+        request,
+        reader::readValue,
+        returnClazz,
+        innerClazz,
+        lease,
+        requestOptions);
+  }
+
+  /**
+   * Executes a search or browse request asynchronously with the retry strategy, handing the hits to
+   * the consumer one by one as they are parsed, so that they are never all in memory at once. The
+   * returned result holds the other fields of the response, with no hits.
+   *
+   * <p>The request is neither coalesced, cached nor hedged, so that the hits of a single response
+   * are handed to the consumer. A response is only read once it's successful, but if its parsing
+   * fails, the hits already parsed have been consumed.
+   *
+   * @param method The http method used for the request (Get,Post,etc.)
+   * @param path The path of the API endpoint
+   * @param callType The Algolia call type of the request : read or write
+   * @param data The data to send if any
+   * @param returnClazz The type that will be returned, holding the hits in a "hits" field
+   * @param hitClazz The type of the hits
+   * @param requestOptions Requests options to add to the request (if so)
+   * @param consumer Receives the hits, in the order of the response
+   * @param <TResult> The type of the result
+   * @param <THit> The type of the hits
+   * @param <TData> The type of the data to send (if so)
+   * @throws AlgoliaRetryException When the retry has failed on all hosts
+   * @throws AlgoliaApiException When the API sends an error
+   * @throws AlgoliaRuntimeException When an error occurred during the serialization.
+   */
+  <TResult, THit, TData> CompletableFuture<TResult> executeStreamingRequestAsync(
+      @Nonnull HttpMethod method,
+      @Nonnull String path,
+      @Nonnull CallType callType,
+      TData data,
+      @Nonnull Class<TResult> returnClazz,
+      @Nonnull Class<THit> hitClazz,
+      RequestOptions requestOptions,
+      @Nonnull Consumer<? super THit> consumer) {
+
+    Iterator<StatefulHost> hosts = retryStrategy.getTryableHosts(callType).iterator();
+
+    HttpRequest request = buildRequest(method, path, callType, requestOptions);
+    GzipCompressor.Lease lease = data != null ? setBody(request, data) : null;
+
+    ObjectReader envelopeReader = readerFor(returnClazz, hitClazz);
+    ObjectReader hitReader = readerFor(hitClazz, null);
+
+    Call call =
+        new Call(
+            hosts, request, in -> readStreaming(in, envelopeReader, hitReader, consumer), lease);
+
+    CompletableFuture<TResult> future = executeWithRetry(call);
+    future.whenComplete((r, t) -> call.close());
+    return future;
+  }
+
+  /**
+   * Sends the request, coalesced with the identical reads in flight if it's enabled.
+   *
+   * @param callType The Algolia call type of the request : read or write
+   * @param hosts The tryable hosts
+   * @param request The request built for the call
+   * @param reader The reader of the response
+   * @param returnClazz The type that will be returned
+   * @param innerClazz The type of the nested class, if any
+   * @param lease The lease of the compressed body, if any
+   * @param requestOptions Requests options to add to the request (if so)
+   * @param <TResult> The type of the result
+   */
+  private <TResult> CompletableFuture<TResult> send(
+      @Nonnull CallType callType,
+      @Nonnull Iterator<StatefulHost> hosts,
+      @Nonnull HttpRequest request,
+      @Nonnull BodyReader reader,
+      Class<?> returnClazz,
+      Class<?> innerClazz,
+      GzipCompressor.Lease lease,
+      RequestOptions requestOptions) {
+
+    if (callType == CallType.READ
+        && config.getUseReadCoalescing()
+        && (requestOptions == null || requestOptions.getCoalescing())) {
+      return executeCoalesced(
+          new FlightKey(request, returnClazz, innerClazz), hosts, request, reader, lease);
+    }
+
+    return execute(new Call(hosts, request, reader, lease), callType);
+  }
+
+  /**
+   * Serves the response from the response cache when it's there, otherwise sends the request and
+   * caches the raw response. Each caller deserializes its own result. A stale response is served
+   * while a single request refreshes it in the background.
+   *
+   * @param ttl The time to live of the response, in milliseconds
+   * @param callType The Algolia call type of the request : read or write
+   * @param hosts The tryable hosts
+   * @param request The request built for the call
+   * @param reader The reader of the result
+   * @param lease The lease of the compressed body, if any
+   * @param requestOptions Requests options to add to the request (if so)
+   * @param <TResult> The type of the result
+   */
+  private <TResult> CompletableFuture<TResult> executeCached(
+      long ttl,
+      @Nonnull CallType callType,
+      @Nonnull Iterator<StatefulHost> hosts,
+      @Nonnull HttpRequest request,
+      @Nonnull ObjectReader reader,
+      GzipCompressor.Lease lease,
+      RequestOptions requestOptions) {
+
+    ResponseCache cache = config.getResponseCache();
+    String key = cacheKey(request);
+    CachedResponse cached = cache.get(key);
+
+    Supplier<CompletableFuture<byte[]>> fetch =
+        () ->
+            this.<byte[]>send(
+                    callType,
+                    hosts,
+                    request,
+                    HttpTransport::readBytes,
+                    byte[].class,
+                    null,
+                    lease,
+                    requestOptions)
+                .thenApply(
+                    body -> {
+                      long now = System.currentTimeMillis();
+                      long freshUntil = now + ttl;
+                      cache.put(
+                          key,
+                          new CachedResponse(
+                              body,
+                              freshUntil,
+                              freshUntil + config.getResponseCacheStaleWhileRevalidate()));
+                      return body;
+                    });
+
+    if (cached == null) {
+      return fetch.get().thenApply(body -> readCached(reader, body));
+    }
+
+    if (!cached.isFresh(System.currentTimeMillis()) && refreshing.add(key)) {
+      fetch
+          .get()
+          .whenComplete(
+              (body, t) -> {
+                refreshing.remove(key);
+                if (t != null) {
+                  LOGGER.log(Level.FINE, "Error while refreshing a cached response", t);
+                }
+              });
+    } else if (lease != null) {
+      lease.release();
+    }
+
+    try {
+      return CompletableFuture.completedFuture(readCached(reader, cached.getBody()));
+    } catch (AlgoliaRuntimeException e) {
+      return CompletableFutureUtils.failedFuture(e);
+    }
+  }
+
+  /**
+   * Executes the call, hedged if it's a read and hedging is enabled.
+   *
+   * @param call The call to execute
+   * @param callType The Algolia call type of the request : read or write
+   * @param <TResult> The type of the result
+   */
+  private <TResult> CompletableFuture<TResult> execute(
+      @Nonnull Call call, @Nonnull CallType callType) {
+
+    CompletableFuture<TResult> future =
+        callType == CallType.READ && config.getReadHedgingDelay() != null
+            ? executeHedged(call, config.getReadHedgingDelay())
+            : executeWithRetry(call);
+
+    // Cancelling the attempts still in flight once the call is completed, or cancelled
+    future.whenComplete((r, t) -> call.close());
+    return future;
+  }
+
+  /**
+   * Executes a read request, unless an identical one is already in flight: the caller then gets its
+   * outcome instead of sending the request again. All the callers share the same result instance.
+   * Each caller gets its own future, cancelling it doesn't cancel the shared request.
+   *
+   * @param key The identity of the request
+   * @param hosts The tryable hosts
+   * @param request The request built for the call
+   * @param reader The reader of the response
+   * @param lease The lease of the compressed body, if any
+   * @param <TResult> The type of the result
+   */
+  @SuppressWarnings("unchecked")
+  private <TResult> CompletableFuture<TResult> executeCoalesced(
+      @Nonnull FlightKey key,
+      @Nonnull Iterator<StatefulHost> hosts,
+      @Nonnull HttpRequest request,
+      @Nonnull BodyReader reader,
+      GzipCompressor.Lease lease) {
+
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    CompletableFuture<Object> existing = flights.putIfAbsent(key, flight);
+
+    if (existing != null) {
+      if (lease != null) {
+        lease.release();
+      }
+      return existing.thenApply(r -> (TResult) r);
+    }
+
+    this.execute(new Call(hosts, request, reader, lease), CallType.READ)
+        .whenComplete(
+            (r, t) -> {
+              // Removed first, so that a request sent from now on isn't given this outcome
+              flights.remove(key, flight);
+              if (t != null) {
+                flight.completeExceptionally(
+                    t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+              } else {
+                flight.complete(r);
+              }
+            });
+
+    return flight.thenApply(r -> (TResult) r);
+  }
+
+  /**
+   * Executes a request with the retry strategy, and sends it again to the next tryable host if it
+   * hasn't been answered after the given delay. The first outcome wins, and the attempts still in
+   * flight are then cancelled. A failure on all the hosts of one attempt only fails the call once
+   * the other attempt has failed too.
+   *
+   * @param call The call to execute
+   * @param delayMillis The delay before sending the hedged request, in milliseconds
+   * @param <TResult> The type of the result
+   */
+  private <TResult> CompletableFuture<TResult> executeHedged(@Nonnull Call call, long delayMillis) {
+    CompletableFuture<TResult> promise = new CompletableFuture<>();
+    AtomicInteger running = new AtomicInteger(1);
+
+    BiConsumer<TResult, Throwable> onComplete =
+        (result, t) -> {
+          if (t == null) {
+            promise.complete(result);
+            return;
+          }
+          Throwable cause =
+              t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+          if (!(cause instanceof AlgoliaRetryException) || running.decrementAndGet() == 0) {
+            promise.completeExceptionally(cause);
+          }
+        };
+
+    this.<TResult>executeWithRetry(call).whenComplete(onComplete);
+
+    ScheduledFuture<?> hedge =
+        config
+            .getScheduler()
+            .schedule(
+                () -> {
+                  if (!promise.isDone() && call.hasNextHost()) {
+                    running.incrementAndGet();
+                    config
+                        .getExecutor()
+                        .execute(
+                            () -> this.<TResult>executeWithRetry(call).whenComplete(onComplete));
+                  }
+                },
+                delayMillis,
+                TimeUnit.MILLISECONDS);
+
+    promise.whenComplete((r, t) -> hedge.cancel(false));
+
+    return promise;
   }
 
   /**
@@ -134,46 +561,59 @@ class HttpTransport {
    * <p>If success the result is returned to the user If retry it performs another call to the API
    * If failure it throws an exception
    *
-   * @param hosts An iterator of the hosts to request
-   * @param request The request to send to the API
-   * @param type The type used for deserialization
+   * @param call The call to execute
    * @param <TResult> The type of the result
    * @throws AlgoliaRetryException When the retry has failed on all hosts
    * @throws AlgoliaApiException When the API sends an error
    * @throws AlgoliaRuntimeException When an error occurred during the serialization.
    */
-  private <TResult> CompletableFuture<TResult> executeWithRetry(
-      @Nonnull Iterator<StatefulHost> hosts, @Nonnull HttpRequest request, @Nonnull JavaType type) {
+  @SuppressWarnings("unchecked")
+  private <TResult> CompletableFuture<TResult> executeWithRetry(@Nonnull Call call) {
+
+    StatefulHost currentHost = call.nextHost();
 
     // If no more hosts to request the retry has failed
-    if (!hosts.hasNext()) {
+    if (currentHost == null) {
       return CompletableFutureUtils.failedFuture(
           new AlgoliaRetryException("All hosts are unreachable"));
     }
 
-    // Building the request URL
-    StatefulHost currentHost = hosts.next();
-    request.setUri(buildURI(currentHost.getUrl(), request.getMethodPath()));
-
-    // Computing timeout with the retry count
-    request.incrementTimeout(currentHost.getRetryCount());
+    HttpRequest attempt = buildAttempt(call.request, currentHost);
+    GzipCompressor.Lease lease = call.lease;
 
     // Performing the recursive http request in case of failure
-    return httpRequester
-        .performRequestAsync(request)
+    long start = currentHost.requestStarted();
+    CompletableFuture<HttpResponse> response = performAttempt(attempt);
+    call.register(response);
+
+    return response
+        .whenComplete(
+            (resp, t) -> {
+              call.unregister(response);
+              if (response.isCancelled()) {
+                currentHost.requestCancelled();
+              } else {
+                currentHost.requestCompleted(start);
+              }
+            })
         .thenComposeAsync(
             resp -> {
+              // An aborted request may still be writing its body, so the buffer can't be reused
+              if (lease != null && (resp.isTimedOut() || resp.isNetworkError())) {
+                lease.discard();
+              }
+
               switch (retryStrategy.decide(currentHost, resp)) {
                 case SUCCESS:
                   try (InputStream dataStream = resp.getBody()) {
-                    TResult result = Defaults.getObjectMapper().readValue(dataStream, type);
+                    TResult result = (TResult) call.reader.read(dataStream);
                     logResponse(result);
                     return CompletableFuture.completedFuture(result);
                   } catch (IOException e) {
                     return CompletableFutureUtils.failedFuture(new AlgoliaRuntimeException(e));
                   }
                 case RETRY:
-                  return executeWithRetry(hosts, request, type);
+                  return executeWithRetry(call);
                 case FAILURE:
                   return CompletableFutureUtils.failedFuture(
                       new AlgoliaApiException(resp.getError(), resp.getHttpStatusCode()));
@@ -183,26 +623,70 @@ class HttpTransport {
                           "Error while processing the retry strategy decision."));
               }
             },
-            config.getExecutor());
+            config.getCallbackExecutor());
   }
 
   /**
-   * Builds the HttpRequest object Builds the headers Builds the queryParameters Serialize the data
-   * if so
+   * Sends an attempt to the requester. With virtual threads, the requester is called through its
+   * blocking method, on the calling thread if it's a virtual one, or else on a new one. Never on
+   * the executor service, as a custom one may be needed by the requester to complete the request.
+   *
+   * @param attempt The request to send
+   */
+  private CompletableFuture<HttpResponse> performAttempt(@Nonnull HttpRequest attempt) {
+    if (!config.getUseVirtualThreads()) {
+      return httpRequester.performRequestAsync(attempt);
+    }
+
+    if (Defaults.isVirtualThread(Thread.currentThread())) {
+      try {
+        return CompletableFuture.completedFuture(httpRequester.performRequest(attempt));
+      } catch (RuntimeException e) {
+        return CompletableFutureUtils.failedFuture(e);
+      }
+    }
+
+    return CompletableFuture.supplyAsync(
+        () -> httpRequester.performRequest(attempt), config.getVirtualThreadExecutor());
+  }
+
+  /**
+   * Builds the request sent to the given host. The original request is never modified, so each
+   * attempt starts from the same timeout and the same body, whatever happened to previous attempts.
+   *
+   * @param request The request built for the call
+   * @param host The host to request
+   */
+  private HttpRequest buildAttempt(@Nonnull HttpRequest request, @Nonnull StatefulHost host) {
+    HttpRequest attempt =
+        new HttpRequest(
+                request.getMethod(),
+                request.getMethodPath(),
+                request.getHeaders(),
+                request.getTimeout(),
+                request.getCompressionType())
+            .setRequestBody(request.getRequestBody())
+            .setUri(buildURI(host.getUrl(), request.getMethodPath()));
+
+    // Computing timeout with the retry count
+    attempt.incrementTimeout(host.getRetryCount());
+
+    return attempt;
+  }
+
+  /**
+   * Builds the HttpRequest object Builds the headers Builds the queryParameters
    *
    * @param method The HTTP method (GET,POST,PUT,DELETE)
    * @param methodPath The API method path
    * @param callType The API call type can be READ or WRITE
    * @param requestOptions Requests options to add to the request (if so)
-   * @param data Data to send to the API (if so)
-   * @param <TData> The type of the data (if so)
    */
-  private <TData> HttpRequest buildRequest(
+  private HttpRequest buildRequest(
       @Nonnull HttpMethod method,
       @Nonnull String methodPath,
       @Nonnull CallType callType,
-      RequestOptions requestOptions,
-      TData data) {
+      RequestOptions requestOptions) {
 
     Map<String, String> headersToSend =
         requestOptions != null ? buildHeaders(requestOptions.getExtraHeaders()) : buildHeaders();
@@ -217,40 +701,200 @@ class HttpTransport {
             ? requestOptions.getTimeout()
             : getTimeOut(callType);
 
-    HttpRequest request =
-        new HttpRequest(method, fullPath, headersToSend, timeout, config.getCompressionType());
+    return new HttpRequest(method, fullPath, headersToSend, timeout, config.getCompressionType());
+  }
+
+  /**
+   * Serializes the data into a single buffer, compressed if the request allows it. The buffer is
+   * handed to the requester as is, without any copy.
+   *
+   * @param request The request to set the body to
+   * @param data Data to send to the API
+   * @param <TData> The type of the data
+   * @return The lease of the pooled buffer when the body is compressed, null otherwise
+   */
+  private <TData> GzipCompressor.Lease setBody(HttpRequest request, TData data) {
+    GzipCompressor.Lease lease = null;
 
-    if (data != null) {
-      request.setBody(serializeJSON(data, request));
+    // Already serialized, e.g. a batch cut on its size
+    if (data instanceof HttpRequestBody) {
+      HttpRequestBody body = (HttpRequestBody) data;
+      try {
+        if (request.canCompress()) {
+          lease = compressor.compress(body::writeTo);
+          request.setRequestBody(lease.getBody());
+        } else {
+          request.setRequestBody(body);
+        }
+      } catch (IOException e) {
+        throw new AlgoliaRuntimeException("Error while compressing the request", e);
+      }
       logRequest(request, data);
+      return lease;
+    }
+
+    ObjectWriter writer = writerFor(data.getClass());
+
+    try {
+      if (request.canCompress()) {
+        lease = compressor.compress(out -> writer.writeValue(out, data));
+        request.setRequestBody(lease.getBody());
+      } else {
+        BodyOutputStream out = new BodyOutputStream();
+        writer.writeValue(out, data);
+        request.setRequestBody(out.toRequestBody());
+      }
+    } catch (IOException e) {
+      throw new AlgoliaRuntimeException("Error while serializing the request", e);
     }
 
-    return request;
+    logRequest(request, data);
+    return lease;
   }
 
-  private <TData> InputStream serializeJSON(TData data, HttpRequest request) {
-    if (request.canCompress()) {
-      try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
-          GZIPOutputStream gzipOS = new GZIPOutputStream(bos)) {
+  /**
+   * Serializes the given data to JSON, appending it to the given stream.
+   *
+   * @param data The data to serialize
+   * @param out The stream to write to. It isn't closed
+   * @throws AlgoliaRuntimeException When an error occurred during the serialization
+   */
+  void serialize(@Nonnull Object data, @Nonnull OutputStream out) {
+    try (JsonGenerator generator = config.getObjectMapper().getFactory().createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      writerFor(data.getClass()).writeValue(generator, data);
+    } catch (IOException e) {
+      throw new AlgoliaRuntimeException("Error while serializing the request", e);
+    }
+  }
 
-        Defaults.getObjectMapper().writeValue(gzipOS, data);
-        return new ByteArrayInputStream(bos.toByteArray());
+  /**
+   * Returns the reader of the given type, resolving it on first use only.
+   *
+   * @param returnClazz The type that will be returned
+   * @param innerClazz The type of the nested class, if any
+   */
+  private ObjectReader readerFor(Class<?> returnClazz, Class<?> innerClazz) {
+    return readers.computeIfAbsent(
+        new ReaderKey(returnClazz, innerClazz),
+        k -> {
+          JavaType type =
+              k.innerClazz == null
+                  ? config.getObjectMapper().getTypeFactory().constructType(k.returnClazz)
+                  : config
+                      .getObjectMapper()
+                      .getTypeFactory()
+                      .constructParametricType(k.returnClazz, k.innerClazz);
+          return config.getObjectMapper().readerFor(type);
+        });
+  }
 
-      } catch (IOException e) {
-        throw new AlgoliaRuntimeException("Error while serializing the request", e);
+  /**
+   * Deserializes a cached response.
+   *
+   * @param reader The reader of the result
+   * @param body The raw response
+   * @throws AlgoliaRuntimeException When an error occurred during the deserialization
+   */
+  private static <TResult> TResult readCached(ObjectReader reader, byte[] body) {
+    try {
+      return reader.readValue(body);
+    } catch (IOException e) {
+      throw new AlgoliaRuntimeException(e);
+    }
+  }
+
+  /**
+   * Reads a response holding hits, handing each hit to the consumer as soon as it's parsed. The
+   * other fields are gathered and deserialized once the whole response has been read.
+   *
+   * <p>Only the deserialized hits are bounded: the Apache and java.net requesters hand over a body
+   * they have already read entirely in memory.
+   *
+   * @param in The response body
+   * @param envelopeReader The reader of the result, without its hits
+   * @param hitReader The reader of a single hit
+   * @param consumer Receives the hits
+   */
+  @SuppressWarnings("unchecked")
+  private <THit> Object readStreaming(
+      InputStream in,
+      ObjectReader envelopeReader,
+      ObjectReader hitReader,
+      Consumer<? super THit> consumer)
+      throws IOException {
+
+    try (JsonParser parser = config.getObjectMapper().getFactory().createParser(in)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new AlgoliaRuntimeException("The response isn't a JSON object.");
       }
-    } else {
-      try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
 
-        Defaults.getObjectMapper().writeValue(out, data);
-        return new ByteArrayInputStream(out.toByteArray());
+      ObjectNode envelope = config.getObjectMapper().createObjectNode();
 
-      } catch (IOException e) {
-        throw new AlgoliaRuntimeException("Error while serializing the request", e);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+
+        if (parser.nextToken() == JsonToken.START_ARRAY && field.equals("hits")) {
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            consumer.accept((THit) hitReader.readValue(parser));
+          }
+        } else {
+          envelope.set(field, config.getObjectMapper().readTree(parser));
+        }
       }
+
+      envelope.putArray("hits");
+      return envelopeReader.readValue(envelope);
     }
   }
 
+  /** Reads a response body as is, to cache it. */
+  private static byte[] readBytes(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] chunk = new byte[8192];
+    int read;
+    while ((read = in.read(chunk)) != -1) {
+      out.write(chunk, 0, read);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Builds the key of a request in the response cache: its method, path and query string, headers
+   * and body.
+   *
+   * @param request The request built for the call
+   */
+  private static String cacheKey(HttpRequest request) {
+    StringBuilder key =
+        new StringBuilder()
+            .append(request.getMethod())
+            .append(' ')
+            .append(request.getMethodPath())
+            .append('\n')
+            .append(new TreeMap<>(request.getHeaders()))
+            .append('\n');
+
+    HttpRequestBody body = request.getRequestBody();
+    if (body != null) {
+      // Latin-1 maps each byte to a single char, so any body, even compressed, is kept as is
+      key.append(
+          new String(
+              body.getBuffer(), body.getOffset(), body.getLength(), StandardCharsets.ISO_8859_1));
+    }
+
+    return key.toString();
+  }
+
+  /**
+   * Returns the writer of the given class, resolving it on first use only.
+   *
+   * @param clazz The runtime class of the data to serialize
+   */
+  private ObjectWriter writerFor(@Nonnull Class<?> clazz) {
+    return writers.computeIfAbsent(clazz, c -> config.getObjectMapper().writerFor(c));
+  }
+
   /**
    * Builds the full URI for the request i.e host + fullPath
    *
@@ -344,11 +988,22 @@ class HttpTransport {
               "\n Method: %s \n Path: %s \n Headers: %s",
               request.getMethod().toString(), request.getMethodPath(), request.getHeaders()));
 
+      if (data instanceof HttpRequestBody) {
+        HttpRequestBody body = (HttpRequestBody) data;
+        LOGGER.finest(
+            String.format(
+                "Request body: \n %s ",
+                new String(
+                    body.getBuffer(), body.getOffset(), body.getLength(), StandardCharsets.UTF_8)));
+        return;
+      }
+
       try {
         LOGGER.finest(
             String.format(
                 "Request body: \n %s ",
-                Defaults.getObjectMapper()
+                config
+                    .getObjectMapper()
                     .writerWithDefaultPrettyPrinter()
                     .writeValueAsString(data)));
       } catch (JsonProcessingException e) {
@@ -362,9 +1017,187 @@ class HttpTransport {
       LOGGER.finest(
           String.format(
               "Response body: %s \n",
-              Defaults.getObjectMapper()
+              config
+                  .getObjectMapper()
                   .writerWithDefaultPrettyPrinter()
                   .writeValueAsString(result)));
     }
   }
+
+  /**
+   * State shared by all the attempts of a call. The hosts are consumed by all the attempts in
+   * flight, so that a hedged request never targets a host already requested.
+   */
+  private static final class Call {
+
+    private final HttpRequest request;
+    private final BodyReader reader;
+    private final GzipCompressor.Lease lease;
+
+    // Guarded by this
+    private final Iterator<StatefulHost> hosts;
+    private final Set<CompletableFuture<HttpResponse>> inFlight = new HashSet<>();
+    private boolean closed = false;
+
+    private Call(
+        Iterator<StatefulHost> hosts,
+        HttpRequest request,
+        BodyReader reader,
+        GzipCompressor.Lease lease) {
+      this.hosts = hosts;
+      this.request = request;
+      this.reader = reader;
+      this.lease = lease;
+    }
+
+    /** The next host to request, or null if there's none left or the call is closed */
+    private synchronized StatefulHost nextHost() {
+      return !closed && hosts.hasNext() ? hosts.next() : null;
+    }
+
+    private synchronized boolean hasNextHost() {
+      return !closed && hosts.hasNext();
+    }
+
+    /** Keeps track of the attempt, to cancel it when the call is closed */
+    private void register(CompletableFuture<HttpResponse> response) {
+      synchronized (this) {
+        if (!closed) {
+          inFlight.add(response);
+          return;
+        }
+      }
+
+      cancel(response);
+    }
+
+    private synchronized void unregister(CompletableFuture<HttpResponse> response) {
+      inFlight.remove(response);
+    }
+
+    /**
+     * Cancels the attempts still in flight, then gives the compressed body back to the pool. The
+     * hosts of the cancelled attempts aren't marked as down.
+     */
+    private void close() {
+      List<CompletableFuture<HttpResponse>> toCancel;
+
+      synchronized (this) {
+        closed = true;
+        toCancel = new ArrayList<>(inFlight);
+        inFlight.clear();
+      }
+
+      toCancel.forEach(this::cancel);
+
+      if (lease != null) {
+        lease.release();
+      }
+    }
+
+    private void cancel(CompletableFuture<HttpResponse> response) {
+      // The requester may still be writing the body of a cancelled request
+      if (response.cancel(true) && lease != null) {
+        lease.discard();
+      }
+    }
+  }
+
+  /** Reads the body of a successful response. */
+  @FunctionalInterface
+  private interface BodyReader {
+    Object read(InputStream in) throws IOException;
+  }
+
+  /** Key of the readers cache. */
+  private static final class ReaderKey {
+
+    private final Class<?> returnClazz;
+    private final Class<?> innerClazz;
+
+    private ReaderKey(Class<?> returnClazz, Class<?> innerClazz) {
+      this.returnClazz = returnClazz;
+      this.innerClazz = innerClazz;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof ReaderKey)) return false;
+      ReaderKey that = (ReaderKey) o;
+      return returnClazz == that.returnClazz && innerClazz == that.innerClazz;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(returnClazz, innerClazz);
+    }
+  }
+
+  /**
+   * Identity of a read request in flight: two requests with the same method, path and query string,
+   * headers, body and expected type get the same response.
+   */
+  private static final class FlightKey {
+
+    private final HttpMethod method;
+    private final String path;
+    private final Map<String, String> headers;
+    private final Class<?> returnClazz;
+    private final Class<?> innerClazz;
+    // Copied, as the buffer of a compressed body goes back to the pool once the call is done
+    private final byte[] body;
+    private final int hashCode;
+
+    private FlightKey(HttpRequest request, Class<?> returnClazz, Class<?> innerClazz) {
+      this.method = request.getMethod();
+      this.path = request.getMethodPath();
+      this.headers = new HashMap<>(request.getHeaders());
+      this.returnClazz = returnClazz;
+      this.innerClazz = innerClazz;
+
+      HttpRequestBody requestBody = request.getRequestBody();
+      this.body =
+          requestBody != null
+              ? Arrays.copyOfRange(
+                  requestBody.getBuffer(),
+                  requestBody.getOffset(),
+                  requestBody.getOffset() + requestBody.getLength())
+              : null;
+
+      this.hashCode =
+          31 * Objects.hash(method, path, headers, returnClazz, innerClazz) + Arrays.hashCode(body);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof FlightKey)) return false;
+      FlightKey that = (FlightKey) o;
+      return hashCode == that.hashCode
+          && method == that.method
+          && returnClazz == that.returnClazz
+          && innerClazz == that.innerClazz
+          && path.equals(that.path)
+          && headers.equals(that.headers)
+          && Arrays.equals(body, that.body);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /** Growable buffer giving access to its bytes without copying them. */
+  private static final class BodyOutputStream extends ByteArrayOutputStream {
+
+    private BodyOutputStream() {
+      super(1024);
+    }
+
+    private HttpRequestBody toRequestBody() {
+      return new HttpRequestBody(buf, 0, count);
+    }
+  }
 }
@@ -4,6 +4,7 @@ import com.algolia.search.exceptions.AlgoliaApiException;
 import com.algolia.search.exceptions.AlgoliaRetryException;
 import com.algolia.search.exceptions.AlgoliaRuntimeException;
 import com.algolia.search.exceptions.LaunderThrowable;
+import com.algolia.search.models.ConnectionPoolStats;
 import com.algolia.search.models.HttpMethod;
 import com.algolia.search.models.RequestOptions;
 import com.algolia.search.models.common.CallType;
@@ -66,6 +67,16 @@ public final class InsightsClient implements Closeable {
     transport.close();
   }
 
+  /**
+   * Returns a snapshot of the connection pool of the http requester, e.g. to monitor the requests
+   * waiting for a connection.
+   *
+   * @return The pool stats, or null if the http requester doesn't expose its connection pool
+   */
+  public ConnectionPoolStats getConnectionPoolStats() {
+    return transport.getConnectionPoolStats();
+  }
+
   /** Get Client's configuration */
   public ConfigBase getConfig() {
     return config;
@@ -0,0 +1,115 @@
+package com.algolia.search;
+
+import com.algolia.search.models.CachedResponse;
+import com.algolia.search.models.ResponseCacheStats;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * In-memory {@link ResponseCache} bounded both in number of responses and in bytes. Once one of the
+ * bounds is reached, the least recently used responses are evicted first.
+ */
+public final class LruResponseCache implements ResponseCache {
+
+  private final int maxEntries;
+  private final long maxBytes;
+
+  // Guarded by this
+  private final LinkedHashMap<String, CachedResponse> entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+  private long hitCount;
+  private long staleHitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /**
+   * @param maxEntries The maximum number of responses kept
+   * @param maxBytes The maximum size of the responses kept, keys included
+   */
+  public LruResponseCache(int maxEntries, long maxBytes) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("The maximum number of entries must be > 0.");
+    }
+
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("The maximum size must be > 0.");
+    }
+
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+  }
+
+  @Override
+  public synchronized CachedResponse get(@Nonnull String key) {
+    CachedResponse response = entries.get(key);
+    long now = System.currentTimeMillis();
+
+    if (response == null || !response.isUsable(now)) {
+      if (response != null) {
+        remove(key);
+      }
+      missCount++;
+      return null;
+    }
+
+    if (response.isFresh(now)) {
+      hitCount++;
+    } else {
+      staleHitCount++;
+    }
+
+    return response;
+  }
+
+  @Override
+  public synchronized void put(@Nonnull String key, @Nonnull CachedResponse response) {
+    Objects.requireNonNull(key, "A key is required.");
+    Objects.requireNonNull(response, "A response is required.");
+
+    remove(key);
+
+    long size = sizeOf(key, response);
+    if (size > maxBytes) {
+      // Would evict everything else without even fitting
+      return;
+    }
+
+    entries.put(key, response);
+    bytes += size;
+
+    Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+    while (entries.size() > maxEntries || bytes > maxBytes) {
+      Map.Entry<String, CachedResponse> entry = eldest.next();
+      bytes -= sizeOf(entry.getKey(), entry.getValue());
+      eldest.remove();
+      evictionCount++;
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    entries.clear();
+    bytes = 0;
+  }
+
+  @Override
+  public synchronized ResponseCacheStats getStats() {
+    return new ResponseCacheStats(
+        hitCount, staleHitCount, missCount, evictionCount, entries.size(), bytes);
+  }
+
+  private void remove(String key) {
+    CachedResponse previous = entries.remove(key);
+    if (previous != null) {
+      bytes -= sizeOf(key, previous);
+    }
+  }
+
+  private static long sizeOf(String key, CachedResponse response) {
+    return key.length() + (long) response.getBody().length;
+  }
+}
@@ -0,0 +1,120 @@
+package com.algolia.search;
+
+import com.algolia.search.models.RequestOptions;
+import com.algolia.search.models.indexing.BrowseIndexQuery;
+import com.algolia.search.models.indexing.BrowseIndexResponse;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+
+/**
+ * Browses an index with one cursor chain per partition, all running concurrently, and hands the
+ * hits of every partition to a single consumer as they are parsed. The partitions are browse
+ * queries whose filters select disjoint sets of records, e.g. numeric ranges or facet values.
+ *
+ * <p>The hits of a page are deserialized one by one, but the raw body of each page in flight is
+ * still held in memory by the requester, so the memory of an export grows with the page size and
+ * the number of partitions.
+ *
+ * <p>Once a partition fails, the other ones stop at their next page and the whole browse fails.
+ */
+final class PartitionedBrowse<T> {
+
+  private final SearchIndex<T> index;
+  private final RequestOptions requestOptions;
+  private final Consumer<? super T> consumer;
+  private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+  /** Partitions still being browsed, guarded by this */
+  private int pending;
+
+  private PartitionedBrowse(
+      SearchIndex<T> index,
+      int partitions,
+      RequestOptions requestOptions,
+      Consumer<? super T> consumer) {
+    this.index = index;
+    this.requestOptions = requestOptions;
+    this.consumer = consumer;
+    this.pending = partitions;
+  }
+
+  /**
+   * Browses all the partitions concurrently.
+   *
+   * @param index The index to browse
+   * @param partitions Queries selecting disjoint sets of records. Their cursor is updated as their
+   *     pages are received
+   * @param requestOptions Options to pass to every request
+   * @param consumer Receives the hits, never concurrently
+   * @return A future completed once all the partitions have been browsed entirely
+   */
+  static <T> CompletableFuture<Void> browse(
+      @Nonnull SearchIndex<T> index,
+      @Nonnull List<BrowseIndexQuery> partitions,
+      RequestOptions requestOptions,
+      @Nonnull Consumer<? super T> consumer) {
+
+    Objects.requireNonNull(partitions, "Partitions are required.");
+    Objects.requireNonNull(consumer, "A consumer is required.");
+
+    if (partitions.isEmpty()) {
+      throw new IllegalArgumentException("partitions can't be empty.");
+    }
+
+    PartitionedBrowse<T> browse =
+        new PartitionedBrowse<>(index, partitions.size(), requestOptions, consumer);
+    partitions.forEach(browse::browsePage);
+    return browse.result;
+  }
+
+  /** Requests the page at the cursor of the query, then the next ones until the last one. */
+  private void browsePage(BrowseIndexQuery query) {
+    if (result.isDone()) {
+      return;
+    }
+
+    CompletableFuture<BrowseIndexResponse<T>> request;
+    try {
+      request = index.streamBrowseFromAsync(query, requestOptions, this::consume);
+    } catch (RuntimeException e) {
+      // Also stops the partitions already running
+      result.completeExceptionally(e);
+      return;
+    }
+
+    request.whenComplete(
+        (page, t) -> {
+          if (t != null) {
+            result.completeExceptionally(
+                t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+            return;
+          }
+
+          if (page.getCursor() != null) {
+            browsePage(query.setCursor(page.getCursor()));
+          } else {
+            query.setCursor(null);
+            complete();
+          }
+        });
+  }
+
+  private synchronized void consume(T hit) {
+    if (!result.isDone()) {
+      consumer.accept(hit);
+    }
+  }
+
+  private void complete() {
+    synchronized (this) {
+      if (--pending > 0) {
+        return;
+      }
+    }
+    result.complete(null);
+  }
+}
@@ -2,6 +2,7 @@ package com.algolia.search;
 
 import com.algolia.search.exceptions.*;
 import com.algolia.search.exceptions.LaunderThrowable;
+import com.algolia.search.models.ConnectionPoolStats;
 import com.algolia.search.models.HttpMethod;
 import com.algolia.search.models.RequestOptions;
 import com.algolia.search.models.common.CallType;
@@ -63,6 +64,16 @@ public class RecommendationClient implements Closeable {
     transport.close();
   }
 
+  /**
+   * Returns a snapshot of the connection pool of the http requester, e.g. to monitor the requests
+   * waiting for a connection.
+   *
+   * @return The pool stats, or null if the http requester doesn't expose its connection pool
+   */
+  public ConnectionPoolStats getConnectionPoolStats() {
+    return transport.getConnectionPoolStats();
+  }
+
   /**
    * Returns the personalization strategy of the application
    *
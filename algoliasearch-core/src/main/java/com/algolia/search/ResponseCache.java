@@ -0,0 +1,37 @@
+package com.algolia.search;
+
+import com.algolia.search.models.CachedResponse;
+import com.algolia.search.models.ResponseCacheStats;
+import javax.annotation.Nonnull;
+
+/**
+ * Cache of the raw responses of read requests, shared by all the calls of a client. It must be
+ * thread-safe. See {@link LruResponseCache} for the default implementation.
+ *
+ * <p>The keys identify a request: its method, path and query string, headers and body. The
+ * freshness of the responses is decided by the client, see {@link CachedResponse}.
+ */
+public interface ResponseCache {
+
+  /**
+   * Returns the response kept for the given key, or null if there's none or if it's not usable
+   * anymore.
+   *
+   * @param key The identity of the request
+   */
+  CachedResponse get(@Nonnull String key);
+
+  /**
+   * Keeps a response, replacing any response previously kept for the same key.
+   *
+   * @param key The identity of the request
+   * @param response The response to keep
+   */
+  void put(@Nonnull String key, @Nonnull CachedResponse response);
+
+  /** Removes all the responses, e.g. after an update of the indices. */
+  void clear();
+
+  /** Returns the counters of the cache. */
+  ResponseCacheStats getStats();
+}
@@ -2,74 +2,109 @@ package com.algolia.search;
 
 import com.algolia.search.models.HttpResponse;
 import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.common.HostSelectionPolicy;
 import com.algolia.search.models.common.RetryOutcome;
 import com.algolia.search.util.HttpStatusCodeUtils;
-import java.time.Duration;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
-/** Algolia's retry strategy in case of server error, timeouts... */
+/**
+ * Algolia's retry strategy in case of server error, timeouts...
+ *
+ * <p>The strategy is lock-free: the state of the hosts is kept in volatile fields, updated by each
+ * request without synchronization. The races between concurrent updates are benign, as they all
+ * converge to the same state.
+ */
 class RetryStrategy {
 
+  /** Hosts down for longer than this delay are considered up again */
+  private static final long HOST_EXPIRATION_NANOS = TimeUnit.MINUTES.toNanos(5);
+
   /** Hosts that will be used by the strategy. Could be default hosts or custom hosts */
   private final List<StatefulHost> hosts;
 
+  /** Order in which the available hosts are tried */
+  private final HostSelectionPolicy policy;
+
+  /** Hosts accepting each call type, computed once as the hosts' call types never change */
+  private final Map<CallType, List<StatefulHost>> hostsByCallType = new EnumMap<>(CallType.class);
+
   /**
    * Creates a new instance of the retry strategy. If custom hosts are provided in the configuration
    * it will override the default hosts.
    */
   RetryStrategy(ConfigBase config) {
     hosts = config.getHosts();
+    policy = config.getHostSelectionPolicy();
+
+    for (CallType callType : CallType.values()) {
+      List<StatefulHost> accepting = new ArrayList<>();
+      for (StatefulHost host : hosts) {
+        if (host.getAccept().contains(callType)) {
+          accepting.add(host);
+        }
+      }
+      hostsByCallType.put(callType, Collections.unmodifiableList(accepting));
+    }
   }
 
   /**
-   * Gives the available hosts.
+   * Gives the available hosts, in the order of the host selection policy. When all the hosts of the
+   * call type are up, which is the usual case, and the hosts are tried in the configuration order,
+   * the precomputed list is returned without any allocation.
    *
    * @param callType Algolia calltype.
    */
   List<StatefulHost> getTryableHosts(CallType callType) {
-    synchronized (this) {
-      resetExpiredHosts();
-      if (hosts.stream().anyMatch(h -> h.isUp() && h.getAccept().contains(callType))) {
-        return hosts.stream()
-            .filter(h -> h.isUp() && h.getAccept().contains(callType))
-            .collect(Collectors.toList());
-      } else {
-        for (StatefulHost host :
-            hosts.stream()
-                .filter(h -> h.getAccept().contains(callType))
-                .collect(Collectors.toList())) {
-          reset(host);
-        }
+    List<StatefulHost> accepting = hostsByCallType.get(callType);
+
+    if (!accepting.isEmpty() && allUp(accepting)) {
+      return order(accepting);
+    }
+
+    resetExpiredHosts(System.nanoTime());
 
-        return hosts;
+    List<StatefulHost> upHosts = new ArrayList<>(accepting.size());
+    for (StatefulHost host : accepting) {
+      if (host.isUp()) {
+        upHosts.add(host);
       }
     }
+
+    if (!upHosts.isEmpty()) {
+      return order(upHosts);
+    }
+
+    long now = System.nanoTime();
+    for (StatefulHost host : accepting) {
+      reset(host, now);
+    }
+
+    return hosts;
   }
 
   /** Retry logic. Decide if an host is retryable or not regarding the following parameters. */
   RetryOutcome decide(StatefulHost tryableHost, HttpResponse response) {
 
-    synchronized (this) {
-      if (!response.isTimedOut() && HttpStatusCodeUtils.isSuccess(response)) {
-        tryableHost.setUp(true);
-        tryableHost.setLastUse(OffsetDateTime.now(ZoneOffset.UTC));
-        return RetryOutcome.SUCCESS;
-      } else if (!response.isTimedOut() && isRetryable(response)) {
-        tryableHost.setUp(false);
-        tryableHost.setLastUse(OffsetDateTime.now(ZoneOffset.UTC));
-        return RetryOutcome.RETRY;
-      } else if (response.isTimedOut()) {
-        tryableHost.setUp(true);
-        tryableHost.setLastUse(OffsetDateTime.now(ZoneOffset.UTC));
-        tryableHost.incrementRetryCount();
-        return RetryOutcome.RETRY;
-      }
-
-      return RetryOutcome.FAILURE;
+    if (!response.isTimedOut() && HttpStatusCodeUtils.isSuccess(response)) {
+      tryableHost.setUp(true).setLastUseNanos(System.nanoTime());
+      return RetryOutcome.SUCCESS;
+    } else if (!response.isTimedOut() && isRetryable(response)) {
+      tryableHost.setLastUseNanos(System.nanoTime()).setUp(false);
+      return RetryOutcome.RETRY;
+    } else if (response.isTimedOut()) {
+      tryableHost.setUp(true).setLastUseNanos(System.nanoTime());
+      tryableHost.incrementRetryCount();
+      return RetryOutcome.RETRY;
     }
+
+    return RetryOutcome.FAILURE;
   }
 
   /**
@@ -84,24 +119,100 @@ class RetryStrategy {
     return isRetryableHttpCode || response.isNetworkError();
   }
 
+  /**
+   * Orders the given hosts with the host selection policy. The scores are read once before sorting,
+   * as the statistics of the hosts keep changing concurrently.
+   *
+   * @param tryableHosts The hosts to order
+   */
+  private List<StatefulHost> order(List<StatefulHost> tryableHosts) {
+    int size = tryableHosts.size();
+
+    if (policy == HostSelectionPolicy.ORDERED || size < 2) {
+      return tryableHosts;
+    }
+
+    long now = System.nanoTime();
+    StatefulHost[] ordered = tryableHosts.toArray(new StatefulHost[size]);
+
+    if (policy == HostSelectionPolicy.POWER_OF_TWO_CHOICES) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int first = random.nextInt(size);
+      int second = (first + 1 + random.nextInt(size - 1)) % size;
+      int best = load(ordered[second], now) < load(ordered[first], now) ? second : first;
+
+      // Moving the best host first, the others keep their relative order
+      StatefulHost chosen = ordered[best];
+      System.arraycopy(ordered, 0, ordered, 1, best);
+      ordered[0] = chosen;
+      return Arrays.asList(ordered);
+    }
+
+    long[] primary = new long[size];
+    long[] secondary = new long[size];
+    for (int i = 0; i < size; i++) {
+      long latency = ordered[i].getAverageLatencyNanos(now);
+      if (policy == HostSelectionPolicy.LEAST_OUTSTANDING_REQUESTS) {
+        primary[i] = ordered[i].getOutstandingRequests();
+        secondary[i] = latency;
+      } else {
+        primary[i] = latency;
+      }
+    }
+
+    // Stable insertion sort, there are only a handful of hosts
+    for (int i = 1; i < size; i++) {
+      StatefulHost host = ordered[i];
+      long p = primary[i];
+      long s = secondary[i];
+      int j = i - 1;
+      while (j >= 0 && (primary[j] > p || (primary[j] == p && secondary[j] > s))) {
+        ordered[j + 1] = ordered[j];
+        primary[j + 1] = primary[j];
+        secondary[j + 1] = secondary[j];
+        j--;
+      }
+      ordered[j + 1] = host;
+      primary[j + 1] = p;
+      secondary[j + 1] = s;
+    }
+
+    return Arrays.asList(ordered);
+  }
+
+  /** The expected cost of sending one more request to the given host */
+  private static long load(StatefulHost host, long now) {
+    return (host.getOutstandingRequests() + 1) * Math.max(1, host.getAverageLatencyNanos(now));
+  }
+
+  private static boolean allUp(List<StatefulHost> hosts) {
+    for (int i = 0; i < hosts.size(); i++) {
+      if (!hosts.get(i).isUp()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Reset the given hosts. Sets the retry count to 0 and set the last use to now.
    *
    * @param host The host to reset
+   * @param now The current {@link System#nanoTime()}
    */
-  private void reset(StatefulHost host) {
-    host.setUp(true).setRetryCount(0).setLastUse(OffsetDateTime.now(ZoneOffset.UTC));
+  private void reset(StatefulHost host, long now) {
+    host.setRetryCount(0).setLastUseNanos(now).setUp(true);
   }
 
-  /** Reset all hosts down for more than 5 minutes. */
-  private void resetExpiredHosts() {
+  /**
+   * Reset all hosts down for more than 5 minutes.
+   *
+   * @param now The current {@link System#nanoTime()}
+   */
+  private void resetExpiredHosts(long now) {
     for (StatefulHost host : hosts) {
-      if (!host.isUp()
-          && Math.abs(
-                  Duration.between(OffsetDateTime.now(ZoneOffset.UTC), host.getLastUse())
-                      .getSeconds())
-              > 5 * 60) {
-        reset(host);
+      if (!host.isUp() && now - host.getLastUseNanos() > HOST_EXPIRATION_NANOS) {
+        reset(host, now);
       }
     }
   }
@@ -0,0 +1,212 @@
+package com.algolia.search;
+
+import com.algolia.search.exceptions.AlgoliaApiException;
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.indexing.MultipleQueries;
+import com.algolia.search.models.indexing.MultipleQueriesRequest;
+import com.algolia.search.models.indexing.MultipleQueriesResponse;
+import com.algolia.search.models.indexing.Query;
+import com.algolia.search.models.indexing.SearchResult;
+import com.algolia.search.models.indexing.StrategyType;
+import com.algolia.search.util.QueryStringUtils;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+/**
+ * Gathers the searches issued within a short window, on any index of the client, and sends them as
+ * a single multiple queries request with the {@link StrategyType#NONE} strategy. Each search is
+ * completed with its own result.
+ *
+ * <p>The searches are grouped by the class of their hits, as the response is deserialized with a
+ * single class. If the API rejects a batch with a client error, which a single query can cause,
+ * e.g. a missing index or an index the API key isn't allowed on, every search of the batch is sent
+ * again on its own so that only the faulty ones fail. An invalid API key, a rate limit, or any
+ * other error fails every search of the batch at once, as it would fail them on their own as well.
+ */
+class SearchBatcher {
+
+  /** The client errors no single query of a batch causes */
+  private static final int UNAUTHORIZED = 401;
+
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private final HttpTransport transport;
+  private final SearchConfig config;
+
+  /** Pending batch by class of hits, guarded by this */
+  private final Map<Class<?>, Batch> batches = new HashMap<>();
+
+  SearchBatcher(@Nonnull HttpTransport transport, @Nonnull SearchConfig config) {
+    this.transport = transport;
+    this.config = config;
+  }
+
+  /**
+   * Adds a search to the pending batch of its class. The batch is sent once the batching window has
+   * elapsed, or right away once it's full.
+   *
+   * @param indexName The non-encoded index name
+   * @param query The search query. Must not be modified until the search completes
+   * @param clazz The class of the hits
+   */
+  @SuppressWarnings("unchecked")
+  <T> CompletableFuture<SearchResult<T>> search(
+      @Nonnull String indexName, @Nonnull Query query, @Nonnull Class<T> clazz) {
+    Search search = new Search(indexName, query);
+    Batch full = null;
+
+    synchronized (this) {
+      Batch batch = batches.get(clazz);
+
+      if (batch == null) {
+        Batch created = new Batch(clazz);
+        created.timer =
+            config
+                .getScheduler()
+                .schedule(
+                    () -> config.getExecutor().execute(() -> flush(created)),
+                    config.getSearchBatchingWindow(),
+                    TimeUnit.MILLISECONDS);
+        batches.put(clazz, created);
+        batch = created;
+      }
+
+      batch.searches.add(search);
+
+      if (batch.searches.size() >= config.getMaxSearchBatchSize()) {
+        batches.remove(clazz);
+        batch.timer.cancel(false);
+        full = batch;
+      }
+    }
+
+    if (full != null) {
+      send(full);
+    }
+
+    return (CompletableFuture<SearchResult<T>>) (CompletableFuture<?>) search.promise;
+  }
+
+  /** Sends the batch when its window has elapsed, unless it has been sent because it was full. */
+  private void flush(Batch batch) {
+    synchronized (this) {
+      if (!batches.remove(batch.clazz, batch)) {
+        return;
+      }
+    }
+    send(batch);
+  }
+
+  private void send(Batch batch) {
+    if (batch.searches.size() == 1) {
+      sendAlone(batch.searches.get(0), batch.clazz);
+      return;
+    }
+
+    List<MultipleQueries> queries = new ArrayList<>(batch.searches.size());
+    for (Search search : batch.searches) {
+      queries.add(new MultipleQueries(search.indexName, search.query));
+    }
+
+    transport
+        .executeRequestAsync(
+            HttpMethod.POST,
+            "/1/indexes/*/queries",
+            CallType.READ,
+            new MultipleQueriesRequest(StrategyType.NONE, queries),
+            MultipleQueriesResponse.class,
+            batch.clazz,
+            null)
+        .whenComplete(
+            (response, t) -> {
+              Throwable cause =
+                  t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+
+              if (cause instanceof AlgoliaApiException
+                  && isCausedByAQuery(((AlgoliaApiException) cause).getHttpErrorCode())) {
+                batch.searches.forEach(s -> sendAlone(s, batch.clazz));
+              } else if (cause != null) {
+                batch.searches.forEach(s -> s.promise.completeExceptionally(cause));
+              } else {
+                complete(batch, response);
+              }
+            });
+  }
+
+  /** Whether the error of a batch may be caused by some of its queries only. */
+  private static boolean isCausedByAQuery(int status) {
+    return status >= 400 && status < 500 && status != UNAUTHORIZED && status != TOO_MANY_REQUESTS;
+  }
+
+  private void complete(Batch batch, MultipleQueriesResponse<?> response) {
+    List<? extends SearchResult<?>> results = response.getResults();
+
+    if (results == null || results.size() != batch.searches.size()) {
+      AlgoliaRuntimeException e =
+          new AlgoliaRuntimeException(
+              "The multiple queries response doesn't hold one result per query.");
+      batch.searches.forEach(s -> s.promise.completeExceptionally(e));
+      return;
+    }
+
+    for (int i = 0; i < results.size(); i++) {
+      batch.searches.get(i).promise.complete(results.get(i));
+    }
+  }
+
+  /** Sends a search to the query endpoint of its index, as an unbatched search would. */
+  private void sendAlone(Search search, Class<?> clazz) {
+    transport
+        .executeRequestAsync(
+            HttpMethod.POST,
+            "/1/indexes/" + QueryStringUtils.urlEncodeUTF8(search.indexName) + "/query",
+            CallType.READ,
+            search.query,
+            SearchResult.class,
+            clazz,
+            null)
+        .whenComplete(
+            (result, t) -> {
+              if (t != null) {
+                search.promise.completeExceptionally(
+                    t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+              } else {
+                search.promise.complete(result);
+              }
+            });
+  }
+
+  /** The searches sent together. */
+  private static final class Batch {
+
+    private final Class<?> clazz;
+    private final List<Search> searches = new ArrayList<>();
+    private ScheduledFuture<?> timer;
+
+    private Batch(Class<?> clazz) {
+      this.clazz = clazz;
+    }
+  }
+
+  /** A search waiting for its result. */
+  private static final class Search {
+
+    private final String indexName;
+    private final Query query;
+    private final CompletableFuture<SearchResult<?>> promise = new CompletableFuture<>();
+
+    private Search(String indexName, Query query) {
+      this.indexName = indexName;
+      this.query = query;
+    }
+  }
+}
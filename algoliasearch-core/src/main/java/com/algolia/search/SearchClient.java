@@ -3,11 +3,15 @@ package com.algolia.search;
 import com.algolia.search.exceptions.AlgoliaApiException;
 import com.algolia.search.exceptions.AlgoliaRetryException;
 import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.exceptions.LaunderThrowable;
+import com.algolia.search.models.ConnectionPoolStats;
 import com.algolia.search.models.RequestOptions;
 import com.algolia.search.util.AlgoliaUtils;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nonnull;
 
 /**
@@ -34,6 +38,12 @@ public final class SearchClient
   /** Client's configuration. Must be reused. */
   private final ConfigBase config;
 
+  /** Coalesces the waits on the tasks of the indices. */
+  private final TaskTracker tasks;
+
+  /** Batches the concurrent searches on the indices. */
+  private final SearchBatcher searches;
+
   /**
    * Creates a custom {@link SearchClient} with the given {@link SearchConfig} and the given {@link
    * HttpRequester}
@@ -53,6 +63,8 @@ public final class SearchClient
 
     this.config = config;
     this.transport = new HttpTransport(config, httpRequester);
+    this.tasks = new TaskTracker(config);
+    this.searches = new SearchBatcher(transport, config);
   }
 
   /**
@@ -65,6 +77,53 @@ public final class SearchClient
     transport.close();
   }
 
+  /**
+   * Opens connections to the read hosts ahead of the first requests, e.g. right after a deploy, so
+   * that the first searches don't pay the DNS, TCP and TLS handshakes. Also resolves the JSON
+   * readers and writers of the given record classes. It's a best effort: hosts that can't be
+   * reached are ignored.
+   *
+   * @param connectionsPerHost The number of connections to open to each tryable read host
+   * @param recordClasses The classes of the records searched or browsed by the client
+   * @throws IllegalArgumentException When connectionsPerHost is not > 0
+   */
+  public void warmUp(int connectionsPerHost, @Nonnull Class<?>... recordClasses) {
+    LaunderThrowable.await(warmUpAsync(connectionsPerHost, recordClasses));
+  }
+
+  /**
+   * Opens connections to the read hosts ahead of the first requests, e.g. right after a deploy, so
+   * that the first searches don't pay the DNS, TCP and TLS handshakes. Also resolves the JSON
+   * readers and writers of the given record classes. It's a best effort: hosts that can't be
+   * reached are ignored.
+   *
+   * @param connectionsPerHost The number of connections to open to each tryable read host
+   * @param recordClasses The classes of the records searched or browsed by the client
+   * @return A future completed once all the connections are opened, or have failed to
+   * @throws IllegalArgumentException When connectionsPerHost is not > 0
+   */
+  public CompletableFuture<Void> warmUpAsync(
+      int connectionsPerHost, @Nonnull Class<?>... recordClasses) {
+
+    Objects.requireNonNull(recordClasses, "Record classes are required.");
+
+    if (connectionsPerHost <= 0) {
+      throw new IllegalArgumentException("The number of connections per host must be > 0.");
+    }
+
+    return transport.warmUpAsync(connectionsPerHost, Arrays.asList(recordClasses));
+  }
+
+  /**
+   * Returns a snapshot of the connection pool of the http requester, e.g. to monitor the requests
+   * waiting for a connection.
+   *
+   * @return The pool stats, or null if the http requester doesn't expose its connection pool
+   */
+  public ConnectionPoolStats getConnectionPoolStats() {
+    return transport.getConnectionPoolStats();
+  }
+
   @Override
   public HttpTransport getTransport() {
     return transport;
@@ -90,7 +149,7 @@ public final class SearchClient
       throw new IllegalArgumentException("The index name is required. It can't be empty.");
     }
 
-    return new SearchIndex<>(transport, config, indexName, Object.class);
+    return new SearchIndex<>(transport, config, indexName, Object.class, tasks, searches);
   }
 
   /**
@@ -110,7 +169,7 @@ public final class SearchClient
       throw new IllegalArgumentException("The index name is required. It can't be empty.");
     }
 
-    return new SearchIndex<>(transport, config, indexName, clazz);
+    return new SearchIndex<>(transport, config, indexName, clazz, tasks, searches);
   }
 
   /**
@@ -177,4 +236,35 @@ public final class SearchClient
     SearchIndex<?> indexToWait = initIndex(indexName);
     indexToWait.waitTask(taskID, timeToWait, requestOptions);
   }
+
+  /**
+   * Wait asynchronously for a task to complete, to synchronize index updates. All write operations
+   * in Algolia are asynchronous by design.
+   *
+   * @param indexName The indexName to wait on
+   * @param taskID The Algolia taskID
+   * @return A future completed once the task is published
+   */
+  public CompletableFuture<Void> waitTaskAsync(@Nonnull String indexName, long taskID) {
+    return waitTaskAsync(indexName, taskID, 100, null);
+  }
+
+  /**
+   * Wait asynchronously for a task to complete, to synchronize index updates. All write operations
+   * in Algolia are asynchronous by design. No thread is blocked while waiting.
+   *
+   * @param indexName The indexName to wait on
+   * @param taskID The Algolia taskID
+   * @param timeToWait The time to wait between the first two calls, doubled after each call
+   * @param requestOptions Options to pass to this request
+   * @return A future completed once the task is published
+   */
+  public CompletableFuture<Void> waitTaskAsync(
+      @Nonnull String indexName, long taskID, long timeToWait, RequestOptions requestOptions) {
+
+    Objects.requireNonNull(indexName, "The index name is required.");
+
+    SearchIndex<?> indexToWait = initIndex(indexName);
+    return indexToWait.waitTaskAsync(taskID, timeToWait, requestOptions);
+  }
 }
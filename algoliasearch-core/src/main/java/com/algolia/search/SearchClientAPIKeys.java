@@ -67,7 +67,7 @@ public interface SearchClientAPIKeys extends SearchClientBase {
     return getTransport()
         .executeRequestAsync(
             HttpMethod.GET, "/1/keys", CallType.READ, null, ApiKeys.class, requestOptions)
-        .thenApplyAsync(ApiKeys::getKeys, getConfig().getExecutor());
+        .thenApplyAsync(ApiKeys::getKeys, getConfig().getCallbackExecutor());
   }
 
   /**
@@ -193,7 +193,7 @@ public interface SearchClientAPIKeys extends SearchClientBase {
               resp.setGetApiKeyFunction(this::getApiKey);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -263,7 +263,7 @@ public interface SearchClientAPIKeys extends SearchClientBase {
               resp.setGetApiKeyFunction(this::getApiKey);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -335,7 +335,7 @@ public interface SearchClientAPIKeys extends SearchClientBase {
               resp.setGetApiKeyFunction(this::getApiKey);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -409,7 +409,7 @@ public interface SearchClientAPIKeys extends SearchClientBase {
               resp.setGetApiKeyFunction(this::getApiKey);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -424,7 +424,8 @@ public interface SearchClientAPIKeys extends SearchClientBase {
    */
   default String generateSecuredAPIKey(
       @Nonnull String parentAPIKey, SecuredApiKeyRestriction restriction) throws Exception {
-    return HmacShaUtils.generateSecuredApiKey(parentAPIKey, restriction);
+    return HmacShaUtils.generateSecuredApiKey(
+        parentAPIKey, restriction, getConfig().getObjectMapper());
   }
 
   /**
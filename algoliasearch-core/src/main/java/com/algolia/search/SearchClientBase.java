@@ -1,6 +1,7 @@
 package com.algolia.search;
 
 import com.algolia.search.models.RequestOptions;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nonnull;
 
 public interface SearchClientBase {
@@ -12,4 +13,9 @@ public interface SearchClientBase {
       @Nonnull String indexName, long taskId, long timeToWait, RequestOptions requestOptions);
 
   void waitTask(@Nonnull String indexName, long taskId);
+
+  CompletableFuture<Void> waitTaskAsync(
+      @Nonnull String indexName, long taskId, long timeToWait, RequestOptions requestOptions);
+
+  CompletableFuture<Void> waitTaskAsync(@Nonnull String indexName, long taskId);
 }
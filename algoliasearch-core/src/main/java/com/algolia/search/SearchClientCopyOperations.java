@@ -323,10 +323,10 @@ public interface SearchClientCopyOperations extends SearchClientBase {
         .thenApplyAsync(
             resp -> {
               resp.setIndexName(sourceIndex);
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -392,10 +392,10 @@ public interface SearchClientCopyOperations extends SearchClientBase {
         .thenApplyAsync(
             resp -> {
               resp.setIndexName(destinationIndex);
-              resp.setWaitBiConsumer(this::waitTask);
+              resp.setWaitTaskBiFunction(this::waitTaskAsync);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   default void checkIndicesBeforeMoving(
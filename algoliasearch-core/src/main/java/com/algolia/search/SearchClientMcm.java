@@ -131,7 +131,7 @@ public interface SearchClientMcm extends SearchClientBase {
               r.complete(resp);
               return r;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
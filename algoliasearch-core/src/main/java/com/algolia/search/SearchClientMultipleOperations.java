@@ -5,12 +5,19 @@ import com.algolia.search.exceptions.AlgoliaRetryException;
 import com.algolia.search.exceptions.AlgoliaRuntimeException;
 import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.HttpRequestBody;
 import com.algolia.search.models.RequestOptions;
 import com.algolia.search.models.common.CallType;
 import com.algolia.search.models.indexing.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import javax.annotation.Nonnull;
 
 public interface SearchClientMultipleOperations extends SearchClientBase {
@@ -59,7 +66,10 @@ public interface SearchClientMultipleOperations extends SearchClientBase {
   }
 
   /**
-   * Retrieve one or more objects, potentially from different indices, in a single API call.
+   * Retrieve one or more objects, potentially from different indices, in a single API call. Large
+   * lists are fetched in chunks sent in parallel, see {@link
+   * ConfigBase.Builder#setGetObjectsChunkSize(int)}. The objects are returned in the order of the
+   * queries.
    *
    * @param queries The query object
    * @param clazz Class of the data to retrieve
@@ -69,31 +79,40 @@ public interface SearchClientMultipleOperations extends SearchClientBase {
    * @throws AlgoliaApiException When the API sends an http error code
    * @throws AlgoliaRuntimeException When an error occurred during the serialization
    */
-  @SuppressWarnings("unchecked")
   default <T> CompletableFuture<MultipleGetObjectsResponse<T>> multipleGetObjectsAsync(
       List<MultipleGetObject> queries, Class<T> clazz, RequestOptions requestOptions) {
 
     Objects.requireNonNull(queries, "Queries is required");
     Objects.requireNonNull(clazz, "Class is required");
 
-    MultipleGetObjectsRequest request = new MultipleGetObjectsRequest(queries);
+    return GetObjectsDispatcher.fetch(getTransport(), getConfig(), queries, clazz, requestOptions)
+        .thenApply(objects -> new MultipleGetObjectsResponse<T>().setResults(objects));
+  }
 
-    return getTransport()
-        .executeRequestAsync(
-            HttpMethod.POST,
-            "/1/indexes/*/objects",
-            CallType.READ,
-            request,
-            MultipleGetObjectsResponse.class,
-            clazz,
-            requestOptions)
-        .thenComposeAsync(
-            resp -> {
-              CompletableFuture<MultipleGetObjectsResponse<T>> r = new CompletableFuture<>();
-              r.complete(resp);
-              return r;
-            },
-            getConfig().getExecutor());
+  /**
+   * Retrieve one or more objects, potentially from different indices, handing them to the given
+   * consumer as they arrive. Large lists are fetched in chunks sent in parallel, see {@link
+   * ConfigBase.Builder#setGetObjectsChunkSize(int)}. The consumer is never called concurrently, but
+   * the objects may not arrive in the order of the queries. Objects not found are skipped.
+   *
+   * @param queries The query object
+   * @param clazz Class of the data to retrieve
+   * @param requestOptions Options to pass to this request
+   * @param consumer Receives the objects
+   * @param <T> Type of the data to retrieve
+   * @return A future completed once all the objects have been consumed
+   */
+  default <T> CompletableFuture<Void> multipleGetObjectsAsync(
+      List<MultipleGetObject> queries,
+      Class<T> clazz,
+      RequestOptions requestOptions,
+      @Nonnull Consumer<? super T> consumer) {
+
+    Objects.requireNonNull(queries, "Queries is required");
+    Objects.requireNonNull(clazz, "Class is required");
+
+    return GetObjectsDispatcher.stream(
+        getTransport(), getConfig(), queries, clazz, requestOptions, consumer);
   }
 
   /**
@@ -113,7 +132,8 @@ public interface SearchClientMultipleOperations extends SearchClientBase {
 
   /**
    * Perform multiple write operations, potentially targeting multiple indices, in a single API
-   * call.
+   * call. If {@link ConfigBase#getMaxBatchBytes()} is set, the operations are split into several
+   * API calls on their serialized size.
    *
    * @param operations The batch operations to process. It could be on multiple indices with
    *     multiple action
@@ -144,7 +164,8 @@ public interface SearchClientMultipleOperations extends SearchClientBase {
 
   /**
    * Perform multiple write operations, potentially targeting multiple indices, in a single API
-   * call.
+   * call. If {@link ConfigBase#getMaxBatchBytes()} is set, the operations are split into several
+   * API calls on their serialized size.
    *
    * @param operations The batch operations to process. It could be on multiple indices with
    *     multiple action
@@ -158,22 +179,79 @@ public interface SearchClientMultipleOperations extends SearchClientBase {
 
     Objects.requireNonNull(operations, "Operations are required");
 
-    BatchRequest<T> request = new BatchRequest<>(operations);
+    Function<Object, CompletableFuture<MultipleIndexBatchIndexingResponse>> sendBatch =
+        batch ->
+            getTransport()
+                .executeRequestAsync(
+                    HttpMethod.POST,
+                    "/1/indexes/*/batch",
+                    CallType.WRITE,
+                    batch,
+                    MultipleIndexBatchIndexingResponse.class,
+                    requestOptions);
 
-    return getTransport()
-        .executeRequestAsync(
-            HttpMethod.POST,
-            "/1/indexes/*/batch",
-            CallType.WRITE,
-            request,
-            MultipleIndexBatchIndexingResponse.class,
-            requestOptions)
+    if (getConfig().getMaxBatchBytes() == null) {
+      return sendBatch
+          .apply(new BatchRequest<>(operations))
+          .thenApplyAsync(
+              resp -> {
+                resp.setWaitTaskFunction(this::waitTaskAsync);
+                return resp;
+              },
+              getConfig().getCallbackExecutor());
+    }
+
+    // Operations are split on their serialized size, each chunk being sent as its own batch. Each
+    // operation is serialized once, in the body of the batch it fits in
+    Iterator<HttpRequestBody> bodies =
+        new BatchBodyIterator<>(
+            operations.iterator(),
+            Function.identity(),
+            Integer.MAX_VALUE,
+            getConfig().getMaxBatchBytes(),
+            getTransport());
+
+    return ChunkDispatcher.dispatch(
+            bodies,
+            sendBatch::apply,
+            getConfig().getMaxInFlightBatches(),
+            getConfig().getExecutor())
         .thenApplyAsync(
-            resp -> {
-              resp.setWaitConsumer(this::waitTask);
-              return resp;
+            responses -> {
+              List<String> objectIDs = new ArrayList<>();
+              Map<String, Long> lastTaskIDs = new HashMap<>();
+              Map<String, List<Long>> taskIDs = new HashMap<>();
+
+              for (MultipleIndexBatchIndexingResponse resp : responses) {
+                if (resp.getObjectIDs() != null) {
+                  objectIDs.addAll(resp.getObjectIDs());
+                }
+                if (resp.getTaskID() != null) {
+                  resp.getTaskID()
+                      .forEach(
+                          (indexName, taskID) -> {
+                            lastTaskIDs.merge(indexName, taskID, Math::max);
+                            taskIDs.computeIfAbsent(indexName, k -> new ArrayList<>()).add(taskID);
+                          });
+                }
+              }
+
+              MultipleIndexBatchIndexingResponse merged =
+                  new MultipleIndexBatchIndexingResponse()
+                      .setObjectIDs(objectIDs)
+                      .setTaskID(lastTaskIDs);
+
+              // Waiting on every task of the chunks, not only on the last one of each index
+              merged.setWaitTaskFunction(
+                  (indexName, lastTaskID) ->
+                      CompletableFuture.allOf(
+                          taskIDs.get(indexName).stream()
+                              .map(taskID -> waitTaskAsync(indexName, taskID))
+                              .toArray(CompletableFuture[]::new)));
+
+              return merged;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -263,6 +341,6 @@ public interface SearchClientMultipleOperations extends SearchClientBase {
               r.complete(resp);
               return r;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 }
@@ -12,6 +12,9 @@ public final class SearchConfig extends ConfigBase {
 
   public static class Builder extends ConfigBase.Builder<Builder> {
 
+    private Integer searchBatchingWindow;
+    private int maxSearchBatchSize = 50;
+
     /** Builds a {@link SearchConfig} with the default hosts */
     public Builder(@Nonnull String applicationID, @Nonnull String apiKey) {
       super(applicationID, apiKey, createDefaultHosts(applicationID), CompressionType.NONE);
@@ -58,9 +61,61 @@ public final class SearchConfig extends ConfigBase {
       this.compressionType = compressionType;
       return this;
     }
+
+    /**
+     * Overrides the gzip compression level, from 0 (no compression) to 9 (best compression), when
+     * the compression is enabled. Lower levels trade bandwidth for CPU. Default = {@link
+     * java.util.zip.Deflater#DEFAULT_COMPRESSION}
+     */
+    public Builder setCompressionLevel(int compressionLevel) {
+      this.compressionLevel = compressionLevel;
+      return this;
+    }
+
+    /**
+     * Enables the batching of concurrent searches: the searches issued within this window are sent
+     * as a single multiple queries request, with the {@link
+     * com.algolia.search.models.indexing.StrategyType#NONE} strategy. Searches with request options
+     * are never batched. Default = null, no batching. In milliseconds
+     */
+    public Builder setSearchBatchingWindow(Integer searchBatchingWindow) {
+      this.searchBatchingWindow = searchBatchingWindow;
+      return this;
+    }
+
+    /**
+     * Overrides the maximum number of searches in a batch, which is sent right away once full.
+     * Default = 50 searches.
+     */
+    public Builder setMaxSearchBatchSize(int maxSearchBatchSize) {
+      this.maxSearchBatchSize = maxSearchBatchSize;
+      return this;
+    }
   }
 
+  private final Integer searchBatchingWindow;
+  private final int maxSearchBatchSize;
+
   private SearchConfig(Builder builder) {
     super(builder);
+
+    if (builder.searchBatchingWindow != null && builder.searchBatchingWindow <= 0) {
+      throw new IllegalArgumentException("The search batching window must be > 0.");
+    }
+
+    if (builder.maxSearchBatchSize <= 0) {
+      throw new IllegalArgumentException("The maximum size of a search batch must be > 0.");
+    }
+
+    this.searchBatchingWindow = builder.searchBatchingWindow;
+    this.maxSearchBatchSize = builder.maxSearchBatchSize;
+  }
+
+  public Integer getSearchBatchingWindow() {
+    return searchBatchingWindow;
+  }
+
+  public int getMaxSearchBatchSize() {
+    return maxSearchBatchSize;
   }
 }
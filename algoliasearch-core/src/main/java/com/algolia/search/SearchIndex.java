@@ -8,8 +8,10 @@ import com.algolia.search.exceptions.AlgoliaRuntimeException;
 import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.iterators.IndexIterable;
 import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.HttpRequestBody;
 import com.algolia.search.models.RequestOptions;
 import com.algolia.search.models.WaitableResponse;
+import com.algolia.search.models.common.CacheableOperation;
 import com.algolia.search.models.common.CallType;
 import com.algolia.search.models.common.TaskStatusResponse;
 import com.algolia.search.models.indexing.*;
@@ -17,7 +19,9 @@ import com.algolia.search.util.AlgoliaUtils;
 import com.algolia.search.util.QueryStringUtils;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 
 /**
@@ -37,6 +41,8 @@ public final class SearchIndex<T>
   private final String urlEncodedIndexName;
   private final String indexName;
   private final Class<T> clazz;
+  private final TaskTracker tasks;
+  private final SearchBatcher searches;
 
   /**
    * Create an instance of {@link SearchIndex}. It doesn't perform an API call.
@@ -45,13 +51,23 @@ public final class SearchIndex<T>
    * @param config The related client's configuration.
    * @param indexName The non-encoded index name.
    * @param clazz The class held by the index. Could be your business object or {@link Object}
-   */
-  SearchIndex(HttpTransport transport, ConfigBase config, String indexName, Class<T> clazz) {
+   * @param tasks The task tracker shared by the indices of the client.
+   * @param searches The search batcher shared by the indices of the client.
+   */
+  SearchIndex(
+      HttpTransport transport,
+      ConfigBase config,
+      String indexName,
+      Class<T> clazz,
+      TaskTracker tasks,
+      SearchBatcher searches) {
     this.transport = transport;
     this.config = (SearchConfig) config;
     this.indexName = indexName;
     this.urlEncodedIndexName = QueryStringUtils.urlEncodeUTF8(indexName);
     this.clazz = clazz;
+    this.tasks = tasks;
+    this.searches = searches;
   }
 
   public SearchConfig getConfig() {
@@ -73,6 +89,37 @@ public final class SearchIndex<T>
     return urlEncodedIndexName;
   }
 
+  /**
+   * Method used for querying an index. The search query only allows for the retrieval of up to 1000
+   * hits. If you need to retrieve more than 1000 hits (e.g. for SEO), you can either leverage the
+   * Browse index method or increase the paginationLimitedTo parameter.
+   *
+   * <p>When a search batching window is configured, searches without request options are batched
+   * with the other searches of the client, unless searches are cached. See {@link
+   * SearchConfig.Builder#setSearchBatchingWindow(Integer)}
+   *
+   * @param query The search query
+   * @param requestOptions Options to pass to this request
+   * @throws AlgoliaRetryException When the retry has failed on all hosts
+   * @throws AlgoliaApiException When the API sends an http error code
+   * @throws AlgoliaRuntimeException When an error occurred during the serialization
+   */
+  @Override
+  public CompletableFuture<SearchResult<T>> searchAsync(
+      @Nonnull Query query, RequestOptions requestOptions) {
+
+    if (requestOptions != null
+        || config.getSearchBatchingWindow() == null
+        || (config.getResponseCache() != null
+            && config.getResponseCacheTtl(CacheableOperation.SEARCH) != null)) {
+      return SearchIndexSearching.super.searchAsync(query, requestOptions);
+    }
+
+    Objects.requireNonNull(query, "A query key is required.");
+
+    return searches.search(indexName, query, clazz);
+  }
+
   /**
    * Retrieve one or more objects, potentially from the index, in a single API call.
    *
@@ -185,8 +232,11 @@ public final class SearchIndex<T>
         HttpMethod.GET,
         "/1/indexes/" + urlEncodedIndexName + "/" + QueryStringUtils.urlEncodeUTF8(objectID),
         CallType.READ,
+        null,
         clazz,
-        requestOptions);
+        null,
+        requestOptions,
+        CacheableOperation.GET_OBJECT);
   }
 
   /**
@@ -288,7 +338,9 @@ public final class SearchIndex<T>
   }
 
   /**
-   * Retrieve one or more objects, potentially from the index, in a single API call.
+   * Retrieve one or more objects, potentially from the index, in a single API call. Large lists are
+   * fetched in chunks sent in parallel, see {@link ConfigBase.Builder#setGetObjectsChunkSize(int)}.
+   * The objects are returned in the order of the objectIDs.
    *
    * @param objectIDs ID of the object within that index
    * @param attributesToRetrieve List of attributes to retrieve. By default, all retrievable
@@ -298,7 +350,6 @@ public final class SearchIndex<T>
    * @throws AlgoliaApiException When the API sends an http error code
    * @throws AlgoliaRuntimeException When an error occurred during the serialization
    */
-  @SuppressWarnings("unchecked")
   public CompletableFuture<List<T>> getObjectsAsync(
       @Nonnull List<String> objectIDs,
       List<String> attributesToRetrieve,
@@ -310,30 +361,57 @@ public final class SearchIndex<T>
       throw new IllegalArgumentException("objectIDs can't be empty.");
     }
 
-    List<MultipleGetObject> queries = new ArrayList<>();
+    return GetObjectsDispatcher.fetch(
+        transport,
+        config,
+        toMultipleGetObjects(objectIDs, attributesToRetrieve),
+        clazz,
+        requestOptions);
+  }
+
+  /**
+   * Retrieve one or more objects, handing them to the given consumer as they arrive. Large lists
+   * are fetched in chunks sent in parallel, see {@link
+   * ConfigBase.Builder#setGetObjectsChunkSize(int)}. The consumer is never called concurrently, but
+   * the objects may not arrive in the order of the objectIDs. Objects not found are skipped.
+   *
+   * @param objectIDs ID of the object within that index
+   * @param attributesToRetrieve List of attributes to retrieve. By default, all retrievable
+   *     attributes are returned.
+   * @param requestOptions Options to pass to this request
+   * @param consumer Receives the objects
+   * @return A future completed once all the objects have been consumed
+   */
+  public CompletableFuture<Void> streamObjectsAsync(
+      @Nonnull List<String> objectIDs,
+      List<String> attributesToRetrieve,
+      RequestOptions requestOptions,
+      @Nonnull Consumer<? super T> consumer) {
+
+    Objects.requireNonNull(objectIDs, "Object IDs are required.");
+
+    if (objectIDs.isEmpty()) {
+      throw new IllegalArgumentException("objectIDs can't be empty.");
+    }
+
+    return GetObjectsDispatcher.stream(
+        transport,
+        config,
+        toMultipleGetObjects(objectIDs, attributesToRetrieve),
+        clazz,
+        requestOptions,
+        consumer);
+  }
+
+  private List<MultipleGetObject> toMultipleGetObjects(
+      List<String> objectIDs, List<String> attributesToRetrieve) {
+    List<MultipleGetObject> queries = new ArrayList<>(objectIDs.size());
 
     for (String objectId : objectIDs) {
       queries.add(new MultipleGetObject(this.indexName, objectId, attributesToRetrieve));
     }
 
-    MultipleGetObjectsRequest request = new MultipleGetObjectsRequest(queries);
-
-    return transport
-        .executeRequestAsync(
-            HttpMethod.POST,
-            "/1/indexes/*/objects",
-            CallType.READ,
-            request,
-            MultipleGetObjectsResponse.class,
-            clazz,
-            requestOptions)
-        .thenComposeAsync(
-            resp -> {
-              CompletableFuture<List<T>> r = new CompletableFuture<>();
-              r.complete(resp.getResults());
-              return r;
-            },
-            config.getExecutor());
+    return queries;
   }
 
   /**
@@ -499,10 +577,10 @@ public final class SearchIndex<T>
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            config.getExecutor());
+            config.getCallbackExecutor());
   }
 
   /**
@@ -947,7 +1025,10 @@ public final class SearchIndex<T>
   }
 
   /**
-   * Split records into smaller chunks before sending them to the API asynchronously
+   * Split records into smaller chunks before sending them to the API asynchronously. Records are
+   * pulled lazily from the given Iterable, at most {@link ConfigBase#getMaxInFlightBatches()}
+   * batches are sent concurrently. Chunks are cut on {@link ConfigBase#getBatchSize()} records or
+   * {@link ConfigBase#getMaxBatchBytes()} bytes, whichever comes first.
    *
    * @param data The data to send and chunk
    * @param actionType The action type of the batch
@@ -962,36 +1043,30 @@ public final class SearchIndex<T>
     Objects.requireNonNull(data, "Data are required.");
     Objects.requireNonNull(actionType, "An action type is required.");
 
-    List<CompletableFuture<BatchResponse>> futures = new ArrayList<>();
-    List<E> records = new ArrayList<>();
-
-    for (E item : data) {
-
-      if (records.size() == config.getBatchSize()) {
-        BatchRequest<E> request = new BatchRequest<>(actionType, records);
-        CompletableFuture<BatchResponse> batch = batchAsync(request, requestOptions);
-        futures.add(batch);
-        records.clear();
-      }
-
-      records.add(item);
-    }
-
-    if (records.size() > 0) {
-      BatchRequest<E> request = new BatchRequest<>(actionType, records);
-      CompletableFuture<BatchResponse> batch = batchAsync(request, requestOptions);
-      futures.add(batch);
+    if (config.getMaxBatchBytes() == null) {
+      return ChunkDispatcher.dispatch(
+              new ChunkIterator<>(data.iterator(), config.getBatchSize()),
+              records -> batchAsync(new BatchRequest<>(actionType, records), requestOptions),
+              config.getMaxInFlightBatches(),
+              config.getExecutor())
+          .thenApplyAsync(BatchIndexingResponse::new, config.getCallbackExecutor());
     }
 
-    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-        .thenComposeAsync(
-            v -> {
-              List<BatchResponse> resp =
-                  futures.stream().map(CompletableFuture::join).collect(toList());
+    // Each record is serialized once, in the body of the batch it fits in
+    Iterator<HttpRequestBody> bodies =
+        new BatchBodyIterator<>(
+            data.iterator(),
+            item -> new BatchOperation<>(actionType, item),
+            config.getBatchSize(),
+            config.getMaxBatchBytes(),
+            transport);
 
-              return CompletableFuture.completedFuture(new BatchIndexingResponse(resp));
-            },
-            config.getExecutor());
+    return ChunkDispatcher.dispatch(
+            bodies,
+            body -> sendBatchAsync(body, requestOptions),
+            config.getMaxInFlightBatches(),
+            config.getExecutor())
+        .thenApplyAsync(BatchIndexingResponse::new, config.getCallbackExecutor());
   }
 
   /**
@@ -1045,20 +1120,31 @@ public final class SearchIndex<T>
 
     Objects.requireNonNull(request, "A BatchRequest is required.");
 
+    return sendBatchAsync(request, requestOptions);
+  }
+
+  /**
+   * Sends a batch, either a {@link BatchRequest} or an already serialized one.
+   *
+   * @param batch The batch to send
+   * @param requestOptions Options to pass to this request
+   */
+  private CompletableFuture<BatchResponse> sendBatchAsync(
+      @Nonnull Object batch, RequestOptions requestOptions) {
     return transport
         .executeRequestAsync(
             HttpMethod.POST,
             "/1/indexes/" + urlEncodedIndexName + "/batch",
             CallType.WRITE,
-            request,
+            batch,
             BatchResponse.class,
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            config.getExecutor());
+            config.getCallbackExecutor());
   }
 
   /**
@@ -1124,10 +1210,10 @@ public final class SearchIndex<T>
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            config.getExecutor());
+            config.getCallbackExecutor());
   }
 
   /**
@@ -1251,10 +1337,10 @@ public final class SearchIndex<T>
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            config.getExecutor());
+            config.getCallbackExecutor());
   }
 
   /**
@@ -1344,7 +1430,8 @@ public final class SearchIndex<T>
 
     Random rnd = new Random();
     String tmpIndexName = indexName + "_tmp_" + rnd.nextInt(100);
-    SearchIndex<T> tmpIndex = new SearchIndex<>(transport, config, tmpIndexName, clazz);
+    SearchIndex<T> tmpIndex =
+        new SearchIndex<>(transport, config, tmpIndexName, clazz, tasks, searches);
 
     List<String> scopes = Arrays.asList(CopyScope.RULES, CopyScope.SETTINGS, CopyScope.SYNONYMS);
 
@@ -1385,7 +1472,7 @@ public final class SearchIndex<T>
 
               return CompletableFuture.completedFuture(new MultiResponse().setResponses(resp));
             },
-            config.getExecutor());
+            config.getCallbackExecutor());
   }
 
   /**
@@ -1456,10 +1543,10 @@ public final class SearchIndex<T>
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            config.getExecutor());
+            config.getCallbackExecutor());
   }
 
   /**
@@ -1495,10 +1582,10 @@ public final class SearchIndex<T>
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            config.getExecutor());
+            config.getCallbackExecutor());
   }
 
   /**
@@ -1515,6 +1602,58 @@ public final class SearchIndex<T>
     return new IndexIterable<>(this, query);
   }
 
+  /**
+   * This method allows you to retrieve all index content It can retrieve up to 1,000 records per
+   * call and supports full text search and filters. The next pages are fetched while the current
+   * one is consumed, so that a full export is bound by the slower of the network and the consumer.
+   *
+   * @param query The browseObjects query
+   * @param prefetchedPages The number of pages to fetch ahead of the consumer
+   * @throws AlgoliaRetryException When the retry has failed on all hosts
+   * @throws AlgoliaApiException When the API sends an http error code
+   * @throws AlgoliaRuntimeException When an error occurred during the serialization
+   */
+  public IndexIterable<T> browseObjects(@Nonnull BrowseIndexQuery query, int prefetchedPages) {
+    return new IndexIterable<>(this, query, null, prefetchedPages);
+  }
+
+  /**
+   * Retrieves all index content with one cursor chain per partition, all browsed concurrently. The
+   * partitions are browse queries whose filters select disjoint sets of records, e.g. numeric
+   * ranges or facet values, and together cover the records to export. If a partition fails, the
+   * other ones stop at their next page.
+   *
+   * @param partitions The browse queries of the partitions. Their cursor is updated as their pages
+   *     are received
+   * @param consumer Receives the hits of all the partitions. It's never called concurrently, and
+   *     the hits of the partitions are interleaved
+   * @return A future completed once all the partitions have been browsed entirely
+   */
+  public CompletableFuture<Void> browseObjectsAsync(
+      @Nonnull List<BrowseIndexQuery> partitions, @Nonnull Consumer<? super T> consumer) {
+    return browseObjectsAsync(partitions, null, consumer);
+  }
+
+  /**
+   * Retrieves all index content with one cursor chain per partition, all browsed concurrently. The
+   * partitions are browse queries whose filters select disjoint sets of records, e.g. numeric
+   * ranges or facet values, and together cover the records to export. If a partition fails, the
+   * other ones stop at their next page.
+   *
+   * @param partitions The browse queries of the partitions. Their cursor is updated as their pages
+   *     are received
+   * @param requestOptions Options to pass to every request
+   * @param consumer Receives the hits of all the partitions. It's never called concurrently, and
+   *     the hits of the partitions are interleaved
+   * @return A future completed once all the partitions have been browsed entirely
+   */
+  public CompletableFuture<Void> browseObjectsAsync(
+      @Nonnull List<BrowseIndexQuery> partitions,
+      RequestOptions requestOptions,
+      @Nonnull Consumer<? super T> consumer) {
+    return PartitionedBrowse.browse(this, partitions, requestOptions, consumer);
+  }
+
   /**
    * This method allows you to retrieve all index content It can retrieve up to 1,000 records per
    * call and supports full text search and filters. You can use the same query parameters as for a
@@ -1591,7 +1730,42 @@ public final class SearchIndex<T>
               r.complete(resp);
               return r;
             },
-            config.getExecutor());
+            config.getCallbackExecutor());
+  }
+
+  /**
+   * Retrieves a page of the index content, handing the hits to the consumer one by one as they are
+   * parsed. The hits of a large page are then never all deserialized at once. The raw response is
+   * still read entirely in memory by the requesters of the client, before being parsed.
+   *
+   * @param query The browseObjects query
+   * @param requestOptions Options to pass to this request
+   * @param consumer Receives the hits, in the order of the response
+   * @return A future completed with the other fields of the response, including the cursor of the
+   *     next page, without the hits
+   * @throws AlgoliaRetryException When the retry has failed on all hosts
+   * @throws AlgoliaApiException When the API sends an http error code
+   * @throws AlgoliaRuntimeException When an error occurred during the serialization
+   */
+  @SuppressWarnings("unchecked")
+  public CompletableFuture<BrowseIndexResponse<T>> streamBrowseFromAsync(
+      @Nonnull BrowseIndexQuery query,
+      RequestOptions requestOptions,
+      @Nonnull Consumer<? super T> consumer) {
+    Objects.requireNonNull(query, "A query is required.");
+    Objects.requireNonNull(consumer, "A consumer is required.");
+
+    return transport
+        .executeStreamingRequestAsync(
+            HttpMethod.POST,
+            "/1/indexes/" + urlEncodedIndexName + "/browse",
+            CallType.READ,
+            query,
+            BrowseIndexResponse.class,
+            clazz,
+            requestOptions,
+            consumer)
+        .thenApply(resp -> (BrowseIndexResponse<T>) resp);
   }
 
   /**
@@ -1711,10 +1885,10 @@ public final class SearchIndex<T>
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            config.getExecutor());
+            config.getCallbackExecutor());
   }
 
   /**
@@ -1828,33 +2002,78 @@ public final class SearchIndex<T>
    * @throws AlgoliaRuntimeException When an error occurred during the serialization
    */
   public void waitTask(long taskId, long timeToWait, RequestOptions requestOptions) {
-    while (true) {
-
-      TaskStatusResponse response;
-
-      try {
-        response = getTaskAsync(taskId, requestOptions).get();
-      } catch (InterruptedException | ExecutionException e) {
-        // If the future was cancelled or the thread was interrupted or future completed
-        // exceptionally
-        // We stop
-        break;
-      }
-
-      if (java.util.Objects.equals("published", response.getStatus())) {
-        return;
-      }
+    LaunderThrowable.await(waitTaskAsync(taskId, timeToWait, requestOptions));
+  }
 
-      try {
-        Thread.sleep(timeToWait);
-      } catch (InterruptedException ignored) {
-        // Restore interrupted state...
-        Thread.currentThread().interrupt();
-      }
+  /**
+   * Wait asynchronously for a task to complete, to synchronize index updates. All write operations
+   * in Algolia are asynchronous by design.
+   *
+   * @param taskId The Algolia taskID
+   * @return A future completed once the task is published
+   */
+  public CompletableFuture<Void> waitTaskAsync(long taskId) {
+    return waitTaskAsync(taskId, 100, null);
+  }
 
-      timeToWait *= 2;
-      timeToWait =
-          timeToWait > Defaults.MAX_TIME_MS_TO_WAIT ? Defaults.MAX_TIME_MS_TO_WAIT : timeToWait;
+  /**
+   * Wait asynchronously for a task to complete, to synchronize index updates. All write operations
+   * in Algolia are asynchronous by design. The task is polled with an exponential backoff, the
+   * delays are handled by the scheduler of the configuration so no thread is blocked meanwhile.
+   *
+   * <p>Without request options, the waits on the tasks of the same index are coalesced by the
+   * client: only the smallest task waited for is polled, and every wait up to it is completed once
+   * it's published.
+   *
+   * @param taskId The Algolia taskID
+   * @param timeToWait The time to wait between the first two calls, doubled after each call
+   * @param requestOptions Options to pass to this request
+   * @return A future completed once the task is published
+   */
+  public CompletableFuture<Void> waitTaskAsync(
+      long taskId, long timeToWait, RequestOptions requestOptions) {
+    if (requestOptions == null) {
+      return tasks.waitTask(indexName, taskId, timeToWait, this::getTaskAsync);
     }
+
+    CompletableFuture<Void> promise = new CompletableFuture<>();
+    pollTask(taskId, timeToWait, requestOptions, promise);
+    return promise;
+  }
+
+  /** Gets the task status, and schedules the next call while it isn't published. */
+  private void pollTask(
+      long taskId,
+      long timeToWait,
+      RequestOptions requestOptions,
+      CompletableFuture<Void> promise) {
+    getTaskAsync(taskId, requestOptions)
+        .whenComplete(
+            (response, t) -> {
+              // The wait may have been cancelled by the caller
+              if (promise.isDone()) {
+                return;
+              }
+
+              if (t != null) {
+                promise.completeExceptionally(
+                    t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+              } else if (Objects.equals("published", response.getStatus())) {
+                promise.complete(null);
+              } else {
+                long nextTimeToWait = Math.min(timeToWait * 2, Defaults.MAX_TIME_MS_TO_WAIT);
+                config
+                    .getScheduler()
+                    .schedule(
+                        () ->
+                            config
+                                .getExecutor()
+                                .execute(
+                                    () ->
+                                        pollTask(taskId, nextTimeToWait, requestOptions, promise)),
+                        timeToWait,
+                        TimeUnit.MILLISECONDS);
+              }
+            });
   }
 }
@@ -1,6 +1,7 @@
 package com.algolia.search;
 
 import com.algolia.search.models.RequestOptions;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This interface holds all index common methods.
@@ -19,4 +20,9 @@ public interface SearchIndexBase<T> {
   void waitTask(long taskId, long timeToWait, RequestOptions requestOptions);
 
   void waitTask(long taskId);
+
+  CompletableFuture<Void> waitTaskAsync(
+      long taskId, long timeToWait, RequestOptions requestOptions);
+
+  CompletableFuture<Void> waitTaskAsync(long taskId);
 }
@@ -7,6 +7,7 @@ import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.iterators.RulesIterable;
 import com.algolia.search.models.HttpMethod;
 import com.algolia.search.models.RequestOptions;
+import com.algolia.search.models.common.CacheableOperation;
 import com.algolia.search.models.common.CallType;
 import com.algolia.search.models.indexing.DeleteResponse;
 import com.algolia.search.models.indexing.SearchResult;
@@ -88,8 +89,11 @@ public interface SearchIndexRules<T> extends SearchIndexBase<T> {
                 + "/rules/"
                 + QueryStringUtils.urlEncodeUTF8(objectID),
             CallType.READ,
+            null,
             Rule.class,
-            requestOptions);
+            null,
+            requestOptions,
+            CacheableOperation.GET_RULE);
   }
 
   /**
@@ -159,7 +163,7 @@ public interface SearchIndexRules<T> extends SearchIndexBase<T> {
               r.complete(resp);
               return r;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -328,10 +332,10 @@ public interface SearchIndexRules<T> extends SearchIndexBase<T> {
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -480,10 +484,10 @@ public interface SearchIndexRules<T> extends SearchIndexBase<T> {
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -552,10 +556,10 @@ public interface SearchIndexRules<T> extends SearchIndexBase<T> {
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -761,9 +765,9 @@ public interface SearchIndexRules<T> extends SearchIndexBase<T> {
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 }
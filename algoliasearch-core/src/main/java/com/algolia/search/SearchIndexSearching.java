@@ -6,11 +6,13 @@ import com.algolia.search.exceptions.AlgoliaRuntimeException;
 import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.models.HttpMethod;
 import com.algolia.search.models.RequestOptions;
+import com.algolia.search.models.common.CacheableOperation;
 import com.algolia.search.models.common.CallType;
 import com.algolia.search.models.indexing.*;
 import com.algolia.search.util.AlgoliaUtils;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 
@@ -88,14 +90,49 @@ public interface SearchIndexSearching<T> extends SearchIndexBase<T> {
             query,
             SearchResult.class,
             getClazz(),
-            requestOptions)
+            requestOptions,
+            CacheableOperation.SEARCH)
         .thenComposeAsync(
             resp -> {
               CompletableFuture<SearchResult<T>> r = new CompletableFuture<>();
               r.complete(resp);
               return r;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
+  }
+
+  /**
+   * Method used for querying an index, handing the hits to the consumer one by one as they are
+   * parsed. The hits of a large page are then never all deserialized at once, the raw response is
+   * still read entirely in memory by the requesters of the client. The search is neither batched,
+   * cached nor hedged.
+   *
+   * @param query The search query
+   * @param requestOptions Options to pass to this request
+   * @param consumer Receives the hits, in the order of the response
+   * @return A future completed with the other fields of the response, without the hits
+   * @throws AlgoliaRetryException When the retry has failed on all hosts
+   * @throws AlgoliaApiException When the API sends an http error code
+   * @throws AlgoliaRuntimeException When an error occurred during the serialization
+   */
+  @SuppressWarnings("unchecked")
+  default CompletableFuture<SearchResult<T>> streamSearchAsync(
+      @Nonnull Query query, RequestOptions requestOptions, @Nonnull Consumer<? super T> consumer) {
+
+    Objects.requireNonNull(query, "A query key is required.");
+    Objects.requireNonNull(consumer, "A consumer is required.");
+
+    return getTransport()
+        .executeStreamingRequestAsync(
+            HttpMethod.POST,
+            "/1/indexes/" + getUrlEncodedIndexName() + "/query",
+            CallType.READ,
+            query,
+            SearchResult.class,
+            getClazz(),
+            requestOptions,
+            consumer)
+        .thenApply(resp -> (SearchResult<T>) resp);
   }
 
   /**
@@ -173,7 +210,9 @@ public interface SearchIndexSearching<T> extends SearchIndexBase<T> {
             CallType.READ,
             query,
             SearchForFacetResponse.class,
-            requestOptions);
+            null,
+            requestOptions,
+            CacheableOperation.SEARCH_FOR_FACET_VALUES);
   }
 
   /**
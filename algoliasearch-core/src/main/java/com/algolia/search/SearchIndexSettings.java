@@ -6,6 +6,7 @@ import com.algolia.search.exceptions.AlgoliaRuntimeException;
 import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.models.HttpMethod;
 import com.algolia.search.models.RequestOptions;
+import com.algolia.search.models.common.CacheableOperation;
 import com.algolia.search.models.common.CallType;
 import com.algolia.search.models.settings.IndexSettings;
 import com.algolia.search.models.settings.SetSettingsResponse;
@@ -147,10 +148,10 @@ public interface SearchIndexSettings<T> extends SearchIndexBase<T> {
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -208,7 +209,10 @@ public interface SearchIndexSettings<T> extends SearchIndexBase<T> {
             HttpMethod.GET,
             "/1/indexes/" + getUrlEncodedIndexName() + "/settings",
             CallType.READ,
+            null,
             IndexSettings.class,
-            requestOptions);
+            null,
+            requestOptions,
+            CacheableOperation.GET_SETTINGS);
   }
 }
@@ -7,6 +7,7 @@ import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.iterators.SynonymsIterable;
 import com.algolia.search.models.HttpMethod;
 import com.algolia.search.models.RequestOptions;
+import com.algolia.search.models.common.CacheableOperation;
 import com.algolia.search.models.common.CallType;
 import com.algolia.search.models.indexing.DeleteResponse;
 import com.algolia.search.models.indexing.SearchResult;
@@ -93,7 +94,7 @@ public interface SearchIndexSynonyms<T> extends SearchIndexBase<T> {
               r.complete(resp);
               return r;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -155,8 +156,11 @@ public interface SearchIndexSynonyms<T> extends SearchIndexBase<T> {
             HttpMethod.GET,
             "/1/indexes/" + getUrlEncodedIndexName() + "/synonyms/" + objectID,
             CallType.READ,
+            null,
             Synonym.class,
-            requestOptions);
+            null,
+            requestOptions,
+            CacheableOperation.GET_SYNONYM);
   }
 
   /**
@@ -323,10 +327,10 @@ public interface SearchIndexSynonyms<T> extends SearchIndexBase<T> {
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -476,10 +480,10 @@ public interface SearchIndexSynonyms<T> extends SearchIndexBase<T> {
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -582,10 +586,10 @@ public interface SearchIndexSynonyms<T> extends SearchIndexBase<T> {
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -672,10 +676,10 @@ public interface SearchIndexSynonyms<T> extends SearchIndexBase<T> {
             requestOptions)
         .thenApplyAsync(
             resp -> {
-              resp.setWaitConsumer(this::waitTask);
+              resp.setWaitTaskFunction(this::waitTaskAsync);
               return resp;
             },
-            getConfig().getExecutor());
+            getConfig().getCallbackExecutor());
   }
 
   /**
@@ -1,13 +1,40 @@
 package com.algolia.search;
 
 import com.algolia.search.models.common.CallType;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
+/**
+ * A host and its state in the retry strategy. The state is updated concurrently by all the requests
+ * without any lock: each field is volatile, and the last use is a monotonic {@link
+ * System#nanoTime()} timestamp.
+ *
+ * <p>Each host also keeps statistics used by the latency-aware {@link
+ * com.algolia.search.models.common.HostSelectionPolicy}: its number of outstanding requests and an
+ * exponentially weighted moving average of its latency. The average decays while the host isn't
+ * used, so that a host which was slow gets tried again once in a while.
+ */
 @SuppressWarnings("WeakerAccess")
 public class StatefulHost {
 
+  private static final AtomicIntegerFieldUpdater<StatefulHost> RETRY_COUNT =
+      AtomicIntegerFieldUpdater.newUpdater(StatefulHost.class, "retryCount");
+  private static final AtomicIntegerFieldUpdater<StatefulHost> OUTSTANDING_REQUESTS =
+      AtomicIntegerFieldUpdater.newUpdater(StatefulHost.class, "outstandingRequests");
+  private static final AtomicLongFieldUpdater<StatefulHost> LATENCY_NANOS =
+      AtomicLongFieldUpdater.newUpdater(StatefulHost.class, "latencyNanos");
+
+  /** Weight of the last sample in the moving average */
+  private static final double LATENCY_ALPHA = 0.3;
+
+  /** The moving average is halved every time this delay elapses without any new sample */
+  private static final long LATENCY_HALF_LIFE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
   public StatefulHost(String url, EnumSet<CallType> accept) {
     this.url = url;
     this.accept = accept;
@@ -41,18 +68,89 @@ public class StatefulHost {
   }
 
   void incrementRetryCount() {
-    this.retryCount++;
+    RETRY_COUNT.incrementAndGet(this);
   }
 
+  /** The wall-clock time of the last use, derived from the monotonic timestamp */
   public OffsetDateTime getLastUse() {
-    return lastUse;
+    return OffsetDateTime.now(ZoneOffset.UTC)
+        .minus(Duration.ofNanos(System.nanoTime() - lastUseNanos));
+  }
+
+  /** The {@link System#nanoTime()} of the last use */
+  long getLastUseNanos() {
+    return lastUseNanos;
   }
 
-  StatefulHost setLastUse(OffsetDateTime lastUse) {
-    this.lastUse = lastUse;
+  StatefulHost setLastUseNanos(long lastUseNanos) {
+    this.lastUseNanos = lastUseNanos;
     return this;
   }
 
+  /** The number of requests sent to this host and not completed yet */
+  public int getOutstandingRequests() {
+    return outstandingRequests;
+  }
+
+  /**
+   * The exponentially weighted moving average of the latency of this host, in nanoseconds, decayed
+   * by the time elapsed since the last sample. 0 if the host has never been requested.
+   */
+  public long getAverageLatencyNanos() {
+    return getAverageLatencyNanos(System.nanoTime());
+  }
+
+  long getAverageLatencyNanos(long now) {
+    long latency = latencyNanos;
+    if (latency == 0) {
+      return 0;
+    }
+    long halfLives = (now - lastSampleNanos) / LATENCY_HALF_LIFE_NANOS;
+    return halfLives >= 63 ? 0 : latency >> halfLives;
+  }
+
+  /**
+   * Records the start of a request to this host.
+   *
+   * @return The start of the request, to give back to {@link #requestCompleted(long)}
+   */
+  long requestStarted() {
+    OUTSTANDING_REQUESTS.incrementAndGet(this);
+    return System.nanoTime();
+  }
+
+  /**
+   * Records the completion of a request to this host, whatever its outcome.
+   *
+   * @param startNanos The value returned by {@link #requestStarted()}
+   */
+  void requestCompleted(long startNanos) {
+    long now = System.nanoTime();
+    long sample = Math.max(1, now - startNanos);
+    OUTSTANDING_REQUESTS.decrementAndGet(this);
+
+    long current;
+    long next;
+    do {
+      current = latencyNanos;
+      long average = getAverageLatencyNanos(now);
+      next =
+          average == 0
+              ? sample
+              : Math.max(1, (long) (average + LATENCY_ALPHA * (sample - average)));
+    } while (!LATENCY_NANOS.compareAndSet(this, current, next));
+
+    lastSampleNanos = now;
+  }
+
+  /**
+   * Records the cancellation of a request to this host, e.g. the loser of a hedged request. The
+   * latency isn't sampled, as the request didn't get any answer.
+   */
+  void requestCancelled() {
+    OUTSTANDING_REQUESTS.decrementAndGet(this);
+  }
+
   public EnumSet<CallType> getAccept() {
     return accept;
   }
@@ -63,8 +161,11 @@ public class StatefulHost {
   }
 
   private String url;
-  private boolean up = true;
-  private int retryCount;
-  private OffsetDateTime lastUse = OffsetDateTime.now(ZoneOffset.UTC);
+  private volatile boolean up = true;
+  private volatile int retryCount;
+  private volatile long lastUseNanos = System.nanoTime();
   private EnumSet<CallType> accept;
+  private volatile int outstandingRequests;
+  private volatile long latencyNanos;
+  private volatile long lastSampleNanos;
 }
@@ -0,0 +1,245 @@
+package com.algolia.search;
+
+import com.algolia.search.models.common.TaskStatusResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import javax.annotation.Nonnull;
+
+/**
+ * Coalesces the waits on the tasks of the indices of a client. The tasks of an index are published
+ * in order: once a task is published, all the tasks with a lower ID are published as well.
+ *
+ * <p>Instead of polling every task on its own, only the smallest task still waited for is polled
+ * for each index, and every waiter up to its ID is completed once it's published. The highest task
+ * waited for is then polled once: if it's published as well, all the waiters are completed in a
+ * single call, otherwise the smallest one is polled again.
+ *
+ * <p>The highest published ID is remembered while tasks of the index are waited for, waits on older
+ * tasks are completed without any call. An index is forgotten once nothing is waited for anymore.
+ */
+class TaskTracker {
+
+  private final ConfigBase config;
+  private final Map<String, IndexTasks> indices = new ConcurrentHashMap<>();
+
+  TaskTracker(@Nonnull ConfigBase config) {
+    this.config = config;
+  }
+
+  /**
+   * Waits for a task of the given index.
+   *
+   * @param indexName The index the task belongs to
+   * @param taskID The Algolia taskID
+   * @param timeToWait The time to wait between the first two polls, doubled after each poll
+   * @param getTask Gets the status of a task of the index
+   * @return A future completed once the task is published
+   */
+  CompletableFuture<Void> waitTask(
+      @Nonnull String indexName,
+      long taskID,
+      long timeToWait,
+      @Nonnull LongFunction<CompletableFuture<TaskStatusResponse>> getTask) {
+    while (true) {
+      CompletableFuture<Void> promise =
+          indices
+              .computeIfAbsent(indexName, k -> new IndexTasks(indexName, getTask))
+              .waitTask(taskID, timeToWait);
+      // A forgotten index is replaced by a new one
+      if (promise != null) {
+        return promise;
+      }
+    }
+  }
+
+  /** The waits on the tasks of a single index. */
+  private final class IndexTasks {
+
+    private final String indexName;
+    private final LongFunction<CompletableFuture<TaskStatusResponse>> getTask;
+
+    /** Waiters by taskID, guarded by this */
+    private final TreeMap<Long, Waiters> pending = new TreeMap<>();
+
+    /** Highest taskID known as published, guarded by this */
+    private long published = Long.MIN_VALUE;
+
+    /** Whether a task is being polled, guarded by this */
+    private boolean polling;
+
+    /** Whether the index was removed from the tracker, guarded by this */
+    private boolean removed;
+
+    private IndexTasks(
+        String indexName, LongFunction<CompletableFuture<TaskStatusResponse>> getTask) {
+      this.indexName = indexName;
+      this.getTask = getTask;
+    }
+
+    /** Returns null if the index was removed from the tracker meanwhile. */
+    private CompletableFuture<Void> waitTask(long taskID, long timeToWait) {
+      CompletableFuture<Void> promise = new CompletableFuture<>();
+      boolean startPolling;
+
+      synchronized (this) {
+        if (removed) {
+          return null;
+        }
+        if (taskID <= published) {
+          return CompletableFuture.completedFuture(null);
+        }
+        pending.computeIfAbsent(taskID, k -> new Waiters(timeToWait)).add(promise, timeToWait);
+        startPolling = !polling;
+        polling = true;
+      }
+
+      if (startPolling) {
+        pollNext(false);
+      }
+
+      return promise;
+    }
+
+    /**
+     * Polls the next task still waited for, if any.
+     *
+     * @param probeHighest Whether to poll the highest task once before the smallest one
+     */
+    private void pollNext(boolean probeHighest) {
+      long taskID;
+      long timeToWait;
+
+      synchronized (this) {
+        // Tasks without waiters anymore, e.g. cancelled ones, aren't polled
+        pending.values().removeIf(Waiters::isAbandoned);
+        if (pending.isEmpty()) {
+          polling = false;
+          removed = true;
+          indices.remove(indexName, this);
+          return;
+        }
+        probeHighest &= pending.size() > 1;
+        taskID = probeHighest ? pending.lastKey() : pending.firstKey();
+        timeToWait = pending.get(taskID).timeToWait;
+      }
+
+      if (probeHighest) {
+        probe(taskID);
+      } else {
+        poll(taskID, timeToWait);
+      }
+    }
+
+    /**
+     * Polls the highest task once. If it's published, every waiter is completed, otherwise the
+     * smallest task is polled as usual, and reports the failures if any.
+     */
+    private void probe(long taskID) {
+      getTask
+          .apply(taskID)
+          .whenComplete(
+              (response, t) -> {
+                boolean isPublished =
+                    t == null && Objects.equals("published", response.getStatus());
+                if (isPublished) {
+                  publish(taskID);
+                }
+                // Higher tasks may have been waited for meanwhile
+                config.getExecutor().execute(() -> pollNext(isPublished));
+              });
+    }
+
+    private void poll(long taskID, long timeToWait) {
+      getTask
+          .apply(taskID)
+          .whenComplete(
+              (response, t) -> {
+                if (t != null) {
+                  fail(
+                      taskID,
+                      t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+                } else if (Objects.equals("published", response.getStatus())) {
+                  publish(taskID);
+                  // The highest task may be published already, it's polled right away
+                  config.getExecutor().execute(() -> pollNext(true));
+                  return;
+                } else if (!isAbandoned(taskID)) {
+                  long nextTimeToWait = Math.min(timeToWait * 2, Defaults.MAX_TIME_MS_TO_WAIT);
+                  config
+                      .getScheduler()
+                      .schedule(
+                          () -> config.getExecutor().execute(() -> poll(taskID, nextTimeToWait)),
+                          timeToWait,
+                          TimeUnit.MILLISECONDS);
+                  return;
+                }
+                config.getExecutor().execute(() -> pollNext(false));
+              });
+    }
+
+    /** Completes every waiter up to the given task. */
+    private void publish(long taskID) {
+      List<Waiters> completed;
+
+      synchronized (this) {
+        published = Math.max(published, taskID);
+        SortedMap<Long, Waiters> head = pending.headMap(taskID, true);
+        completed = new ArrayList<>(head.values());
+        head.clear();
+      }
+
+      for (Waiters waiters : completed) {
+        waiters.promises.forEach(p -> p.complete(null));
+      }
+    }
+
+    /** Fails the waiters of the given task only, the next ones may still be published. */
+    private void fail(long taskID, Throwable t) {
+      Waiters failed;
+
+      synchronized (this) {
+        failed = pending.remove(taskID);
+      }
+
+      if (failed != null) {
+        failed.promises.forEach(p -> p.completeExceptionally(t));
+      }
+    }
+
+    private synchronized boolean isAbandoned(long taskID) {
+      Waiters waiters = pending.get(taskID);
+      return waiters == null || waiters.isAbandoned();
+    }
+  }
+
+  /** The futures waiting for the same task. */
+  private static final class Waiters {
+
+    private final List<CompletableFuture<Void>> promises = new ArrayList<>();
+
+    /** The shortest time to wait asked for this task */
+    private long timeToWait;
+
+    private Waiters(long timeToWait) {
+      this.timeToWait = timeToWait;
+    }
+
+    private void add(CompletableFuture<Void> promise, long timeToWait) {
+      promises.add(promise);
+      this.timeToWait = Math.min(this.timeToWait, timeToWait);
+    }
+
+    private boolean isAbandoned() {
+      return promises.stream().allMatch(CompletableFuture::isDone);
+    }
+  }
+}
@@ -5,6 +5,9 @@ import com.algolia.search.models.RequestOptions;
 import com.algolia.search.models.indexing.BrowseIndexQuery;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
 
 @SuppressWarnings("WeakerAccess")
@@ -13,6 +16,7 @@ public class IndexIterable<E> implements Iterable<E> {
   private final SearchIndex<E> index;
   private final BrowseIndexQuery query;
   private final RequestOptions requestOptions;
+  private final int prefetchedPages;
 
   public IndexIterable(@Nonnull SearchIndex<E> index) {
     this(index, new BrowseIndexQuery());
@@ -26,18 +30,60 @@ public class IndexIterable<E> implements Iterable<E> {
       @Nonnull SearchIndex<E> index,
       @Nonnull BrowseIndexQuery query,
       RequestOptions requestOptions) {
+    this(index, query, requestOptions, 0);
+  }
+
+  /**
+   * @param index The index to browse
+   * @param query The browse query
+   * @param requestOptions Options to pass to every request
+   * @param prefetchedPages The number of pages to fetch ahead of the consumer, see {@link
+   *     IndexIterator#IndexIterator(SearchIndex, BrowseIndexQuery, RequestOptions, int)}
+   */
+  public IndexIterable(
+      @Nonnull SearchIndex<E> index,
+      @Nonnull BrowseIndexQuery query,
+      RequestOptions requestOptions,
+      int prefetchedPages) {
 
     Objects.requireNonNull(index, "Index is required");
     Objects.requireNonNull(query, "Query is required");
 
+    if (prefetchedPages < 0) {
+      throw new IllegalArgumentException("prefetchedPages must not be negative");
+    }
+
     this.index = index;
     this.query = query;
     this.requestOptions = requestOptions;
+    this.prefetchedPages = prefetchedPages;
   }
 
   @Override
   @Nonnull
   public Iterator<E> iterator() {
-    return new IndexIterator<>(index, query, requestOptions);
+    return new IndexIterator<>(index, query, requestOptions, prefetchedPages);
+  }
+
+  /**
+   * Returns a spliterator fetching the pages as they are needed. Its size is estimated from the
+   * number of hits of the first page, and each split hands a whole page to another worker. With
+   * prefetched pages, the next pages are fetched while the workers process the current ones.
+   */
+  @Override
+  @Nonnull
+  public Spliterator<E> spliterator() {
+    IndexIterator<E> iterator = new IndexIterator<>(index, query, requestOptions, prefetchedPages);
+    return new PageSpliterator<>(iterator::nextPage);
+  }
+
+  /** Returns a sequential stream of the hits. */
+  public Stream<E> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /** Returns a parallel stream of the hits, processing the pages on the common fork-join pool. */
+  public Stream<E> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
   }
 }
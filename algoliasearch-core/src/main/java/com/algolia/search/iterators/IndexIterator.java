@@ -1,11 +1,16 @@
 package com.algolia.search.iterators;
 
 import com.algolia.search.SearchIndex;
+import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.models.RequestOptions;
 import com.algolia.search.models.indexing.BrowseIndexQuery;
 import com.algolia.search.models.indexing.BrowseIndexResponse;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nonnull;
 
 @SuppressWarnings("WeakerAccess")
@@ -14,10 +19,15 @@ public class IndexIterator<E> implements Iterator<E> {
   private final SearchIndex<E> index;
   private final RequestOptions requestOptions;
   private final BrowseIndexQuery query;
+  private final int prefetchedPages;
   private String currentCursor;
   private Iterator<E> currentIterator = null;
   private boolean isFirstRequest = true;
 
+  // Prefetching state, guarded by prefetched
+  private final Deque<CompletableFuture<BrowseIndexResponse<E>>> prefetched = new ArrayDeque<>();
+  private boolean isPrefetchingPaused = false;
+
   public IndexIterator(@Nonnull SearchIndex<E> index) {
     this(index, new BrowseIndexQuery().setHitsPerPage(1000));
   }
@@ -30,13 +40,38 @@ public class IndexIterator<E> implements Iterator<E> {
       @Nonnull SearchIndex<E> index,
       @Nonnull BrowseIndexQuery query,
       RequestOptions requestOptions) {
+    this(index, query, requestOptions, 0);
+  }
+
+  /**
+   * Creates an iterator requesting the next pages while the current one is consumed, so that the
+   * network and the consumer work side by side. Up to {@code prefetchedPages} pages are requested
+   * or held ahead of the consumer; once they are all waiting to be consumed, prefetching resumes as
+   * soon as the consumer takes the next one.
+   *
+   * @param index The index to browse
+   * @param query The browse query, whose cursor is updated as pages are received
+   * @param requestOptions Options to pass to every request
+   * @param prefetchedPages The number of pages to fetch ahead of the consumer. 0 to fetch each page
+   *     only once the previous one is consumed
+   */
+  public IndexIterator(
+      @Nonnull SearchIndex<E> index,
+      @Nonnull BrowseIndexQuery query,
+      RequestOptions requestOptions,
+      int prefetchedPages) {
 
     Objects.requireNonNull(index, "Index is required");
     Objects.requireNonNull(query, "Query is required");
 
+    if (prefetchedPages < 0) {
+      throw new IllegalArgumentException("prefetchedPages must not be negative");
+    }
+
     this.index = index;
     this.query = query;
     this.requestOptions = requestOptions;
+    this.prefetchedPages = prefetchedPages;
   }
 
   @Override
@@ -63,14 +98,99 @@ public class IndexIterator<E> implements Iterator<E> {
     return currentIterator.next();
   }
 
-  private void browseAndSetInnerState() {
+  /**
+   * Fetches the next page, or returns null once the index has been browsed entirely. Used by
+   * spliterators, not to be mixed with {@link #hasNext()} and {@link #next()}.
+   */
+  BrowseIndexResponse<E> nextPage() {
+    if (!isFirstRequest && currentCursor == null) {
+      return null;
+    }
+
+    BrowseIndexResponse<E> result = browseAndSetInnerState();
+    isFirstRequest = false;
+    return result;
+  }
+
+  private BrowseIndexResponse<E> browseAndSetInnerState() {
+    if (prefetchedPages > 0) {
+      BrowseIndexResponse<E> result = LaunderThrowable.await(takePrefetched());
+      currentIterator = result.getHits().iterator();
+      currentCursor = result.getCursor();
+      return result;
+    }
+
     BrowseIndexResponse<E> result = doQuery(query, requestOptions);
     currentIterator = result.getHits().iterator();
     currentCursor = result.getCursor();
     query.setCursor(result.getCursor());
+    return result;
+  }
+
+  /** Takes the oldest prefetched page, starting or resuming the prefetching if needed. */
+  private CompletableFuture<BrowseIndexResponse<E>> takePrefetched() {
+    synchronized (prefetched) {
+      if (isFirstRequest) {
+        prefetch();
+      }
+
+      CompletableFuture<BrowseIndexResponse<E>> page = prefetched.poll();
+
+      if (page == null) {
+        throw new NoSuchElementException("The index has been browsed entirely");
+      }
+
+      if (isPrefetchingPaused) {
+        isPrefetchingPaused = false;
+        prefetch();
+      }
+
+      return page;
+    }
+  }
+
+  /** Requests the page at the cursor of the query. Must be called while holding prefetched. */
+  private void prefetch() {
+    // Queued before the request is sent, as it may complete right away. The page is handed to the
+    // consumer once the next one has been requested, so that a cursor always has its page queued
+    CompletableFuture<BrowseIndexResponse<E>> page = new CompletableFuture<>();
+    prefetched.add(page);
+
+    // The query is serialized before the request is sent, it can be updated right after
+    doQueryAsync(query, requestOptions)
+        .whenComplete(
+            (result, t) -> {
+              if (t != null) {
+                page.completeExceptionally(t);
+                return;
+              }
+              onPrefetched(result);
+              page.complete(result);
+            });
+  }
+
+  private void onPrefetched(BrowseIndexResponse<E> result) {
+    synchronized (prefetched) {
+      query.setCursor(result.getCursor());
+
+      if (result.getCursor() == null) {
+        return;
+      }
+
+      if (prefetched.size() < prefetchedPages) {
+        prefetch();
+      } else {
+        isPrefetchingPaused = true;
+      }
+    }
   }
 
   BrowseIndexResponse<E> doQuery(BrowseIndexQuery query, RequestOptions requestOptions) {
     return index.browseFrom(query, requestOptions);
   }
+
+  CompletableFuture<BrowseIndexResponse<E>> doQueryAsync(
+      BrowseIndexQuery query, RequestOptions requestOptions) {
+    return index.browseFromAsync(query, requestOptions);
+  }
 }
@@ -61,14 +61,41 @@ abstract class IteratorBase<E> implements Iterator<E> {
     return currentIterator.next();
   }
 
-  private void executeQueryAndSetInnerState() {
+  /**
+   * Fetches the next page, or returns null once all the pages have been fetched. Used by
+   * spliterators, not to be mixed with {@link #hasNext()} and {@link #next()}.
+   */
+  SearchResult<E> nextPage() {
+    if (currentPage == null) {
+      return null;
+    }
+
+    SearchResult<E> result = executeQueryAndSetInnerState();
+    isFirstRequest = false;
+    return result;
+  }
+
+  private SearchResult<E> executeQueryAndSetInnerState() {
     SearchResult<E> result = doQuery(currentPage, requestOptions);
     currentIterator = result.getHits().iterator();
 
-    if (result.getNbHits() > 0) {
-      currentPage++;
-    } else {
+    if (isLastPage(result)) {
       currentPage = null;
+    } else {
+      currentPage++;
+    }
+
+    return result;
+  }
+
+  /**
+   * Whether no page follows the given one. Past the last page, rules and synonyms searches still
+   * answer the total nbHits, with no hits.
+   */
+  private boolean isLastPage(SearchResult<E> result) {
+    if (result.getNbHits() == null || result.getNbHits() == 0 || result.getHits().isEmpty()) {
+      return true;
     }
+    return result.getNbPages() != null && currentPage + 1 >= result.getNbPages();
   }
 }
@@ -0,0 +1,110 @@
+package com.algolia.search.iterators;
+
+import com.algolia.search.models.indexing.SearchResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+
+/**
+ * Spliterator over paginated hits. Its size is estimated from the nbHits of the first page, and
+ * each split hands the rest of the current page, or else the next page, to another worker. Pages
+ * are fetched one after the other by the thread traversing or splitting this spliterator.
+ */
+final class PageSpliterator<E> implements Spliterator<E> {
+
+  private final Supplier<? extends SearchResult<E>> pages;
+
+  // Internal state
+  private boolean isFirstPage = true;
+  private boolean isExhausted = false;
+  private long nbHits = 0;
+  private long handedOut = 0;
+  private List<E> currentHits = Collections.emptyList();
+  private int currentIndex = 0;
+
+  /** @param pages Returns the next page, or null once all the pages have been fetched */
+  PageSpliterator(@Nonnull Supplier<? extends SearchResult<E>> pages) {
+    this.pages = Objects.requireNonNull(pages, "Pages are required");
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super E> action) {
+    Objects.requireNonNull(action);
+
+    while (currentIndex >= currentHits.size()) {
+      if (!fetchPage()) {
+        return false;
+      }
+    }
+
+    handedOut++;
+    action.accept(currentHits.get(currentIndex++));
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super E> action) {
+    Objects.requireNonNull(action);
+
+    do {
+      while (currentIndex < currentHits.size()) {
+        handedOut++;
+        action.accept(currentHits.get(currentIndex++));
+      }
+    } while (fetchPage());
+  }
+
+  @Override
+  public Spliterator<E> trySplit() {
+    if (currentIndex >= currentHits.size() && !fetchPage()) {
+      return null;
+    }
+
+    List<E> split = new ArrayList<>(currentHits.subList(currentIndex, currentHits.size()));
+    handedOut += split.size();
+    currentHits = Collections.emptyList();
+    currentIndex = 0;
+    return split.spliterator();
+  }
+
+  @Override
+  public long estimateSize() {
+    if (isFirstPage) {
+      fetchPage();
+    }
+    return Math.max(nbHits - handedOut, currentHits.size() - currentIndex);
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  /** Fetches the next page, and returns false once all the pages have been fetched. */
+  private boolean fetchPage() {
+    if (isExhausted) {
+      return false;
+    }
+
+    SearchResult<E> page = pages.get();
+
+    if (page == null) {
+      isExhausted = true;
+      return false;
+    }
+
+    if (isFirstPage) {
+      isFirstPage = false;
+      nbHits = page.getNbHits() != null ? page.getNbHits() : 0;
+    }
+
+    currentHits = page.getHits() != null ? page.getHits() : Collections.emptyList();
+    currentIndex = 0;
+    return true;
+  }
+}
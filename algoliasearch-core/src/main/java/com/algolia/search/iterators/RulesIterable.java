@@ -5,6 +5,9 @@ import com.algolia.search.models.RequestOptions;
 import com.algolia.search.models.rules.Rule;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
 
 @SuppressWarnings("WeakerAccess")
@@ -38,4 +41,25 @@ public class RulesIterable implements Iterable<Rule> {
   public Iterator<Rule> iterator() {
     return new RulesIterator(index, hitsPerPage, requestOptions);
   }
+
+  /**
+   * Returns a spliterator fetching the pages as they are needed. Its size is estimated from the
+   * number of hits of the first page, and each split hands a whole page to another worker.
+   */
+  @Override
+  @Nonnull
+  public Spliterator<Rule> spliterator() {
+    RulesIterator iterator = new RulesIterator(index, hitsPerPage, requestOptions);
+    return new PageSpliterator<>(iterator::nextPage);
+  }
+
+  /** Returns a sequential stream of the rules. */
+  public Stream<Rule> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /** Returns a parallel stream of the rules, processing the pages on the common fork-join pool. */
+  public Stream<Rule> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
 }
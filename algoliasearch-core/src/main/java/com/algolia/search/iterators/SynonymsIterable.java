@@ -5,6 +5,9 @@ import com.algolia.search.models.RequestOptions;
 import com.algolia.search.models.synonyms.Synonym;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
 
 @SuppressWarnings("WeakerAccess")
@@ -38,4 +41,27 @@ public class SynonymsIterable implements Iterable<Synonym> {
   public Iterator<Synonym> iterator() {
     return new SynonymsIterator(index, hitsPerPage, requestOptions);
   }
+
+  /**
+   * Returns a spliterator fetching the pages as they are needed. Its size is estimated from the
+   * number of hits of the first page, and each split hands a whole page to another worker.
+   */
+  @Override
+  @Nonnull
+  public Spliterator<Synonym> spliterator() {
+    SynonymsIterator iterator = new SynonymsIterator(index, hitsPerPage, requestOptions);
+    return new PageSpliterator<>(iterator::nextPage);
+  }
+
+  /** Returns a sequential stream of the synonyms. */
+  public Stream<Synonym> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /**
+   * Returns a parallel stream of the synonyms, processing the pages on the common fork-join pool.
+   */
+  public Stream<Synonym> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
 }
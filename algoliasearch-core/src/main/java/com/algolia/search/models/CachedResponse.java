@@ -0,0 +1,53 @@
+package com.algolia.search.models;
+
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * Raw body of a successful response, as kept by a response cache. Each caller deserializes its own
+ * result from the bytes, so cached results are never shared.
+ *
+ * <p>The response is fresh until {@link #getFreshUntil()}. After that it may still be served while
+ * it's refreshed in the background, until {@link #getStaleUntil()}. Both are epoch milliseconds.
+ */
+public final class CachedResponse {
+
+  private final byte[] body;
+  private final long freshUntil;
+  private final long staleUntil;
+
+  public CachedResponse(@Nonnull byte[] body, long freshUntil, long staleUntil) {
+    Objects.requireNonNull(body, "A body is required.");
+
+    if (staleUntil < freshUntil) {
+      throw new IllegalArgumentException("A response can't be stale before being expired.");
+    }
+
+    this.body = body;
+    this.freshUntil = freshUntil;
+    this.staleUntil = staleUntil;
+  }
+
+  /** The response body. Must not be modified */
+  public byte[] getBody() {
+    return body;
+  }
+
+  public long getFreshUntil() {
+    return freshUntil;
+  }
+
+  public long getStaleUntil() {
+    return staleUntil;
+  }
+
+  /** Whether the response can be served as is at the given time */
+  public boolean isFresh(long now) {
+    return now < freshUntil;
+  }
+
+  /** Whether the response can be served at the given time, fresh or stale */
+  public boolean isUsable(long now) {
+    return now < staleUntil;
+  }
+}
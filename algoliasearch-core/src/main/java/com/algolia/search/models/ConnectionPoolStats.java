@@ -0,0 +1,51 @@
+package com.algolia.search.models;
+
+/** Snapshot of the connection pool of an http requester. */
+public final class ConnectionPoolStats {
+
+  private final int leased;
+  private final int pending;
+  private final int available;
+  private final int max;
+
+  public ConnectionPoolStats(int leased, int pending, int available, int max) {
+    this.leased = leased;
+    this.pending = pending;
+    this.available = available;
+    this.max = max;
+  }
+
+  /** Connections currently used by a request */
+  public int getLeased() {
+    return leased;
+  }
+
+  /** Requests waiting for a connection */
+  public int getPending() {
+    return pending;
+  }
+
+  /** Idle connections, kept alive to be reused */
+  public int getAvailable() {
+    return available;
+  }
+
+  /** Maximum number of connections of the pool */
+  public int getMax() {
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return "ConnectionPoolStats{"
+        + "leased="
+        + leased
+        + ", pending="
+        + pending
+        + ", available="
+        + available
+        + ", max="
+        + max
+        + '}';
+  }
+}
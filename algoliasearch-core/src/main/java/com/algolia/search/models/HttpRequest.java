@@ -1,6 +1,9 @@
 package com.algolia.search.models;
 
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
 import com.algolia.search.models.common.CompressionType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.HashMap;
@@ -62,11 +65,25 @@ public class HttpRequest {
     return this;
   }
 
+  /**
+   * Returns a new stream reading the body from its beginning, or null if the request has no body.
+   * See {@link #getRequestBody()} to access the serialized bytes without copying them.
+   */
   public InputStream getBody() {
-    return body;
+    return body == null ? null : body.getInputStream();
   }
 
   public HttpRequest setBody(InputStream body) {
+    this.body = body == null ? null : readBody(body);
+    return this;
+  }
+
+  /** The serialized body of the request, or null if the request has no body. */
+  public HttpRequestBody getRequestBody() {
+    return body;
+  }
+
+  public HttpRequest setRequestBody(HttpRequestBody body) {
     this.body = body;
     return this;
   }
@@ -105,6 +122,21 @@ public class HttpRequest {
     return isMethodValid && isCompressionEnabled;
   }
 
+  /** Reads the given stream until its end to get a body that can be sent several times. */
+  private static HttpRequestBody readBody(InputStream in) {
+    try (InputStream stream = in;
+        ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      byte[] chunk = new byte[8192];
+      int read;
+      while ((read = stream.read(chunk)) != -1) {
+        out.write(chunk, 0, read);
+      }
+      return new HttpRequestBody(out.toByteArray());
+    } catch (IOException e) {
+      throw new AlgoliaRuntimeException("Error while reading the request body", e);
+    }
+  }
+
   public void incrementTimeout(int retryCount) {
     this.timeout *= (retryCount + 1);
   }
@@ -113,7 +145,7 @@ public class HttpRequest {
   private URL uri;
   private String methodPath;
   private Map<String, String> headers;
-  private InputStream body;
+  private HttpRequestBody body;
   private int timeout;
   private CompressionType compressionType;
 }
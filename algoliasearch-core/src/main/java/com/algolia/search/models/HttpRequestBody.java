@@ -0,0 +1,60 @@
+package com.algolia.search.models;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * Serialized body of an {@link HttpRequest}. It's a view on a slice of a byte array, which is not
+ * copied: the same body can be read any number of times, for example when the retry strategy sends
+ * the request again to another host.
+ */
+public final class HttpRequestBody {
+
+  private final byte[] buffer;
+  private final int offset;
+  private final int length;
+
+  public HttpRequestBody(@Nonnull byte[] buffer) {
+    this(buffer, 0, buffer.length);
+  }
+
+  public HttpRequestBody(@Nonnull byte[] buffer, int offset, int length) {
+    Objects.requireNonNull(buffer, "A buffer is required.");
+
+    if (offset < 0 || length < 0 || offset + length > buffer.length) {
+      throw new IndexOutOfBoundsException("The slice is out of the buffer's bounds.");
+    }
+
+    this.buffer = buffer;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /** The underlying buffer. Only the bytes between offset and offset + length belong to the body */
+  public byte[] getBuffer() {
+    return buffer;
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  /** The length of the body in bytes, i.e the Content-Length of the request */
+  public int getLength() {
+    return length;
+  }
+
+  /** Returns a new stream reading the body from its beginning. */
+  public InputStream getInputStream() {
+    return new ByteArrayInputStream(buffer, offset, length);
+  }
+
+  /** Writes the body to the given stream. */
+  public void writeTo(@Nonnull OutputStream out) throws IOException {
+    out.write(buffer, offset, length);
+  }
+}
@@ -14,6 +14,7 @@ public class RequestOptions implements Serializable {
   private final Map<String, String> headers = new HashMap<>();
   private final Map<String, String> queryParams = new HashMap<>();
   private Integer timeout = null;
+  private boolean coalescing = true;
 
   public RequestOptions addExtraHeader(@Nonnull String key, @Nonnull String value) {
     headers.put(key, value);
@@ -42,6 +43,19 @@ public class RequestOptions implements Serializable {
     return this;
   }
 
+  public boolean getCoalescing() {
+    return coalescing;
+  }
+
+  /**
+   * Allows this read request to share the response of an identical request in flight, when read
+   * coalescing is enabled on the client. Default = true.
+   */
+  public RequestOptions setCoalescing(boolean coalescing) {
+    this.coalescing = coalescing;
+    return this;
+  }
+
   @Override
   public String toString() {
     return "RequestOptions{" + "headers=" + headers + ", queryParams=" + queryParams + '\'' + '}';
@@ -0,0 +1,81 @@
+package com.algolia.search.models;
+
+/** Snapshot of the counters of a response cache. */
+public final class ResponseCacheStats {
+
+  private final long hitCount;
+  private final long staleHitCount;
+  private final long missCount;
+  private final long evictionCount;
+  private final long entryCount;
+  private final long byteCount;
+
+  public ResponseCacheStats(
+      long hitCount,
+      long staleHitCount,
+      long missCount,
+      long evictionCount,
+      long entryCount,
+      long byteCount) {
+    this.hitCount = hitCount;
+    this.staleHitCount = staleHitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+    this.entryCount = entryCount;
+    this.byteCount = byteCount;
+  }
+
+  /** Lookups served with a fresh response */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /** Lookups served with a stale response, refreshed in the background */
+  public long getStaleHitCount() {
+    return staleHitCount;
+  }
+
+  /** Lookups without any usable response */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /** Responses removed to keep the cache within its bounds */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /** Responses currently in the cache */
+  public long getEntryCount() {
+    return entryCount;
+  }
+
+  /** Size of the responses currently in the cache, keys included */
+  public long getByteCount() {
+    return byteCount;
+  }
+
+  /** Share of the lookups served from the cache, fresh or stale. 0 if there was no lookup */
+  public double getHitRate() {
+    long lookups = hitCount + staleHitCount + missCount;
+    return lookups == 0 ? 0 : (double) (hitCount + staleHitCount) / lookups;
+  }
+
+  @Override
+  public String toString() {
+    return "ResponseCacheStats{"
+        + "hitCount="
+        + hitCount
+        + ", staleHitCount="
+        + staleHitCount
+        + ", missCount="
+        + missCount
+        + ", evictionCount="
+        + evictionCount
+        + ", entryCount="
+        + entryCount
+        + ", byteCount="
+        + byteCount
+        + '}';
+  }
+}
@@ -1,5 +1,7 @@
 package com.algolia.search.models;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * All write operations in Algolia are asynchronous by design.
  * https://www.algolia.com/doc/api-reference/api-methods/wait-task/
@@ -11,4 +13,14 @@ public interface WaitableResponse {
    * updates.
    */
   void waitTask();
+
+  /**
+   * Wait asynchronously for a task to complete. The responses returned by the clients poll the task
+   * without blocking any thread. By default, {@link #waitTask()} is run on the common pool.
+   *
+   * @return A future completed once the task is published
+   */
+  default CompletableFuture<Void> waitTaskAsync() {
+    return CompletableFuture.runAsync(this::waitTask);
+  }
 }
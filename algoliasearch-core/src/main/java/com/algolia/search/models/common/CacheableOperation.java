@@ -0,0 +1,19 @@
+package com.algolia.search.models.common;
+
+/** Read operations whose responses can be kept by the response cache of a client. */
+public enum CacheableOperation {
+  /** Search in an index */
+  SEARCH,
+  /** Search for facet values */
+  SEARCH_FOR_FACET_VALUES,
+  /** Get an object by its objectID */
+  GET_OBJECT,
+  /** Get several objects, potentially from several indices */
+  GET_OBJECTS,
+  /** Get the settings of an index */
+  GET_SETTINGS,
+  /** Get a rule by its objectID */
+  GET_RULE,
+  /** Get a synonym by its objectID */
+  GET_SYNONYM
+}
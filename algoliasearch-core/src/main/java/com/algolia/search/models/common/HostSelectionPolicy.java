@@ -0,0 +1,16 @@
+package com.algolia.search.models.common;
+
+/** Order in which the retry strategy tries the available hosts. */
+public enum HostSelectionPolicy {
+  /** Hosts are tried in the order of the configuration */
+  ORDERED,
+  /** Hosts are tried from the lowest to the highest moving average latency */
+  LATENCY,
+  /**
+   * Two hosts are picked at random and the best one, regarding its latency and outstanding
+   * requests, is tried first. The others follow in the order of the configuration
+   */
+  POWER_OF_TWO_CHOICES,
+  /** Hosts are tried from the least to the most loaded, ties are broken by latency */
+  LEAST_OUTSTANDING_REQUESTS
+}
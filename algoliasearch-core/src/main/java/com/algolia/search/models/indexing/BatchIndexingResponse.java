@@ -1,8 +1,10 @@
 package com.algolia.search.models.indexing;
 
+import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.models.WaitableResponse;
 import java.io.Serializable;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class BatchIndexingResponse implements WaitableResponse, Serializable {
 
@@ -21,8 +23,15 @@ public class BatchIndexingResponse implements WaitableResponse, Serializable {
 
   private List<BatchResponse> responses;
 
+  /** Waits for all the batches at once. */
   @Override
   public void waitTask() {
-    for (BatchResponse response : responses) response.waitTask();
+    LaunderThrowable.await(waitTaskAsync());
+  }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    return CompletableFuture.allOf(
+        responses.stream().map(BatchResponse::waitTaskAsync).toArray(CompletableFuture[]::new));
   }
 }
@@ -1,10 +1,13 @@
 package com.algolia.search.models.indexing;
 
+import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.models.WaitableResponse;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class CopyResponse implements Serializable, WaitableResponse {
@@ -22,6 +25,11 @@ public class CopyResponse implements Serializable, WaitableResponse {
     this.waitConsumer = waitConsumer;
   }
 
+  public void setWaitTaskFunction(
+      BiFunction<String, Long, CompletableFuture<Void>> waitTaskFunction) {
+    this.waitTaskFunction = waitTaskFunction;
+  }
+
   public OffsetDateTime getUpdatedAt() {
     return updatedAt;
   }
@@ -42,11 +50,23 @@ public class CopyResponse implements Serializable, WaitableResponse {
 
   private OffsetDateTime updatedAt;
   private BiConsumer<String, Long> waitConsumer;
+  private BiFunction<String, Long, CompletableFuture<Void>> waitTaskFunction;
   private Long taskID;
   private String indexName;
 
   @Override
   public void waitTask() {
-    waitConsumer.accept(indexName, taskID);
+    if (waitConsumer != null) {
+      waitConsumer.accept(indexName, taskID);
+    } else {
+      LaunderThrowable.await(waitTaskAsync());
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    return waitTaskFunction != null
+        ? waitTaskFunction.apply(indexName, taskID)
+        : WaitableResponse.super.waitTaskAsync();
   }
 }
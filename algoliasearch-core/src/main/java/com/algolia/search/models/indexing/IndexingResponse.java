@@ -1,10 +1,13 @@
 package com.algolia.search.models.indexing;
 
+import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.models.WaitableResponse;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -13,6 +16,7 @@ public class IndexingResponse implements WaitableResponse, Serializable {
 
   private Long taskID;
   private Consumer<Long> waitConsumer;
+  private Function<Long, CompletableFuture<Void>> waitTaskFunction;
 
   public Long getTaskID() {
     return taskID;
@@ -27,8 +31,23 @@ public class IndexingResponse implements WaitableResponse, Serializable {
     this.waitConsumer = waitConsumer;
   }
 
+  public void setWaitTaskFunction(Function<Long, CompletableFuture<Void>> waitTaskFunction) {
+    this.waitTaskFunction = waitTaskFunction;
+  }
+
   @Override
   public void waitTask() {
-    waitConsumer.accept(getTaskID());
+    if (waitConsumer != null) {
+      waitConsumer.accept(getTaskID());
+    } else {
+      LaunderThrowable.await(waitTaskAsync());
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    return waitTaskFunction != null
+        ? waitTaskFunction.apply(getTaskID())
+        : WaitableResponse.super.waitTaskAsync();
   }
 }
@@ -1,11 +1,15 @@
 package com.algolia.search.models.indexing;
 
+import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.models.WaitableResponse;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class MoveIndexResponse implements Serializable, WaitableResponse {
@@ -40,18 +44,41 @@ public class MoveIndexResponse implements Serializable, WaitableResponse {
     this.waitConsumer = waitConsumer;
   }
 
+  public void setWaitTaskBiFunction(
+      BiFunction<String, Long, CompletableFuture<Void>> waitTaskBiFunction) {
+    this.waitTaskBiFunction = waitTaskBiFunction;
+  }
+
+  public void setWaitTaskFunction(Function<Long, CompletableFuture<Void>> waitTaskFunction) {
+    this.waitTaskFunction = waitTaskFunction;
+  }
+
   private OffsetDateTime updatedAt;
   private String indexName;
   private BiConsumer<String, Long> waitBiConsumer;
   private Consumer<Long> waitConsumer;
+  private BiFunction<String, Long, CompletableFuture<Void>> waitTaskBiFunction;
+  private Function<Long, CompletableFuture<Void>> waitTaskFunction;
   private Long taskID;
 
   @Override
   public void waitTask() {
     if (waitBiConsumer != null) {
       waitBiConsumer.accept(indexName, taskID);
-    } else {
+    } else if (waitConsumer != null) {
       waitConsumer.accept(taskID);
+    } else {
+      LaunderThrowable.await(waitTaskAsync());
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    if (waitTaskBiFunction != null) {
+      return waitTaskBiFunction.apply(indexName, taskID);
+    } else if (waitTaskFunction != null) {
+      return waitTaskFunction.apply(taskID);
     }
+    return WaitableResponse.super.waitTaskAsync();
   }
 }
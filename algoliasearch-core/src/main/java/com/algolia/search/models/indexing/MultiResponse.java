@@ -1,8 +1,10 @@
 package com.algolia.search.models.indexing;
 
+import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.models.WaitableResponse;
 import java.io.Serializable;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class MultiResponse implements Serializable, WaitableResponse {
 
@@ -17,10 +19,15 @@ public class MultiResponse implements Serializable, WaitableResponse {
 
   private List<WaitableResponse> responses;
 
+  /** Waits for all the responses at once. */
   @Override
   public void waitTask() {
-    for (WaitableResponse resp : responses) {
-      resp.waitTask();
-    }
+    LaunderThrowable.await(waitTaskAsync());
+  }
+
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    return CompletableFuture.allOf(
+        responses.stream().map(WaitableResponse::waitTaskAsync).toArray(CompletableFuture[]::new));
   }
 }
@@ -1,11 +1,14 @@
 package com.algolia.search.models.indexing;
 
+import com.algolia.search.exceptions.LaunderThrowable;
 import com.algolia.search.models.WaitableResponse;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class MultipleIndexBatchIndexingResponse implements Serializable, WaitableResponse {
@@ -32,14 +35,38 @@ public class MultipleIndexBatchIndexingResponse implements Serializable, Waitabl
     this.waitConsumer = waitConsumer;
   }
 
+  public void setWaitTaskFunction(
+      BiFunction<String, Long, CompletableFuture<Void>> waitTaskFunction) {
+    this.waitTaskFunction = waitTaskFunction;
+  }
+
   private BiConsumer<String, Long> waitConsumer;
+  private BiFunction<String, Long, CompletableFuture<Void>> waitTaskFunction;
   private List<String> objectIDs;
   private Map<String, Long> taskID;
 
   @Override
   public void waitTask() {
+    if (waitConsumer == null) {
+      LaunderThrowable.await(waitTaskAsync());
+      return;
+    }
+
     for (Map.Entry<String, Long> entry : taskID.entrySet()) {
       waitConsumer.accept(entry.getKey(), entry.getValue());
     }
   }
+
+  /** Waits for the tasks of all the indices at once. */
+  @Override
+  public CompletableFuture<Void> waitTaskAsync() {
+    if (waitTaskFunction == null) {
+      return WaitableResponse.super.waitTaskAsync();
+    }
+
+    return CompletableFuture.allOf(
+        taskID.entrySet().stream()
+            .map(e -> waitTaskFunction.apply(e.getKey(), e.getValue()))
+            .toArray(CompletableFuture[]::new));
+  }
 }
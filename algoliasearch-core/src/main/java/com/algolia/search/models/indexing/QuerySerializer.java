@@ -1,5 +1,6 @@
 package com.algolia.search.models.indexing;
 
+import com.algolia.search.Defaults;
 import com.algolia.search.util.QueryStringUtils;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.SerializerProvider;
@@ -20,6 +21,7 @@ public class QuerySerializer extends StdSerializer<Query> {
   @Override
   public void serialize(Query value, JsonGenerator gen, SerializerProvider provider)
       throws IOException {
-    gen.writeString(QueryStringUtils.buildQueryAsQueryParams(value));
+    gen.writeString(
+        QueryStringUtils.buildQueryAsQueryParams(value, Defaults.getObjectMapper(gen.getCodec())));
   }
 }
@@ -81,7 +81,7 @@ class AutomaticFacetFilterDeserializer extends JsonDeserializer {
 
     ObjectCodec oc = jp.getCodec();
     JsonNode node = oc.readTree(jp);
-    ObjectMapper objectMapper = Defaults.getObjectMapper();
+    ObjectMapper objectMapper = Defaults.getObjectMapper(oc);
 
     if ((!node.isNull() && node.size() > 0)) {
       if (node.get(0).has("disjunctive") || node.get(0).has("score")) {
@@ -121,7 +121,7 @@ class ConsequenceQueryDeserializer extends JsonDeserializer<ConsequenceQuery> {
 
     ObjectCodec oc = jp.getCodec();
     JsonNode node = oc.readTree(jp);
-    ObjectMapper objectMapper = Defaults.getObjectMapper();
+    ObjectMapper objectMapper = Defaults.getObjectMapper(oc);
 
     // edits and remove attribute
     if (node.isObject()) {
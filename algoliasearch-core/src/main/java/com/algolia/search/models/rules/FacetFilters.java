@@ -57,7 +57,7 @@ class FacetFiltersJsonSerializer extends JsonSerializer<FacetFilters> {
   public void serialize(FacetFilters value, JsonGenerator gen, SerializerProvider serializers)
       throws IOException {
 
-    ObjectMapper objectMapper = Defaults.getObjectMapper();
+    ObjectMapper objectMapper = Defaults.getObjectMapper(gen.getCodec());
 
     if (value instanceof FacetFiltersAsListOfString) {
       FacetFiltersAsListOfString filters = (FacetFiltersAsListOfString) value;
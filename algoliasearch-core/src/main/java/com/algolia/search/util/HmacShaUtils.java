@@ -1,6 +1,8 @@
 package com.algolia.search.util;
 
+import com.algolia.search.Defaults;
 import com.algolia.search.models.apikeys.SecuredApiKeyRestriction;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.nio.charset.Charset;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
@@ -14,8 +16,16 @@ public class HmacShaUtils {
   public static String generateSecuredApiKey(
       @Nonnull String privateApiKey, @Nonnull SecuredApiKeyRestriction restriction)
       throws Exception {
+    return generateSecuredApiKey(privateApiKey, restriction, Defaults.getObjectMapper());
+  }
+
+  public static String generateSecuredApiKey(
+      @Nonnull String privateApiKey,
+      @Nonnull SecuredApiKeyRestriction restriction,
+      @Nonnull ObjectMapper objectMapper)
+      throws Exception {
 
-    String queryStr = QueryStringUtils.buildRestrictionQueryString(restriction);
+    String queryStr = QueryStringUtils.buildRestrictionQueryString(restriction, objectMapper);
     String key = hmac(privateApiKey, queryStr);
 
     return new String(
@@ -6,6 +6,7 @@ import com.algolia.search.models.apikeys.SecuredApiKeyRestriction;
 import com.algolia.search.models.indexing.SearchParameters;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.*;
@@ -49,13 +50,24 @@ public class QueryStringUtils {
     return buildString(map).map(s -> "?" + s).orElse("");
   }
 
-  @SuppressWarnings("unchecked")
   public static String buildQueryAsQueryParams(SearchParameters query) {
+    return buildQueryAsQueryParams(query, Defaults.getObjectMapper());
+  }
+
+  /**
+   * Build the query string of the given search parameters
+   *
+   * @param query The search parameters
+   * @param objectMapper The mapper of the client
+   */
+  @SuppressWarnings("unchecked")
+  public static String buildQueryAsQueryParams(
+      SearchParameters query, @Nonnull ObjectMapper objectMapper) {
 
     // This could be improved
     // We need to create a Map<String, Object> to keep track of the List<List<?>>
     Map<String, Object> map =
-        Defaults.getObjectMapper().convertValue(query, new TypeReference<Map<String, Object>>() {});
+        objectMapper.convertValue(query, new TypeReference<Map<String, Object>>() {});
 
     // Then creating a Map<String, String> to send query String builder
     Map<String, String> newMap =
@@ -90,7 +102,7 @@ public class QueryStringUtils {
                           // Handling around precision special case
                           if (e.getKey().equals("aroundPrecision")) {
                             try {
-                              return Defaults.getObjectMapper().writeValueAsString(e.getValue());
+                              return objectMapper.writeValueAsString(e.getValue());
                             } catch (JsonProcessingException ex) {
                               throw new AlgoliaRuntimeException(
                                   "Error while serializing the request", ex);
@@ -109,17 +121,17 @@ public class QueryStringUtils {
     return buildQueryString(newMap, true);
   }
 
-  static String buildRestrictionQueryString(@Nonnull final SecuredApiKeyRestriction restriction) {
+  static String buildRestrictionQueryString(
+      @Nonnull final SecuredApiKeyRestriction restriction, @Nonnull ObjectMapper objectMapper) {
 
     Map<String, String> restrictionMap =
-        Defaults.getObjectMapper()
-            .convertValue(restriction, new TypeReference<Map<String, String>>() {});
+        objectMapper.convertValue(restriction, new TypeReference<Map<String, String>>() {});
 
     if (restriction.getQuery() != null) {
       restrictionMap.remove("query");
       return buildQueryString(restrictionMap, true)
           + "&"
-          + buildQueryAsQueryParams(restriction.getQuery());
+          + buildQueryAsQueryParams(restriction.getQuery(), objectMapper);
     }
 
     return buildQueryString(restrictionMap, true);
@@ -0,0 +1,225 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.algolia.search.iterators.IndexIterable;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.indexing.BrowseIndexQuery;
+import com.algolia.search.models.indexing.BrowseIndexResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class BrowseObjectsTest {
+
+  @Test
+  void testNextPagesArePrefetched() throws Exception {
+    BrowseRequester requester = new BrowseRequester();
+    SearchIndex<Map> index = new SearchClient(config(), requester).initIndex("index", Map.class);
+
+    Iterator<Map> iterator = index.browseObjects(new BrowseIndexQuery(), 2).iterator();
+    assertThat(iterator.hasNext()).isTrue();
+
+    // The remaining pages are fetched while the first one is still being consumed
+    awaitRequests(requester, 3);
+
+    List<Object> objectIDs = new ArrayList<>();
+    iterator.forEachRemaining(o -> objectIDs.add(o.get("objectID")));
+
+    assertThat(objectIDs).containsExactly("1", "2", "3", "4", "5");
+    assertThat(requester.cursors).containsExactly("", "page2", "page3");
+  }
+
+  @Test
+  void testPrefetchingPausesOnceThePagesAreBuffered() throws Exception {
+    BrowseRequester requester = new BrowseRequester();
+    SearchIndex<Map> index = new SearchClient(config(), requester).initIndex("index", Map.class);
+
+    Iterator<Map> iterator = index.browseObjects(new BrowseIndexQuery(), 1).iterator();
+    assertThat(iterator.next().get("objectID")).isEqualTo("1");
+
+    awaitRequests(requester, 2);
+    Thread.sleep(50);
+    assertThat(requester.cursors).hasSize(2);
+
+    List<Object> objectIDs = new ArrayList<>();
+    iterator.forEachRemaining(o -> objectIDs.add(o.get("objectID")));
+
+    assertThat(objectIDs).containsExactly("2", "3", "4", "5");
+    assertThat(requester.cursors).containsExactly("", "page2", "page3");
+  }
+
+  @Test
+  void testHitsAreStreamedInParallelPageByPage() {
+    BrowseRequester requester = new BrowseRequester();
+    SearchIndex<Map> index = new SearchClient(config(), requester).initIndex("index", Map.class);
+    Spliterator<Map> spliterator = index.browseObjects(new BrowseIndexQuery(), 2).spliterator();
+    assertThat(spliterator.estimateSize()).isEqualTo(5);
+    // The first split hands the whole first page
+    assertThat(spliterator.trySplit().estimateSize()).isEqualTo(2);
+    assertThat(spliterator.estimateSize()).isEqualTo(3);
+
+    // Each traversal needs its own query, as the cursor of the query is updated while browsing
+    IndexIterable<Map> iterable = index.browseObjects(new BrowseIndexQuery(), 2);
+    List<Object> objectIDs =
+        iterable.parallelStream().map(o -> o.get("objectID")).collect(Collectors.toList());
+
+    assertThat(objectIDs).containsExactly("1", "2", "3", "4", "5");
+  }
+
+  @Test
+  void testHitsAreStreamedAsTheyAreParsed() throws Exception {
+    BrowseRequester requester = new BrowseRequester();
+    SearchIndex<Map> index = new SearchClient(config(), requester).initIndex("index", Map.class);
+
+    List<Object> objectIDs = new ArrayList<>();
+    BrowseIndexResponse<Map> page =
+        index
+            .streamBrowseFromAsync(
+                new BrowseIndexQuery(), null, o -> objectIDs.add(o.get("objectID")))
+            .get(1, TimeUnit.SECONDS);
+
+    assertThat(objectIDs).containsExactly("1", "2");
+    // The other fields of the response are still deserialized
+    assertThat(page.getHits()).isEmpty();
+    assertThat(page.getNbHits()).isEqualTo(5);
+    assertThat(page.getCursor()).isEqualTo("page2");
+  }
+
+  @Test
+  void testPartitionsAreBrowsedConcurrently() throws Exception {
+    BrowseRequester requester = new BrowseRequester();
+    // The first pages are answered only once both partitions have requested theirs
+    requester.firstPages = new CompletableFuture<>();
+    SearchIndex<Map> index = new SearchClient(config(), requester).initIndex("index", Map.class);
+
+    List<Object> objectIDs = Collections.synchronizedList(new ArrayList<>());
+    index
+        .browseObjectsAsync(
+            Arrays.asList(
+                new BrowseIndexQuery().setFilters("price < 10"),
+                new BrowseIndexQuery().setFilters("price >= 10")),
+            o -> objectIDs.add(o.get("objectID")))
+        .get(1, TimeUnit.SECONDS);
+
+    assertThat(objectIDs)
+        .containsExactlyInAnyOrder(
+            "price < 10:1",
+            "price < 10:2",
+            "price < 10:3",
+            "price < 10:4",
+            "price < 10:5",
+            "price >= 10:1",
+            "price >= 10:2",
+            "price >= 10:3",
+            "price >= 10:4",
+            "price >= 10:5");
+    assertThat(requester.cursors).hasSize(6);
+  }
+
+  @Test
+  void testPartitionFailingSynchronouslyFailsTheBrowse() {
+    BrowseRequester requester = new BrowseRequester();
+    // The first partition waits for its first page while the second one fails
+    requester.firstPages = new CompletableFuture<>();
+    SearchIndex<Map> index = new SearchClient(config(), requester).initIndex("index", Map.class);
+
+    List<Object> objectIDs = Collections.synchronizedList(new ArrayList<>());
+    CompletableFuture<Void> browse =
+        index.browseObjectsAsync(
+            Arrays.asList(new BrowseIndexQuery().setFilters("price < 10"), null),
+            o -> objectIDs.add(o.get("objectID")));
+
+    assertThatThrownBy(() -> browse.get(1, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(NullPointerException.class);
+
+    // The partition already running stops at its next page
+    requester.firstPages.complete(null);
+    assertThat(objectIDs).isEmpty();
+    assertThat(requester.cursors).containsExactly("");
+  }
+
+  private static SearchConfig config() {
+    return new SearchConfig.Builder("appID", "apiKEY").build();
+  }
+
+  private static void awaitRequests(BrowseRequester requester, int count)
+      throws InterruptedException {
+    for (int i = 0; i < 100 && requester.cursors.size() < count; i++) {
+      Thread.sleep(10);
+    }
+    assertThat(requester.cursors).hasSize(count);
+  }
+
+  /**
+   * Answers browse requests with three pages, chained by their cursors. The first pages can be held
+   * until two of them have been requested.
+   */
+  private static class BrowseRequester implements HttpRequester {
+
+    private final List<String> cursors = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger firstPageRequests = new AtomicInteger();
+    private CompletableFuture<Void> firstPages = CompletableFuture.completedFuture(null);
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      JsonNode body = readTree(request);
+      JsonNode cursor = body.get("cursor");
+      cursors.add(cursor == null ? "" : cursor.asText());
+
+      if (cursor == null && firstPageRequests.incrementAndGet() == 2) {
+        firstPages.complete(null);
+      }
+
+      String json;
+      if (cursor == null) {
+        json =
+            "{\"hits\":[{\"objectID\":\"1\"},{\"objectID\":\"2\"}],\"nbHits\":5,\"cursor\":\"page2\"}";
+      } else if (cursor.asText().equals("page2")) {
+        json = "{\"hits\":[{\"objectID\":\"3\"},{\"objectID\":\"4\"}],\"cursor\":\"page3\"}";
+      } else {
+        json = "{\"hits\":[{\"objectID\":\"5\"}]}";
+      }
+
+      // Records of a partition are prefixed by its filters
+      if (body.has("filters")) {
+        json =
+            json.replace("\"objectID\":\"", "\"objectID\":\"" + body.get("filters").asText() + ":");
+      }
+
+      byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+      CompletableFuture<Void> answer =
+          cursor == null ? firstPages : CompletableFuture.completedFuture(null);
+      return answer.thenApply(v -> new HttpResponse(200, new ByteArrayInputStream(bytes)));
+    }
+
+    private static JsonNode readTree(HttpRequest request) {
+      try {
+        return Defaults.getObjectMapper().readTree(request.getBody());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,80 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class ConnectionPoolConfigTest {
+
+  @Test
+  void testDefaults() {
+    SearchConfig config = builder().build();
+
+    assertThat(config.getMaxConnectionsPerHost()).isEqualTo(20);
+    assertThat(config.getMaxConnections()).isEqualTo(100);
+    assertThat(config.getIoThreadCount()).isNull();
+    assertThat(config.getConnectionKeepAlive()).isNull();
+    assertThat(config.getConnectionIdleTimeout()).isNull();
+    assertThat(config.getConnectionTimeToLive()).isNull();
+  }
+
+  @Test
+  void testPoolSettings() {
+    SearchConfig config =
+        builder()
+            .setMaxConnectionsPerHost(50)
+            .setMaxConnections(50)
+            .setIoThreadCount(2)
+            .setConnectionKeepAlive(30_000)
+            .setConnectionIdleTimeout(10_000)
+            .setConnectionTimeToLive(60_000)
+            .build();
+
+    assertThat(config.getMaxConnectionsPerHost()).isEqualTo(50);
+    assertThat(config.getMaxConnections()).isEqualTo(50);
+    assertThat(config.getIoThreadCount()).isEqualTo(2);
+    assertThat(config.getConnectionKeepAlive()).isEqualTo(30_000);
+    assertThat(config.getConnectionIdleTimeout()).isEqualTo(10_000);
+    assertThat(config.getConnectionTimeToLive()).isEqualTo(60_000);
+  }
+
+  @Test
+  void testDefaultMaxConnectionsFollowTheMaxPerHost() {
+    SearchConfig config = builder().setMaxConnectionsPerHost(200).build();
+
+    assertThat(config.getMaxConnectionsPerHost()).isEqualTo(200);
+    assertThat(config.getMaxConnections()).isEqualTo(200);
+    // Never lowered below the default
+    assertThat(builder().setMaxConnectionsPerHost(5).build().getMaxConnections()).isEqualTo(100);
+  }
+
+  @Test
+  void testMaxConnectionsCoverTheMaxPerHost() {
+    assertThatThrownBy(() -> builder().setMaxConnectionsPerHost(0).build())
+        .isInstanceOf(IllegalArgumentException.class);
+    // An explicit total lower than the maximum per host
+    assertThatThrownBy(() -> builder().setMaxConnectionsPerHost(200).setMaxConnections(100).build())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("maximum per host");
+    assertThatThrownBy(() -> builder().setMaxConnections(10).build())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("maximum per host");
+  }
+
+  @Test
+  void testTimingsMustBePositive() {
+    assertThatThrownBy(() -> builder().setIoThreadCount(0).build())
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> builder().setConnectionKeepAlive(0).build())
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> builder().setConnectionIdleTimeout(-1).build())
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> builder().setConnectionTimeToLive(0).build())
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static SearchConfig.Builder builder() {
+    return new SearchConfig.Builder("appID", "apiKEY");
+  }
+}
@@ -0,0 +1,121 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.indexing.MultipleGetObject;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class GetObjectsTest {
+
+  private static final List<String> OBJECT_IDS = Arrays.asList("1", "2", "3", "4", "5", "6", "7");
+
+  @Test
+  void testLargeListsAreFetchedInChunks() throws Exception {
+    ObjectsRequester requester = new ObjectsRequester();
+    SearchIndex<Map> index = createClient(requester).initIndex("index", Map.class);
+
+    List<Map> objects = index.getObjectsAsync(OBJECT_IDS).get(1, TimeUnit.SECONDS);
+
+    // Reassembled in the order of the objectIDs, whatever the order of the responses
+    assertThat(objects).extracting(o -> o.get("objectID")).containsExactlyElementsOf(OBJECT_IDS);
+    assertThat(requester.requests).hasValue(4);
+    assertThat(requester.maxInFlight.get()).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  void testObjectsAreStreamedAsChunksArrive() throws Exception {
+    ObjectsRequester requester = new ObjectsRequester();
+    SearchClient client = createClient(requester);
+
+    List<String> streamed = Collections.synchronizedList(new ArrayList<>());
+    client
+        .initIndex("index", Map.class)
+        .streamObjectsAsync(OBJECT_IDS, null, null, o -> streamed.add((String) o.get("objectID")))
+        .get(1, TimeUnit.SECONDS);
+
+    assertThat(streamed).containsExactlyInAnyOrderElementsOf(OBJECT_IDS);
+
+    List<MultipleGetObject> queries =
+        OBJECT_IDS.stream()
+            .map(id -> new MultipleGetObject("index", id))
+            .collect(Collectors.toList());
+    List<Map> objects = client.multipleGetObjects(queries, Map.class).getResults();
+
+    assertThat(objects).extracting(o -> o.get("objectID")).containsExactlyElementsOf(OBJECT_IDS);
+  }
+
+  private static SearchClient createClient(HttpRequester requester) {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setGetObjectsChunkSize(2)
+            .setMaxInFlightGetObjects(2)
+            .build();
+    return new SearchClient(config, requester);
+  }
+
+  /**
+   * Answers every query with an object holding its objectID. The chunk holding the first objectID
+   * is answered last.
+   */
+  private static class ObjectsRequester implements HttpRequester {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      requests.incrementAndGet();
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+      List<String> objects = new ArrayList<>();
+      boolean first = false;
+      for (JsonNode query : readTree(request).get("requests")) {
+        String objectID = query.get("objectID").asText();
+        first |= objectID.equals("1");
+        objects.add("{\"objectID\":\"" + objectID + "\"}");
+      }
+
+      byte[] json =
+          ("{\"results\":[" + String.join(",", objects) + "]}").getBytes(StandardCharsets.UTF_8);
+
+      CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+      Defaults.getScheduler()
+          .schedule(
+              () -> {
+                inFlight.decrementAndGet();
+                response.complete(new HttpResponse(200, new ByteArrayInputStream(json)));
+              },
+              first ? 50 : 1,
+              TimeUnit.MILLISECONDS);
+      return response;
+    }
+
+    private static JsonNode readTree(HttpRequest request) {
+      try {
+        return Defaults.getObjectMapper().readTree(request.getBody());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,81 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.algolia.search.models.HttpRequestBody;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class GzipCompressorTest {
+
+  @ParameterizedTest
+  @ValueSource(ints = {Deflater.DEFAULT_COMPRESSION, 0, 1, 9})
+  void testRoundTrip(int level) throws IOException {
+    GzipCompressor compressor = new GzipCompressor(level);
+    // Bigger than the initial buffer to make it grow
+    byte[] content =
+        String.join(",", Collections.nCopies(20000, "{\"objectID\":\"one\"}"))
+            .getBytes(StandardCharsets.UTF_8);
+
+    GzipCompressor.Lease lease = compressor.compress(out -> out.write(content));
+
+    assertThat(decompress(lease.getBody())).isEqualTo(content);
+  }
+
+  @Test
+  void testEmptyContent() throws IOException {
+    GzipCompressor compressor = new GzipCompressor(Deflater.DEFAULT_COMPRESSION);
+
+    GzipCompressor.Lease lease = compressor.compress(out -> {});
+
+    assertThat(decompress(lease.getBody())).isEmpty();
+  }
+
+  @Test
+  void testBuffersAreReused() throws IOException {
+    GzipCompressor compressor = new GzipCompressor(Deflater.DEFAULT_COMPRESSION);
+    byte[] content = "{\"query\":\"\"}".getBytes(StandardCharsets.UTF_8);
+
+    GzipCompressor.Lease first = compressor.compress(out -> out.write(content));
+    first.release();
+    GzipCompressor.Lease second = compressor.compress(out -> out.write(content));
+
+    assertThat(second.getBody().getBuffer()).isSameAs(first.getBody().getBuffer());
+    assertThat(decompress(second.getBody())).isEqualTo(content);
+
+    second.discard();
+    second.release();
+    GzipCompressor.Lease third = compressor.compress(out -> out.write(content));
+
+    assertThat(third.getBody().getBuffer()).isNotSameAs(second.getBody().getBuffer());
+  }
+
+  @Test
+  void testInvalidLevel() {
+    assertThatThrownBy(() -> new GzipCompressor(10)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(
+            () -> new SearchConfig.Builder("appID", "apiKEY").setCompressionLevel(-2).build())
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static byte[] decompress(HttpRequestBody body) throws IOException {
+    try (InputStream in = new GZIPInputStream(body.getInputStream());
+        ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      byte[] chunk = new byte[1024];
+      int read;
+      while ((read = in.read(chunk)) != -1) {
+        out.write(chunk, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+}
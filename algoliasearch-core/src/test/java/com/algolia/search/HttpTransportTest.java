@@ -0,0 +1,521 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.RequestOptions;
+import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.common.CompressionType;
+import com.algolia.search.models.indexing.BatchResponse;
+import com.algolia.search.models.indexing.Query;
+import com.algolia.search.models.indexing.SearchResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class HttpTransportTest {
+
+  @ParameterizedTest
+  @EnumSource(CompressionType.class)
+  void testBodyIsReplayedOnRetry(CompressionType compressionType) throws Exception {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setHosts(createHosts("host1", "host2"))
+            .setCompressionType(compressionType)
+            .build();
+
+    List<HttpRequest> requests = new ArrayList<>();
+    List<byte[]> bodies = new ArrayList<>();
+
+    HttpTransport transport =
+        new HttpTransport(
+            config,
+            new FunctionRequester(
+                request -> {
+                  requests.add(request);
+                  bodies.add(readFully(request.getBody()));
+                  // The first host fails, the second one succeeds
+                  return requests.size() == 1
+                      ? new HttpResponse(false).setHttpStatusCode(500)
+                      : jsonResponse("{\"taskID\":1}");
+                }));
+
+    BatchResponse response =
+        transport
+            .executeRequestAsync(
+                HttpMethod.POST,
+                "/1/indexes/index/batch",
+                CallType.WRITE,
+                Collections.singletonMap("requests", Collections.emptyList()),
+                BatchResponse.class,
+                null)
+            .get(1, TimeUnit.SECONDS);
+
+    assertThat(response.getTaskID()).isEqualTo(1L);
+    assertThat(requests).hasSize(2);
+    assertThat(requests.get(0).getUri().getHost()).isEqualTo("host1");
+    assertThat(requests.get(1).getUri().getHost()).isEqualTo("host2");
+    assertThat(bodies.get(0)).isNotEmpty();
+    assertThat(bodies.get(1)).isEqualTo(bodies.get(0));
+    assertThat(requests.get(1).getRequestBody().getLength()).isEqualTo(bodies.get(0).length);
+  }
+
+  @ParameterizedTest
+  @EnumSource(CallType.class)
+  void testTimeoutIsNotCompoundedAcrossHosts(CallType callType) throws Exception {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setHosts(createHosts("host1", "host2"))
+            .setReadTimeOut(1000)
+            .setWriteTimeOut(1000)
+            .build();
+
+    List<Integer> timeouts = new ArrayList<>();
+
+    HttpTransport transport =
+        new HttpTransport(
+            config,
+            new FunctionRequester(
+                request -> {
+                  timeouts.add(request.getTimeout());
+                  return new HttpResponse(true);
+                }));
+
+    // Every host times out twice, their retry count is incremented each time
+    for (int i = 0; i < 2; i++) {
+      CompletableFuture<BatchResponse> future =
+          transport.executeRequestAsync(
+              HttpMethod.GET, "/1/indexes/index", callType, BatchResponse.class, null);
+      assertThatThrownBy(() -> future.get(1, TimeUnit.SECONDS))
+          .isInstanceOf(ExecutionException.class);
+    }
+
+    assertThat(timeouts).containsExactly(1000, 1000, 2000, 2000);
+  }
+
+  @Test
+  void testParametricTypesAreResolvedPerInnerClass() throws Exception {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY").setHosts(createHosts("host1")).build();
+
+    HttpTransport transport =
+        new HttpTransport(
+            config,
+            new FunctionRequester(
+                request -> jsonResponse("{\"nbHits\":1,\"hits\":[{\"name\":\"algolia\"}]}")));
+
+    // The same return class with two inner classes must not share the same reader
+    for (int i = 0; i < 2; i++) {
+      SearchResult<Hit> hits =
+          transport
+              .executeRequestAsync(
+                  HttpMethod.GET,
+                  "/1/indexes/index",
+                  CallType.READ,
+                  null,
+                  SearchResult.class,
+                  Hit.class,
+                  null)
+              .get(1, TimeUnit.SECONDS);
+      assertThat(hits.getHits()).extracting(Hit::getName).containsExactly("algolia");
+
+      SearchResult<Map> maps =
+          transport
+              .executeRequestAsync(
+                  HttpMethod.GET,
+                  "/1/indexes/index",
+                  CallType.READ,
+                  null,
+                  SearchResult.class,
+                  Map.class,
+                  null)
+              .get(1, TimeUnit.SECONDS);
+      assertThat(maps.getHits().get(0)).containsEntry("name", "algolia");
+    }
+  }
+
+  @Test
+  void testHedgedReadRequest() throws Exception {
+    List<StatefulHost> hosts = createHosts("slow", "fast");
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY").setHosts(hosts).setReadHedgingDelay(50).build();
+
+    CompletableFuture<HttpResponse> slowResponse = new CompletableFuture<>();
+    HttpTransport transport =
+        new HttpTransport(
+            config,
+            new FunctionRequesterAsync(
+                request ->
+                    request.getUri().getHost().equals("slow")
+                        ? slowResponse
+                        : CompletableFuture.completedFuture(jsonResponse("{\"taskID\":1}"))));
+
+    BatchResponse response =
+        transport
+            .executeRequestAsync(
+                HttpMethod.GET, "/1/indexes/index", CallType.READ, BatchResponse.class, null)
+            .get(1, TimeUnit.SECONDS);
+
+    assertThat(response.getTaskID()).isEqualTo(1L);
+
+    // The loser is cancelled once the call completes, without marking its host as down
+    for (int i = 0; i < 100 && hosts.get(0).getOutstandingRequests() > 0; i++) {
+      Thread.sleep(10);
+    }
+    assertThat(slowResponse).isCancelled();
+    assertThat(hosts).allMatch(StatefulHost::isUp);
+    assertThat(hosts).allMatch(h -> h.getOutstandingRequests() == 0);
+  }
+
+  @Test
+  void testWriteRequestsAreNotHedged() throws Exception {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setHosts(createHosts("slow", "fast"))
+            .setReadHedgingDelay(10)
+            .build();
+
+    List<String> requestedHosts = Collections.synchronizedList(new ArrayList<>());
+    CompletableFuture<HttpResponse> slowResponse = new CompletableFuture<>();
+    HttpTransport transport =
+        new HttpTransport(
+            config,
+            new FunctionRequesterAsync(
+                request -> {
+                  requestedHosts.add(request.getUri().getHost());
+                  return slowResponse;
+                }));
+
+    CompletableFuture<BatchResponse> future =
+        transport.executeRequestAsync(
+            HttpMethod.POST, "/1/indexes/index", CallType.WRITE, BatchResponse.class, null);
+
+    Thread.sleep(100);
+    assertThat(requestedHosts).containsExactly("slow");
+
+    slowResponse.complete(jsonResponse("{\"taskID\":1}"));
+    assertThat(future.get(1, TimeUnit.SECONDS).getTaskID()).isEqualTo(1L);
+  }
+
+  @Test
+  void testIdenticalReadsInFlightAreCoalesced() throws Exception {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setHosts(createHosts("host1"))
+            .setUseReadCoalescing(true)
+            .build();
+
+    List<String> bodies = Collections.synchronizedList(new ArrayList<>());
+    CompletableFuture<Void> answer = new CompletableFuture<>();
+    HttpTransport transport =
+        new HttpTransport(
+            config,
+            new FunctionRequesterAsync(
+                request -> {
+                  bodies.add(new String(readFully(request.getBody()), StandardCharsets.UTF_8));
+                  return answer.thenApply(v -> jsonResponse("{\"taskID\":1}"));
+                }));
+
+    List<CompletableFuture<BatchResponse>> futures = new ArrayList<>();
+    for (String query : Arrays.asList("a", "a", "b")) {
+      futures.add(
+          transport.executeRequestAsync(
+              HttpMethod.POST,
+              "/1/indexes/index/query",
+              CallType.READ,
+              Collections.singletonMap("query", query),
+              BatchResponse.class,
+              null));
+    }
+    // Opted out per request
+    futures.add(
+        transport.executeRequestAsync(
+            HttpMethod.POST,
+            "/1/indexes/index/query",
+            CallType.READ,
+            Collections.singletonMap("query", "a"),
+            BatchResponse.class,
+            new RequestOptions().setCoalescing(false)));
+
+    assertThat(bodies)
+        .containsExactly("{\"query\":\"a\"}", "{\"query\":\"b\"}", "{\"query\":\"a\"}");
+
+    // Cancelling one caller doesn't cancel the request shared with the other one
+    futures.get(0).cancel(true);
+    answer.complete(null);
+    assertThat(futures.get(1).get(1, TimeUnit.SECONDS).getTaskID()).isEqualTo(1L);
+
+    // Once completed, the same request is sent again
+    transport.executeRequestAsync(
+        HttpMethod.POST,
+        "/1/indexes/index/query",
+        CallType.READ,
+        Collections.singletonMap("query", "a"),
+        BatchResponse.class,
+        null);
+    assertThat(bodies).hasSize(4);
+  }
+
+  @Test
+  void testWarmUpOpensConnectionsToEveryReadHost() throws Exception {
+    List<StatefulHost> hosts = createHosts("host1", "host2");
+    hosts.add(new StatefulHost("write", EnumSet.of(CallType.WRITE)));
+    SearchConfig config = new SearchConfig.Builder("appID", "apiKEY").setHosts(hosts).build();
+
+    List<String> urls = Collections.synchronizedList(new ArrayList<>());
+    SearchClient client =
+        new SearchClient(
+            config,
+            new FunctionRequester(
+                request -> {
+                  urls.add(request.getMethod() + " " + request.getUri());
+                  // A host that can't be reached doesn't fail the warm up
+                  return request.getUri().getHost().equals("host2")
+                      ? new HttpResponse(true)
+                      : jsonResponse("{\"message\":\"server is alive\"}");
+                }));
+
+    client.warmUp(2, SearchResult.class);
+
+    assertThat(urls)
+        .containsExactlyInAnyOrder(
+            "GET https://host1/1/isalive",
+            "GET https://host1/1/isalive",
+            "GET https://host2/1/isalive",
+            "GET https://host2/1/isalive");
+    // The hosts aren't marked as down by the warm up
+    assertThat(hosts).allMatch(StatefulHost::isUp);
+  }
+
+  @Test
+  void testVirtualThreadsRequireJava21() {
+    assumeTrue(!Defaults.isVirtualThreadSupported());
+
+    assertThatThrownBy(
+            () -> new SearchConfig.Builder("appID", "apiKEY").setUseVirtualThreads(true).build())
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void testCallsRunOnVirtualThreads() throws Exception {
+    ExecutorService virtualThreads = Defaults.newVirtualThreadPerTaskExecutor();
+    assumeTrue(virtualThreads != null);
+
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setHosts(createHosts("host1"))
+            .setUseVirtualThreads(true)
+            .build();
+
+    List<Thread> requesterThreads = Collections.synchronizedList(new ArrayList<>());
+    HttpTransport transport =
+        new HttpTransport(
+            config,
+            new FunctionRequester(
+                request -> {
+                  requesterThreads.add(Thread.currentThread());
+                  return jsonResponse("{\"taskID\":1}");
+                }));
+
+    // From a virtual thread, the whole call runs on it before the future is even returned
+    Future<Boolean> isInline =
+        virtualThreads.submit(
+            () ->
+                transport
+                        .executeRequestAsync(
+                            HttpMethod.GET,
+                            "/1/indexes/index",
+                            CallType.READ,
+                            BatchResponse.class,
+                            null)
+                        .isDone()
+                    && requesterThreads.get(0) == Thread.currentThread());
+    assertThat(isInline.get(1, TimeUnit.SECONDS)).isTrue();
+
+    // From a platform thread, the requester is called on a new virtual thread
+    transport
+        .executeRequestAsync(
+            HttpMethod.GET, "/1/indexes/index", CallType.READ, BatchResponse.class, null)
+        .get(1, TimeUnit.SECONDS);
+    assertThat(requesterThreads).hasSize(2);
+    assertThat(Defaults.isVirtualThread(requesterThreads.get(1))).isTrue();
+  }
+
+  @Test
+  void testCustomExecutorNeverBlocksOnRequests() throws Exception {
+    assumeTrue(Defaults.isVirtualThreadSupported());
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setHosts(createHosts("host1"))
+            .setUseVirtualThreads(true)
+            .setExecutorService(executor)
+            .build();
+
+    // As the Apache requester does, the response is built on the executor service
+    HttpTransport transport =
+        new HttpTransport(
+            config,
+            new FunctionRequesterAsync(
+                request ->
+                    CompletableFuture.supplyAsync(
+                        () -> jsonResponse("{\"taskID\":1}"), config.getExecutor())));
+
+    try {
+      // More calls than threads, which would all be blocked waiting for the responses
+      List<CompletableFuture<BatchResponse>> calls = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        calls.add(
+            transport.executeRequestAsync(
+                HttpMethod.GET, "/1/indexes/index", CallType.READ, BatchResponse.class, null));
+      }
+
+      for (CompletableFuture<BatchResponse> call : calls) {
+        assertThat(call.get(1, TimeUnit.SECONDS).getTaskID()).isEqualTo(1L);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testSearchCallbacksRunOnTheVirtualThread() throws Exception {
+    assumeTrue(Defaults.isVirtualThreadSupported());
+
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setHosts(createHosts("host1"))
+            .setUseVirtualThreads(true)
+            .build();
+
+    List<Thread> requesterThreads = Collections.synchronizedList(new ArrayList<>());
+    SearchIndex<Object> index =
+        new SearchClient(
+                config,
+                new FunctionRequester(
+                    request -> {
+                      requesterThreads.add(Thread.currentThread());
+                      return jsonResponse("{\"hits\":[],\"nbHits\":0}");
+                    }))
+            .initIndex("index", Object.class);
+
+    // No callback is handed to the executor service, the search is done once it returns
+    Future<Boolean> isInline =
+        config
+            .getExecutor()
+            .submit(
+                () ->
+                    index.searchAsync(new Query("a")).isDone()
+                        && requesterThreads.get(0) == Thread.currentThread());
+    assertThat(isInline.get(1, TimeUnit.SECONDS)).isTrue();
+
+    Future<Thread> searchThread =
+        config
+            .getExecutor()
+            .submit(
+                () -> {
+                  index.search(new Query("b"));
+                  return Thread.currentThread();
+                });
+    assertThat(searchThread.get(1, TimeUnit.SECONDS)).isSameAs(requesterThreads.get(1));
+  }
+
+  private static List<StatefulHost> createHosts(String... urls) {
+    List<StatefulHost> hosts = new ArrayList<>();
+    for (String url : urls) {
+      hosts.add(new StatefulHost(url, EnumSet.of(CallType.READ, CallType.WRITE)));
+    }
+    return hosts;
+  }
+
+  private static HttpResponse jsonResponse(String json) {
+    return new HttpResponse(200, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static byte[] readFully(InputStream in) {
+    try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      byte[] chunk = new byte[1024];
+      int read;
+      while ((read = in.read(chunk)) != -1) {
+        out.write(chunk, 0, read);
+      }
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static class Hit {
+
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public Hit setName(String name) {
+      this.name = name;
+      return this;
+    }
+  }
+
+  /** Requester answering with the future returned by the given function. */
+  private static class FunctionRequesterAsync implements HttpRequester {
+
+    private final Function<HttpRequest, CompletableFuture<HttpResponse>> handler;
+
+    FunctionRequesterAsync(Function<HttpRequest, CompletableFuture<HttpResponse>> handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      return handler.apply(request);
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  /** Requester answering synchronously with the given function. */
+  private static class FunctionRequester implements HttpRequester {
+
+    private final Function<HttpRequest, HttpResponse> handler;
+
+    FunctionRequester(Function<HttpRequest, HttpResponse> handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      return CompletableFuture.completedFuture(handler.apply(request));
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,100 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.indexing.MultipleQueries;
+import com.algolia.search.models.indexing.Query;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ObjectMapperConfigTest {
+
+  @Test
+  void testDefaultObjectMapper() {
+    SearchConfig config = new SearchConfig.Builder("appID", "apiKEY").build();
+
+    assertThat(config.getObjectMapper()).isSameAs(Defaults.getObjectMapper());
+  }
+
+  @Test
+  void testCustomObjectMapper() throws Exception {
+    ObjectMapper mapper =
+        Defaults.getObjectMapper()
+            .copy()
+            .setPropertyNamingStrategy(PropertyNamingStrategy.SNAKE_CASE);
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY").setObjectMapper(mapper).build();
+
+    HttpTransport transport =
+        new HttpTransport(
+            config,
+            new HttpRequester() {
+              @Override
+              public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+                byte[] json = "{\"first_name\":\"algolia\"}".getBytes(StandardCharsets.UTF_8);
+                return CompletableFuture.completedFuture(
+                    new HttpResponse(200, new ByteArrayInputStream(json)));
+              }
+
+              @Override
+              public void close() {}
+            });
+
+    Record record =
+        transport
+            .executeRequestAsync(HttpMethod.GET, "/1/record", CallType.READ, Record.class, null)
+            .get(1, TimeUnit.SECONDS);
+
+    assertThat(config.getObjectMapper()).isSameAs(mapper);
+    assertThat(record.getFirstName()).isEqualTo("algolia");
+  }
+
+  @Test
+  void testQueryParamsAreBuiltWithTheClientMapper() throws Exception {
+    ObjectMapper mapper =
+        Defaults.getObjectMapper()
+            .copy()
+            .setPropertyNamingStrategy(PropertyNamingStrategy.SNAKE_CASE);
+
+    String json =
+        mapper.writeValueAsString(new MultipleQueries("index", new Query("q").setHitsPerPage(5)));
+
+    assertThat(json).contains("hits_per_page=5").doesNotContain("hitsPerPage");
+  }
+
+  @Test
+  void testAcceleratorModule() {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY").setUseAcceleratorModule(true).build();
+
+    // The shared mapper is left untouched
+    assertThat(config.getObjectMapper()).isNotSameAs(Defaults.getObjectMapper());
+    assertThat(config.getObjectMapper().getRegisteredModuleIds())
+        .contains("com.fasterxml.jackson.module.afterburner.AfterburnerModule");
+    assertThat(Defaults.getObjectMapper().getRegisteredModuleIds())
+        .doesNotContain("com.fasterxml.jackson.module.afterburner.AfterburnerModule");
+  }
+
+  static class Record {
+
+    private String firstName;
+
+    public String getFirstName() {
+      return firstName;
+    }
+
+    public Record setFirstName(String firstName) {
+      this.firstName = firstName;
+      return this;
+    }
+  }
+}
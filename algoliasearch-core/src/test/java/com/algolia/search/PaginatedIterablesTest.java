@@ -0,0 +1,126 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.iterators.RulesIterable;
+import com.algolia.search.iterators.SynonymsIterable;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.rules.Rule;
+import com.algolia.search.models.synonyms.Synonym;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class PaginatedIterablesTest {
+
+  @Test
+  void testRulesStreamEndsPastTheLastPage() throws Exception {
+    PageRequester requester = new PageRequester(false);
+    RulesIterable rules = new RulesIterable(createIndex(requester), 2);
+
+    List<String> objectIDs =
+        CompletableFuture.supplyAsync(
+                () -> rules.stream().map(Rule::getObjectID).collect(Collectors.toList()))
+            .get(1, TimeUnit.SECONDS);
+
+    assertThat(objectIDs).containsExactly("0", "1", "2", "3", "4");
+    // The page past the last one is empty, but still holds the total nbHits
+    assertThat(requester.pages).containsExactly(0, 1, 2, 3);
+  }
+
+  @Test
+  void testSynonymsParallelStreamEndsPastTheLastPage() throws Exception {
+    PageRequester requester = new PageRequester(false);
+    SynonymsIterable synonyms = new SynonymsIterable(createIndex(requester), 2);
+
+    List<String> objectIDs =
+        CompletableFuture.supplyAsync(
+                () ->
+                    synonyms
+                        .parallelStream()
+                        .map(Synonym::getObjectID)
+                        .collect(Collectors.toList()))
+            .get(1, TimeUnit.SECONDS);
+
+    assertThat(objectIDs).containsExactly("0", "1", "2", "3", "4");
+    assertThat(requester.pages).containsExactly(0, 1, 2, 3);
+  }
+
+  @Test
+  void testLastPageIsKnownFromNbPages() throws Exception {
+    PageRequester requester = new PageRequester(true);
+    RulesIterable rules = new RulesIterable(createIndex(requester), 2);
+
+    List<String> objectIDs = new ArrayList<>();
+    rules.forEach(r -> objectIDs.add(r.getObjectID()));
+
+    assertThat(objectIDs).containsExactly("0", "1", "2", "3", "4");
+    assertThat(requester.pages).containsExactly(0, 1, 2);
+  }
+
+  private static SearchIndex<Object> createIndex(HttpRequester requester) {
+    SearchConfig config = new SearchConfig.Builder("appID", "apiKEY").build();
+    return new SearchClient(config, requester).initIndex("index", Object.class);
+  }
+
+  /**
+   * Answers rules and synonyms searches with the pages of five hits. As the API does, the pages
+   * past the last one have no hits but the total nbHits.
+   */
+  private static class PageRequester implements HttpRequester {
+
+    private static final int NB_HITS = 5;
+
+    private final boolean withNbPages;
+    private final List<Integer> pages = Collections.synchronizedList(new ArrayList<>());
+
+    PageRequester(boolean withNbPages) {
+      this.withNbPages = withNbPages;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      JsonNode body = readTree(request);
+      int page = body.get("page").asInt();
+      int hitsPerPage = body.get("hitsPerPage").asInt();
+      pages.add(page);
+
+      List<String> hits = new ArrayList<>();
+      for (int i = page * hitsPerPage; i < Math.min(NB_HITS, (page + 1) * hitsPerPage); i++) {
+        hits.add("{\"objectID\":\"" + i + "\"}");
+      }
+
+      String json =
+          "{\"hits\":["
+              + String.join(",", hits)
+              + "],\"nbHits\":"
+              + NB_HITS
+              + (withNbPages ? ",\"nbPages\":" + (NB_HITS + hitsPerPage - 1) / hitsPerPage : "")
+              + "}";
+
+      return CompletableFuture.completedFuture(
+          new HttpResponse(200, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static JsonNode readTree(HttpRequest request) {
+      try {
+        return Defaults.getObjectMapper().readTree(request.getBody());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void close() {}
+  }
+}
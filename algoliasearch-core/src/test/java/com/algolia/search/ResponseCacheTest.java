@@ -0,0 +1,176 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.models.CachedResponse;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.ResponseCacheStats;
+import com.algolia.search.models.common.CacheableOperation;
+import com.algolia.search.models.indexing.Query;
+import com.algolia.search.models.indexing.SearchResult;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ResponseCacheTest {
+
+  @Test
+  void testLeastRecentlyUsedResponsesAreEvicted() {
+    LruResponseCache cache = new LruResponseCache(2, 1024);
+    long now = System.currentTimeMillis();
+
+    cache.put("a", response(10, now + 60_000));
+    cache.put("b", response(10, now + 60_000));
+    cache.get("a");
+    cache.put("c", response(10, now + 60_000));
+
+    assertThat(cache.get("a")).isNotNull();
+    assertThat(cache.get("b")).isNull();
+    assertThat(cache.get("c")).isNotNull();
+
+    ResponseCacheStats stats = cache.getStats();
+    assertThat(stats.getHitCount()).isEqualTo(3);
+    assertThat(stats.getMissCount()).isEqualTo(1);
+    assertThat(stats.getEvictionCount()).isEqualTo(1);
+    assertThat(stats.getEntryCount()).isEqualTo(2);
+    assertThat(stats.getByteCount()).isEqualTo(22);
+  }
+
+  @Test
+  void testCacheIsBoundedInBytes() {
+    LruResponseCache cache = new LruResponseCache(100, 100);
+    long now = System.currentTimeMillis();
+
+    cache.put("a", response(60, now + 60_000));
+    cache.put("b", response(30, now + 60_000));
+    cache.put("c", response(30, now + 60_000));
+    // Bigger than the whole cache, never kept
+    cache.put("d", response(200, now + 60_000));
+
+    assertThat(cache.get("a")).isNull();
+    assertThat(cache.get("d")).isNull();
+    assertThat(cache.getStats().getEntryCount()).isEqualTo(2);
+    assertThat(cache.getStats().getByteCount()).isEqualTo(62);
+  }
+
+  @Test
+  void testExpiredResponsesAreRemoved() {
+    LruResponseCache cache = new LruResponseCache(10, 1024);
+    long now = System.currentTimeMillis();
+
+    cache.put("a", new CachedResponse(new byte[1], now - 2, now - 1));
+
+    assertThat(cache.get("a")).isNull();
+    assertThat(cache.getStats().getEntryCount()).isZero();
+  }
+
+  @Test
+  void testCachedOperationsAreServedFromTheCache() throws Exception {
+    CountingRequester requester = new CountingRequester();
+    LruResponseCache cache = new LruResponseCache(100, 1024 * 1024);
+    SearchIndex<Object> index = createClient(requester, cache, 0).initIndex("index", Object.class);
+
+    SearchResult<Object> first = index.search(new Query("a"));
+    SearchResult<Object> second = index.search(new Query("a"));
+    index.search(new Query("b"));
+
+    assertThat(requester.searches).hasValue(2);
+    assertThat(second.getQuery()).isEqualTo("a");
+    // Each caller gets its own result
+    assertThat(second).isNotSameAs(first);
+    assertThat(cache.getStats().getHitCount()).isEqualTo(1);
+
+    // Operations without a time to live aren't cached
+    index.getObject("one");
+    index.getObject("one");
+    assertThat(requester.objects).hasValue(2);
+  }
+
+  @Test
+  void testStaleResponsesAreRefreshedInTheBackground() throws Exception {
+    CountingRequester requester = new CountingRequester();
+    LruResponseCache cache = new LruResponseCache(100, 1024 * 1024);
+    SearchIndex<Object> index =
+        createClient(requester, cache, 60_000).initIndex("index", Object.class);
+
+    index.search(new Query("a"));
+    Thread.sleep(30);
+
+    assertThat(index.search(new Query("a")).getQuery()).isEqualTo("a");
+    assertThat(cache.getStats().getStaleHitCount()).isEqualTo(1);
+
+    // The refresh is sent once the stale response is served
+    for (int i = 0; i < 100 && requester.searches.get() < 2; i++) {
+      Thread.sleep(10);
+    }
+    assertThat(requester.searches).hasValue(2);
+  }
+
+  @Test
+  void testExpiredResponsesAreFetchedAgain() throws Exception {
+    CountingRequester requester = new CountingRequester();
+    LruResponseCache cache = new LruResponseCache(100, 1024 * 1024);
+    SearchIndex<Object> index = createClient(requester, cache, 0).initIndex("index", Object.class);
+
+    index.search(new Query("a"));
+    Thread.sleep(30);
+    index.search(new Query("a"));
+
+    assertThat(requester.searches).hasValue(2);
+    assertThat(cache.getStats().getMissCount()).isEqualTo(2);
+  }
+
+  private static SearchClient createClient(
+      HttpRequester requester, ResponseCache cache, long staleWhileRevalidate) {
+    return new SearchClient(
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setResponseCache(cache)
+            .setResponseCacheTtl(CacheableOperation.SEARCH, 20)
+            .setResponseCacheStaleWhileRevalidate(staleWhileRevalidate)
+            .build(),
+        requester);
+  }
+
+  private static CachedResponse response(int size, long freshUntil) {
+    return new CachedResponse(new byte[size], freshUntil, freshUntil);
+  }
+
+  /** Answers searches with their query, and objects with an empty object, counting them. */
+  private static class CountingRequester implements HttpRequester {
+
+    private final AtomicInteger searches = new AtomicInteger();
+    private final AtomicInteger objects = new AtomicInteger();
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      if (!request.getUri().getPath().endsWith("/query")) {
+        objects.incrementAndGet();
+        return json("{}");
+      }
+
+      searches.incrementAndGet();
+      String body = readBody(request);
+      String query = body.substring(body.indexOf(":\"") + 2, body.lastIndexOf('"'));
+      return json("{\"query\":\"" + query + "\",\"hits\":[]}");
+    }
+
+    private static String readBody(HttpRequest request) {
+      return new String(
+          request.getRequestBody().getBuffer(),
+          request.getRequestBody().getOffset(),
+          request.getRequestBody().getLength(),
+          StandardCharsets.UTF_8);
+    }
+
+    private static CompletableFuture<HttpResponse> json(String json) {
+      return CompletableFuture.completedFuture(
+          new HttpResponse(200, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Override
+    public void close() {}
+  }
+}
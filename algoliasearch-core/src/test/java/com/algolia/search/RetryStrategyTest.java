@@ -4,10 +4,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.algolia.search.models.HttpResponse;
 import com.algolia.search.models.common.CallType;
+import com.algolia.search.models.common.HostSelectionPolicy;
 import com.algolia.search.models.common.RetryOutcome;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
@@ -77,4 +80,99 @@ class RetryStrategyTest {
     List<StatefulHost> hosts = retryStrategy.getTryableHosts(callType);
     assertThat(hosts).filteredOn(StatefulHost::isUp).hasSize(1);
   }
+
+  @ParameterizedTest
+  @CsvSource({"READ", "WRITE"})
+  void testTryableHostsAreNotRebuiltWhenAllUp(CallType callType) {
+    SearchConfig config = new SearchConfig.Builder("appID", "apiKEY").build();
+    RetryStrategy retryStrategy = new RetryStrategy(config);
+
+    List<StatefulHost> hosts = retryStrategy.getTryableHosts(callType);
+    assertThat(retryStrategy.getTryableHosts(callType)).isSameAs(hosts);
+
+    retryStrategy.decide(hosts.get(0), new HttpResponse(false).setHttpStatusCode(500));
+    assertThat(retryStrategy.getTryableHosts(callType))
+        .hasSize(3)
+        .doesNotContain(hosts.get(0))
+        .allMatch(StatefulHost::isUp);
+  }
+
+  @ParameterizedTest
+  @CsvSource({"READ", "WRITE"})
+  void testResetHostDownForMoreThanFiveMinutes(CallType callType) {
+    StatefulHost expired = new StatefulHost("expired", EnumSet.of(CallType.READ, CallType.WRITE));
+    StatefulHost down = new StatefulHost("down", EnumSet.of(CallType.READ, CallType.WRITE));
+    StatefulHost up = new StatefulHost("up", EnumSet.of(CallType.READ, CallType.WRITE));
+
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setHosts(Arrays.asList(expired, down, up))
+            .build();
+    RetryStrategy retryStrategy = new RetryStrategy(config);
+
+    retryStrategy.decide(expired, new HttpResponse(false).setHttpStatusCode(500));
+    retryStrategy.decide(down, new HttpResponse(false).setHttpStatusCode(500));
+    expired.setLastUseNanos(System.nanoTime() - TimeUnit.MINUTES.toNanos(6));
+
+    assertThat(retryStrategy.getTryableHosts(callType)).containsExactly(expired, up);
+  }
+
+  @ParameterizedTest
+  @CsvSource({"READ", "WRITE"})
+  void testLatencyHostSelection(CallType callType) {
+    StatefulHost slow = createHostWithLatency("slow", 300);
+    StatefulHost fast = createHostWithLatency("fast", 10);
+    StatefulHost medium = createHostWithLatency("medium", 100);
+
+    RetryStrategy retryStrategy =
+        createRetryStrategy(HostSelectionPolicy.LATENCY, slow, fast, medium);
+
+    assertThat(retryStrategy.getTryableHosts(callType)).containsExactly(fast, medium, slow);
+  }
+
+  @ParameterizedTest
+  @CsvSource({"READ", "WRITE"})
+  void testLeastOutstandingRequestsHostSelection(CallType callType) {
+    StatefulHost busy = createHostWithLatency("busy", 10);
+    StatefulHost idle = createHostWithLatency("idle", 100);
+    busy.requestStarted();
+    busy.requestStarted();
+
+    RetryStrategy retryStrategy =
+        createRetryStrategy(HostSelectionPolicy.LEAST_OUTSTANDING_REQUESTS, busy, idle);
+
+    assertThat(retryStrategy.getTryableHosts(callType)).containsExactly(idle, busy);
+  }
+
+  @ParameterizedTest
+  @CsvSource({"READ", "WRITE"})
+  void testPowerOfTwoChoicesHostSelection(CallType callType) {
+    StatefulHost slow = createHostWithLatency("slow", 300);
+    StatefulHost fast = createHostWithLatency("fast", 10);
+
+    RetryStrategy retryStrategy =
+        createRetryStrategy(HostSelectionPolicy.POWER_OF_TWO_CHOICES, slow, fast);
+
+    // With two hosts, both are always picked and the best one comes first
+    for (int i = 0; i < 10; i++) {
+      assertThat(retryStrategy.getTryableHosts(callType)).containsExactly(fast, slow);
+    }
+  }
+
+  private static RetryStrategy createRetryStrategy(
+      HostSelectionPolicy policy, StatefulHost... hosts) {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setHosts(Arrays.asList(hosts))
+            .setHostSelectionPolicy(policy)
+            .build();
+    return new RetryStrategy(config);
+  }
+
+  private static StatefulHost createHostWithLatency(String url, long latencyMillis) {
+    StatefulHost host = new StatefulHost(url, EnumSet.of(CallType.READ, CallType.WRITE));
+    long start = host.requestStarted();
+    host.requestCompleted(start - TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+    return host;
+  }
 }
@@ -0,0 +1,217 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.algolia.search.exceptions.AlgoliaApiException;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.RequestOptions;
+import com.algolia.search.models.indexing.Query;
+import com.algolia.search.models.indexing.SearchResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class SearchBatcherTest {
+
+  @Test
+  void testConcurrentSearchesAreBatched() throws Exception {
+    SearchRequester requester = new SearchRequester();
+    SearchClient client = createClient(requester, 50, 10);
+
+    CompletableFuture<SearchResult<Object>> first =
+        client.initIndex("first", Object.class).searchAsync(new Query("a"));
+    CompletableFuture<SearchResult<Object>> second =
+        client.initIndex("second", Object.class).searchAsync(new Query("b"));
+
+    assertThat(first.get(1, TimeUnit.SECONDS).getIndex()).isEqualTo("first");
+    assertThat(second.get(1, TimeUnit.SECONDS).getIndex()).isEqualTo("second");
+    assertThat(requester.paths).containsExactly("/1/indexes/*/queries");
+  }
+
+  @Test
+  void testFullBatchIsSentRightAway() throws Exception {
+    SearchRequester requester = new SearchRequester();
+    // The window is long enough for the test to time out if the batch waited for it
+    SearchClient client = createClient(requester, 60_000, 2);
+    SearchIndex<Object> index = client.initIndex("index", Object.class);
+
+    CompletableFuture<SearchResult<Object>> first = index.searchAsync(new Query("a"));
+    CompletableFuture<SearchResult<Object>> second = index.searchAsync(new Query("b"));
+
+    assertThat(first.get(1, TimeUnit.SECONDS).getQuery()).isEqualTo("a");
+    assertThat(second.get(1, TimeUnit.SECONDS).getQuery()).isEqualTo("b");
+    assertThat(requester.paths).containsExactly("/1/indexes/*/queries");
+  }
+
+  @Test
+  void testRejectedBatchIsSentQueryByQuery() throws Exception {
+    SearchRequester requester = new SearchRequester();
+    SearchClient client = createClient(requester, 50, 10);
+
+    CompletableFuture<SearchResult<Object>> found =
+        client.initIndex("index", Object.class).searchAsync(new Query("a"));
+    CompletableFuture<SearchResult<Object>> invalid =
+        client.initIndex("invalid", Object.class).searchAsync(new Query("b"));
+
+    assertThat(found.get(1, TimeUnit.SECONDS).getIndex()).isEqualTo("index");
+    assertThatThrownBy(() -> invalid.get(1, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(AlgoliaApiException.class);
+    assertThat(requester.paths)
+        .containsExactlyInAnyOrder(
+            "/1/indexes/*/queries", "/1/indexes/index/query", "/1/indexes/invalid/query");
+  }
+
+  @Test
+  void testMissingIndexFailsItsSearchOnly() throws Exception {
+    SearchRequester requester = new SearchRequester();
+    SearchClient client = createClient(requester, 50, 10);
+
+    CompletableFuture<SearchResult<Object>> first =
+        client.initIndex("first", Object.class).searchAsync(new Query("a"));
+    CompletableFuture<SearchResult<Object>> missing =
+        client.initIndex("missing", Object.class).searchAsync(new Query("b"));
+    CompletableFuture<SearchResult<Object>> second =
+        client.initIndex("second", Object.class).searchAsync(new Query("c"));
+
+    assertThat(first.get(1, TimeUnit.SECONDS).getIndex()).isEqualTo("first");
+    assertThat(second.get(1, TimeUnit.SECONDS).getIndex()).isEqualTo("second");
+    assertThatThrownBy(() -> missing.get(1, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(AlgoliaApiException.class)
+        .satisfies(
+            e ->
+                assertThat(((AlgoliaApiException) e.getCause()).getHttpErrorCode()).isEqualTo(404));
+  }
+
+  @Test
+  void testUnauthorizedBatchFailsEverySearch() {
+    SearchRequester requester = new SearchRequester();
+    SearchClient client = createClient(requester, 50, 10);
+
+    CompletableFuture<SearchResult<Object>> found =
+        client.initIndex("index", Object.class).searchAsync(new Query("a"));
+    CompletableFuture<SearchResult<Object>> unauthorized =
+        client.initIndex("unauthorized", Object.class).searchAsync(new Query("b"));
+
+    for (CompletableFuture<SearchResult<Object>> search : Arrays.asList(found, unauthorized)) {
+      assertThatThrownBy(() -> search.get(1, TimeUnit.SECONDS))
+          .isInstanceOf(ExecutionException.class)
+          .hasCauseInstanceOf(AlgoliaApiException.class)
+          .satisfies(
+              e ->
+                  assertThat(((AlgoliaApiException) e.getCause()).getHttpErrorCode())
+                      .isEqualTo(401));
+    }
+    // The searches aren't sent again on their own
+    assertThat(requester.paths).containsExactly("/1/indexes/*/queries");
+  }
+
+  @Test
+  void testSearchesWithRequestOptionsAreNotBatched() throws Exception {
+    SearchRequester requester = new SearchRequester();
+    SearchClient client = createClient(requester, 60_000, 10);
+
+    SearchResult<Object> result =
+        client
+            .initIndex("index", Object.class)
+            .searchAsync(new Query("a"), new RequestOptions())
+            .get(1, TimeUnit.SECONDS);
+
+    assertThat(result.getIndex()).isEqualTo("index");
+    assertThat(requester.paths).containsExactly("/1/indexes/index/query");
+  }
+
+  private static SearchClient createClient(
+      HttpRequester requester, int batchingWindow, int maxBatchSize) {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setSearchBatchingWindow(batchingWindow)
+            .setMaxSearchBatchSize(maxBatchSize)
+            .build();
+    return new SearchClient(config, requester);
+  }
+
+  /**
+   * Answers searches with a result holding their index and query. The index named "invalid" is
+   * answered with a 400, the index named "unauthorized" with a 401 and the index named "missing"
+   * with a 404, as well as any multiple queries request targeting them.
+   */
+  private static class SearchRequester implements HttpRequester {
+
+    private static final Map<String, Integer> ERRORS = new HashMap<>();
+
+    static {
+      ERRORS.put("invalid", 400);
+      ERRORS.put("unauthorized", 401);
+      ERRORS.put("missing", 404);
+    }
+
+    private final List<String> paths = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      String path = request.getUri().getPath();
+      paths.add(path);
+      JsonNode body = readTree(request);
+
+      if (path.equals("/1/indexes/*/queries")) {
+        List<String> results = new ArrayList<>();
+        for (JsonNode query : body.get("requests")) {
+          String indexName = query.get("indexName").asText();
+          if (ERRORS.containsKey(indexName)) {
+            return error(indexName);
+          }
+          String params = query.get("params").asText();
+          results.add(result(indexName, params.substring(params.indexOf('=') + 1)));
+        }
+        return json("{\"results\":[" + String.join(",", results) + "]}");
+      }
+
+      String indexName = path.split("/")[3];
+      if (ERRORS.containsKey(indexName)) {
+        return error(indexName);
+      }
+      return json(result(indexName, body.get("query").asText()));
+    }
+
+    private static String result(String indexName, String query) {
+      return "{\"index\":\"" + indexName + "\",\"query\":\"" + query + "\",\"hits\":[]}";
+    }
+
+    private static JsonNode readTree(HttpRequest request) {
+      try {
+        return Defaults.getObjectMapper().readTree(request.getBody());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private static CompletableFuture<HttpResponse> error(String indexName) {
+      return CompletableFuture.completedFuture(
+          new HttpResponse(ERRORS.get(indexName), "Rejected index " + indexName));
+    }
+
+    private static CompletableFuture<HttpResponse> json(String json) {
+      return CompletableFuture.completedFuture(
+          new HttpResponse(200, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,215 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.common.CompressionType;
+import com.algolia.search.models.indexing.ActionEnum;
+import com.algolia.search.models.indexing.BatchIndexingResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SplitIntoBatchesTest {
+
+  @Test
+  void testMaxInFlightBatches() throws Exception {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setBatchSize(10)
+            .setMaxInFlightBatches(2)
+            .build();
+
+    PendingRequester requester = new PendingRequester();
+    SearchClient client = new SearchClient(config, requester);
+    SearchIndex<Object> index = client.initIndex("index", Object.class);
+
+    AtomicInteger pulled = new AtomicInteger();
+    Iterable<Integer> records = () -> new CountingIterator(100, pulled);
+
+    CompletableFuture<BatchIndexingResponse> future =
+        index.splitIntoBatchesAsync(records, ActionEnum.ADD_OBJECT);
+
+    // Only two batches are pulled and sent before any response arrives
+    assertThat(requester.pending).hasSize(2);
+    assertThat(pulled.get()).isEqualTo(20);
+
+    long taskID = 0;
+    while (!future.isDone()) {
+      CompletableFuture<HttpResponse> pending = requester.pending.poll();
+      if (pending == null) {
+        Thread.sleep(1);
+        continue;
+      }
+      assertThat(requester.pending.size()).isLessThanOrEqualTo(1);
+      pending.complete(response(++taskID));
+    }
+
+    BatchIndexingResponse response = future.get(1, TimeUnit.SECONDS);
+    assertThat(pulled.get()).isEqualTo(100);
+    assertThat(response.getResponses()).hasSize(10);
+    assertThat(response.getResponses()).allMatch(r -> r.getTaskID() != null);
+  }
+
+  @Test
+  void testMaxBatchBytes() throws Exception {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY").setMaxBatchBytes(1000L).build();
+
+    List<Integer> bodySizes = Collections.synchronizedList(new ArrayList<>());
+    HttpRequester requester =
+        new HttpRequester() {
+          @Override
+          public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+            try {
+              bodySizes.add(request.getBody().available());
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            return CompletableFuture.completedFuture(response(bodySizes.size()));
+          }
+
+          @Override
+          public void close() {}
+        };
+
+    SearchIndex<Object> index =
+        new SearchClient(config, requester).initIndex("index", Object.class);
+
+    List<Object> records = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      records.add(
+          Collections.singletonMap("text", String.join("", Collections.nCopies(i * 5, "a"))));
+    }
+    // A record bigger than the limit is sent alone
+    records.add(Collections.singletonMap("text", String.join("", Collections.nCopies(2000, "a"))));
+
+    BatchIndexingResponse response =
+        index.splitIntoBatchesAsync(records, ActionEnum.ADD_OBJECT).get(1, TimeUnit.SECONDS);
+
+    assertThat(response.getResponses()).hasSize(bodySizes.size());
+    assertThat(bodySizes.size()).isGreaterThan(1);
+    // Every batch but the oversized record fits in the limit, plus the request envelope
+    assertThat(bodySizes.subList(0, bodySizes.size() - 1)).allMatch(size -> size <= 1000 + 20);
+    assertThat(bodySizes.get(bodySizes.size() - 1)).isGreaterThan(2000);
+  }
+
+  @Test
+  void testRecordsAreSerializedOnce() throws Exception {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY")
+            .setMaxBatchBytes(200L)
+            .setCompressionType(CompressionType.NONE)
+            .build();
+
+    List<JsonNode> bodies = Collections.synchronizedList(new ArrayList<>());
+    HttpRequester requester =
+        new HttpRequester() {
+          @Override
+          public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+            try {
+              bodies.add(Defaults.getObjectMapper().readTree(request.getBody()));
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            return CompletableFuture.completedFuture(response(bodies.size()));
+          }
+
+          @Override
+          public void close() {}
+        };
+
+    SearchIndex<CountedRecord> index =
+        new SearchClient(config, requester).initIndex("index", CountedRecord.class);
+
+    AtomicInteger serializations = new AtomicInteger();
+    List<CountedRecord> records = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      records.add(new CountedRecord(String.valueOf(i), serializations));
+    }
+
+    index.splitIntoBatchesAsync(records, ActionEnum.ADD_OBJECT).get(1, TimeUnit.SECONDS);
+
+    assertThat(serializations).hasValue(20);
+    assertThat(bodies.size()).isGreaterThan(1);
+
+    // The records cut from a batch start the next one, none is lost or sent twice
+    List<String> objectIDs = new ArrayList<>();
+    for (JsonNode body : bodies) {
+      body.get("requests").forEach(r -> objectIDs.add(r.get("body").get("objectID").asText()));
+    }
+    assertThat(objectIDs)
+        .containsExactly(records.stream().map(r -> r.objectID).toArray(String[]::new));
+  }
+
+  private static HttpResponse response(long taskID) {
+    String json = "{\"taskID\":" + taskID + ",\"objectIDs\":[]}";
+    return new HttpResponse(200, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /** Record counting how many times it's serialized. */
+  static class CountedRecord {
+
+    private final String objectID;
+    private final AtomicInteger serializations;
+
+    CountedRecord(String objectID, AtomicInteger serializations) {
+      this.objectID = objectID;
+      this.serializations = serializations;
+    }
+
+    public String getObjectID() {
+      serializations.incrementAndGet();
+      return objectID;
+    }
+  }
+
+  private static class PendingRequester implements HttpRequester {
+
+    private final ConcurrentLinkedQueue<CompletableFuture<HttpResponse>> pending =
+        new ConcurrentLinkedQueue<>();
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+      pending.add(future);
+      return future;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  private static class CountingIterator implements Iterator<Integer> {
+
+    private final int size;
+    private final AtomicInteger pulled;
+
+    CountingIterator(int size, AtomicInteger pulled) {
+      this.size = size;
+      this.pulled = pulled;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return pulled.get() < size;
+    }
+
+    @Override
+    public Integer next() {
+      return pulled.incrementAndGet();
+    }
+  }
+}
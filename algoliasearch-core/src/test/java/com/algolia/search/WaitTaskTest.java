@@ -0,0 +1,188 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.algolia.search.exceptions.AlgoliaApiException;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.models.indexing.ActionEnum;
+import com.algolia.search.models.indexing.BatchIndexingResponse;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class WaitTaskTest {
+
+  private static final Pattern TASK_PATH = Pattern.compile(".*/task/(-?\\d+)$");
+
+  @Test
+  void testWaitTaskAsync() throws Exception {
+    TaskRequester requester = new TaskRequester(3);
+    SearchIndex<Object> index = createIndex(requester);
+
+    index.waitTaskAsync(42, 1, null).get(1, TimeUnit.SECONDS);
+
+    assertThat(requester.polls.get(42L)).hasValue(3);
+  }
+
+  @Test
+  void testWaitTaskAsyncFailure() {
+    TaskRequester requester = new TaskRequester(1);
+    SearchIndex<Object> index = createIndex(requester);
+
+    // Task -1 is answered with a 404
+    assertThatThrownBy(() -> index.waitTaskAsync(-1, 1, null).get(1, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(AlgoliaApiException.class);
+    assertThatThrownBy(() -> index.waitTask(-1, 1, null)).isInstanceOf(AlgoliaApiException.class);
+  }
+
+  @Test
+  void testBatchIndexingResponseWaitsForAllTasks() throws Exception {
+    TaskRequester requester = new TaskRequester(2);
+    SearchConfig config = new SearchConfig.Builder("appID", "apiKEY").setBatchSize(1).build();
+    SearchIndex<Object> index =
+        new SearchClient(config, requester).initIndex("index", Object.class);
+
+    BatchIndexingResponse response =
+        index
+            .splitIntoBatchesAsync(Arrays.asList(1, 2, 3), ActionEnum.ADD_OBJECT)
+            .get(1, TimeUnit.SECONDS);
+
+    response.waitTaskAsync().get(2, TimeUnit.SECONDS);
+
+    assertThat(requester.polls).containsOnlyKeys(1L, 2L, 3L);
+    assertThat(requester.polls.values()).allMatch(polls -> polls.get() == 2);
+  }
+
+  @Test
+  void testWaitsAreCoalescedPerIndex() throws Exception {
+    TaskRequester requester = new TaskRequester(Integer.MAX_VALUE);
+    SearchIndex<Object> index = createIndex(requester);
+
+    List<CompletableFuture<Void>> waits = new ArrayList<>();
+    for (long taskID = 1; taskID <= 20; taskID++) {
+      waits.add(index.waitTaskAsync(taskID, 1, null));
+    }
+    // The same task waited twice is polled once
+    waits.add(index.waitTaskAsync(20, 1, null));
+
+    // Only the smallest task is polled while it isn't published
+    Thread.sleep(50);
+    assertThat(requester.polls).containsOnlyKeys(1L);
+
+    requester.publishedUpTo.set(20);
+    CompletableFuture.allOf(waits.toArray(new CompletableFuture[0])).get(1, TimeUnit.SECONDS);
+
+    // Once the smallest task is published, the highest one completes all the waiters at once
+    assertThat(requester.polls).containsOnlyKeys(1L, 20L);
+    assertThat(requester.polls.get(20L)).hasValue(1);
+  }
+
+  @Test
+  void testSmallestTaskIsPolledWhenTheHighestIsntPublished() throws Exception {
+    TaskRequester requester = new TaskRequester(Integer.MAX_VALUE);
+    SearchIndex<Object> index = createIndex(requester);
+
+    List<CompletableFuture<Void>> waits = new ArrayList<>();
+    for (long taskID = 1; taskID <= 5; taskID++) {
+      waits.add(index.waitTaskAsync(taskID, 1, null));
+    }
+
+    Thread.sleep(50);
+    requester.publishedUpTo.set(2);
+    waits.get(1).get(1, TimeUnit.SECONDS);
+
+    // Task 5 isn't published, the smallest one left is polled until it is
+    Thread.sleep(50);
+    assertThat(requester.polls).containsOnlyKeys(1L, 2L, 3L, 5L);
+    assertThat(requester.polls.get(2L)).hasValue(1);
+    assertThat(waits.get(2)).isNotDone();
+
+    requester.publishedUpTo.set(5);
+    CompletableFuture.allOf(waits.toArray(new CompletableFuture[0])).get(1, TimeUnit.SECONDS);
+    assertThat(requester.polls).containsOnlyKeys(1L, 2L, 3L, 5L);
+  }
+
+  @Test
+  void testPublishedTasksArentPolledWhileTheIndexIsTracked() throws Exception {
+    TaskRequester requester = new TaskRequester(Integer.MAX_VALUE);
+    SearchIndex<Object> index = createIndex(requester);
+
+    CompletableFuture<Void> published = index.waitTaskAsync(20, 1, null);
+    CompletableFuture<Void> pending = index.waitTaskAsync(30, 1, null);
+    requester.publishedUpTo.set(20);
+    published.get(1, TimeUnit.SECONDS);
+
+    // Task 20 is published and task 30 is still waited for, task 10 is completed right away
+    index.waitTaskAsync(10, 1, null).get(1, TimeUnit.SECONDS);
+    assertThat(requester.polls).doesNotContainKey(10L);
+
+    requester.publishedUpTo.set(30);
+    pending.get(1, TimeUnit.SECONDS);
+  }
+
+  private static SearchIndex<Object> createIndex(HttpRequester requester) {
+    SearchConfig config = new SearchConfig.Builder("appID", "apiKEY").build();
+    return new SearchClient(config, requester).initIndex("index", Object.class);
+  }
+
+  /**
+   * Answers batches with a new task, published after the given number of polls or once it's lower
+   * than the published watermark.
+   */
+  private static class TaskRequester implements HttpRequester {
+
+    private final int pollsBeforePublished;
+    private final AtomicInteger nextTaskID = new AtomicInteger();
+    private final Map<Long, AtomicInteger> polls = new ConcurrentHashMap<>();
+    private final AtomicLong publishedUpTo = new AtomicLong();
+
+    TaskRequester(int pollsBeforePublished) {
+      this.pollsBeforePublished = pollsBeforePublished;
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> performRequestAsync(HttpRequest request) {
+      Matcher matcher = TASK_PATH.matcher(request.getUri().getPath());
+
+      if (!matcher.matches()) {
+        return json("{\"taskID\":" + nextTaskID.incrementAndGet() + ",\"objectIDs\":[]}");
+      }
+
+      long taskID = Long.parseLong(matcher.group(1));
+      if (taskID < 0) {
+        return CompletableFuture.completedFuture(new HttpResponse(404, "Task not found"));
+      }
+
+      int count = polls.computeIfAbsent(taskID, k -> new AtomicInteger()).incrementAndGet();
+      return json(
+          "{\"status\":\""
+              + (count >= pollsBeforePublished || taskID <= publishedUpTo.get()
+                  ? "published"
+                  : "notPublished")
+              + "\"}");
+    }
+
+    private static CompletableFuture<HttpResponse> json(String json) {
+      return CompletableFuture.completedFuture(
+          new HttpResponse(200, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -2,8 +2,10 @@ package com.algolia.search;
 
 import com.algolia.search.exceptions.AlgoliaRuntimeException;
 import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpRequestBody;
 import com.algolia.search.models.HttpResponse;
 import com.algolia.search.util.HttpStatusCodeUtils;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.ProxySelector;
@@ -18,32 +20,66 @@ import java.net.http.HttpResponse.BodyHandlers;
 import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.zip.GZIPInputStream;
 import javax.annotation.Nonnull;
 
-/** Implementation of {@code HttpRequester} for the built-in Java.net 11 HTTP Client */
+/**
+ * Implementation of {@code HttpRequester} for the built-in Java.net 11 HTTP Client
+ *
+ * <p>The requests are multiplexed over {@link ConfigBase#getHttp2ConnectionsPerHost()} HTTP/2
+ * connections per host, each one opened by its own client as a client opens a single connection per
+ * host. Each request is sent on the least loaded connection, with at most {@link
+ * ConfigBase#getMaxConcurrentStreams()} requests in flight per connection. The requests over that
+ * limit are queued, their timeout running from the moment they are queued.
+ *
+ * <p>Response bodies are received as byte arrays, so that no thread is parked while a body is being
+ * received. The whole body of a response is then held in memory before being parsed, even when its
+ * hits are streamed to a consumer: with large browse pages, the memory grows with the page size
+ * times the number of requests in flight.
+ */
 public final class JavaNetHttpRequester implements HttpRequester {
 
-  /** Reusable instance of the httpClient. */
-  private final HttpClient client;
+  /** Reusable instances of the httpClient, one per connection to each host. */
+  private final List<HttpClient> clients;
+
+  /** Streams of the connections to each host, by host. Indexed as the clients */
+  private final Map<String, StreamLimiter[]> connections = new ConcurrentHashMap<>();
+
+  private final int maxConcurrentStreams;
+
+  private final ScheduledExecutorService scheduler;
 
   /**
-   * Build the reusable instance of httpClient with the given configuration.
+   * Build the reusable instances of httpClient with the given configuration.
    *
    * @param config HTTPClient agnostic Algolia's configuration.
    */
   public JavaNetHttpRequester(@Nonnull ConfigBase config) {
-    client =
-        HttpClient.newBuilder()
-            .executor(config.getExecutor())
-            .version(HttpClient.Version.HTTP_2)
-            .followRedirects(HttpClient.Redirect.NEVER)
-            .proxy(ProxySelector.getDefault())
-            .connectTimeout(Duration.ofMillis(config.getConnectTimeOut()))
-            .build();
+    clients = new ArrayList<>(config.getHttp2ConnectionsPerHost());
+
+    for (int i = 0; i < config.getHttp2ConnectionsPerHost(); i++) {
+      clients.add(
+          HttpClient.newBuilder()
+              .executor(config.getExecutor())
+              .version(HttpClient.Version.HTTP_2)
+              .followRedirects(HttpClient.Redirect.NEVER)
+              .proxy(ProxySelector.getDefault())
+              .connectTimeout(Duration.ofMillis(config.getConnectTimeOut()))
+              .build());
+    }
+
+    maxConcurrentStreams =
+        config.getMaxConcurrentStreams() != null
+            ? config.getMaxConcurrentStreams()
+            : Integer.MAX_VALUE;
+
+    scheduler = config.getScheduler();
   }
 
   /**
@@ -55,21 +91,68 @@ public final class JavaNetHttpRequester implements HttpRequester {
    *     side
    */
   public CompletableFuture<HttpResponse> performRequestAsync(@Nonnull HttpRequest request) {
-    return client
-        .sendAsync(buildRequest(request), BodyHandlers.ofInputStream())
-        .thenApply(this::buildResponse)
-        .exceptionally(
-            t -> {
-              if (t.getCause() instanceof HttpConnectTimeoutException
-                  || t.getCause() instanceof HttpTimeoutException) {
-                return new HttpResponse(true);
-              } else if (t.getCause() instanceof SecurityException
-                  || t.getCause() instanceof IOException
-                  || t.getCause() instanceof InterruptedException) {
-                return new HttpResponse().setNetworkError(true);
-              }
-              throw new AlgoliaRuntimeException(t);
-            });
+    StreamLimiter[] streams =
+        connections.computeIfAbsent(request.getUri().getHost(), h -> createStreamLimiters());
+    int connection = leastLoaded(streams);
+
+    CompletableFuture<java.net.http.HttpResponse<byte[]>> exchange =
+        streams[connection].submit(
+            timeLeft ->
+                clients
+                    .get(connection)
+                    // The body is read in memory, no thread is parked while it's received
+                    .sendAsync(buildRequest(request, timeLeft), BodyHandlers.ofByteArray()),
+            request.getTimeout());
+
+    CompletableFuture<HttpResponse> response =
+        exchange
+            .thenApply(this::buildResponse)
+            .exceptionally(
+                t -> {
+                  if (t.getCause() instanceof HttpConnectTimeoutException
+                      || t.getCause() instanceof HttpTimeoutException) {
+                    return new HttpResponse(true);
+                  } else if (t.getCause() instanceof SecurityException
+                      || t.getCause() instanceof IOException
+                      || t.getCause() instanceof InterruptedException) {
+                    return new HttpResponse().setNetworkError(true);
+                  }
+                  throw new AlgoliaRuntimeException(t);
+                });
+
+    // Aborting the exchange when the caller cancels the request, e.g. the loser of a hedged read
+    response.whenComplete(
+        (r, t) -> {
+          if (response.isCancelled()) {
+            exchange.cancel(true);
+          }
+        });
+
+    return response;
+  }
+
+  private StreamLimiter[] createStreamLimiters() {
+    StreamLimiter[] streams = new StreamLimiter[clients.size()];
+    for (int i = 0; i < streams.length; i++) {
+      streams[i] = new StreamLimiter(maxConcurrentStreams, scheduler);
+    }
+    return streams;
+  }
+
+  /** Returns the index of the connection with the fewest requests in flight or queued. */
+  private static int leastLoaded(StreamLimiter[] streams) {
+    int best = 0;
+    int bestLoad = Integer.MAX_VALUE;
+
+    for (int i = 0; i < streams.length; i++) {
+      int load = streams[i].load();
+      if (load < bestLoad) {
+        best = i;
+        bestLoad = load;
+      }
+    }
+
+    return best;
   }
 
   /**
@@ -77,25 +160,28 @@ public final class JavaNetHttpRequester implements HttpRequester {
    *
    * @param response The server response
    */
-  private HttpResponse buildResponse(java.net.http.HttpResponse<InputStream> response) {
+  private HttpResponse buildResponse(java.net.http.HttpResponse<byte[]> response) {
     if (HttpStatusCodeUtils.isSuccess(response.statusCode())) {
       return new HttpResponse(response.statusCode(), responseBodyHandler(response));
     }
 
-    return new HttpResponse(response.statusCode(), convertStreamToString(response.body()));
+    return new HttpResponse(
+        response.statusCode(), new String(response.body(), StandardCharsets.UTF_8));
   }
 
   /**
    * Builds an http request from an AlgoliaRequest object
    *
    * @param algoliaRequest The Algolia request object
+   * @param timeout The time left to the request, in milliseconds
    */
-  private java.net.http.HttpRequest buildRequest(@Nonnull HttpRequest algoliaRequest) {
+  private java.net.http.HttpRequest buildRequest(
+      @Nonnull HttpRequest algoliaRequest, long timeout) {
     java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder();
 
     buildHeaders(builder, algoliaRequest.getHeaders());
     buildURI(builder, algoliaRequest.getUri());
-    builder.timeout(Duration.ofMillis(algoliaRequest.getTimeout()));
+    builder.timeout(Duration.ofMillis(timeout));
 
     BodyPublisher body = buildRequestBody(builder, algoliaRequest);
     builder.method(algoliaRequest.getMethod().toString(), body);
@@ -112,7 +198,9 @@ public final class JavaNetHttpRequester implements HttpRequester {
   private BodyPublisher buildRequestBody(
       @Nonnull Builder builder, @Nonnull HttpRequest algoliaRequest) {
 
-    if (algoliaRequest.getBody() == null) {
+    HttpRequestBody body = algoliaRequest.getRequestBody();
+
+    if (body == null) {
       return java.net.http.HttpRequest.BodyPublishers.noBody();
     }
 
@@ -122,26 +210,25 @@ public final class JavaNetHttpRequester implements HttpRequester {
       builder.header(Defaults.CONTENT_TYPE_HEADER, Defaults.APPLICATION_JSON);
     }
 
-    return BodyPublishers.ofInputStream(algoliaRequest::getBody);
+    // Publishing the serialized buffer as is, it can be published again on retry
+    return BodyPublishers.ofByteArray(body.getBuffer(), body.getOffset(), body.getLength());
   }
 
   /**
-   * Handles compressed response. Basically wraps the InputStream in a GZIPInputStream.
+   * Handles compressed response. Basically wraps the received body in a GZIPInputStream.
    *
    * @param response Server's response
    */
-  private InputStream responseBodyHandler(java.net.http.HttpResponse<InputStream> response) {
+  private InputStream responseBodyHandler(java.net.http.HttpResponse<byte[]> response) {
     String encoding = response.headers().firstValue(Defaults.CONTENT_ENCODING_HEADER).orElse("");
-    InputStream ret;
+    InputStream ret = new ByteArrayInputStream(response.body());
 
     if (encoding.equals(Defaults.CONTENT_ENCODING_GZIP)) {
       try {
-        ret = new GZIPInputStream(response.body());
+        ret = new GZIPInputStream(ret);
       } catch (IOException e) {
         throw new AlgoliaRuntimeException(e);
       }
-    } else {
-      ret = response.body();
     }
 
     return ret;
@@ -173,11 +260,6 @@ public final class JavaNetHttpRequester implements HttpRequester {
     }
   }
 
-  private String convertStreamToString(InputStream is) {
-    Scanner s = new Scanner(is, StandardCharsets.UTF_8).useDelimiter("\\A");
-    return s.hasNext() ? s.next() : "";
-  }
-
   /** Nothing to do here. Java.net HTTP Client is not closeable. */
   @Override
   public void close() {
@@ -0,0 +1,178 @@
+package com.algolia.search;
+
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the number of exchanges in flight on an HTTP/2 connection. The exchanges over the limit are
+ * queued, without blocking any thread, and started as soon as another one completes.
+ *
+ * <p>The timeout of an exchange starts when it's submitted: an exchange still queued once its
+ * timeout has elapsed fails with an {@link HttpTimeoutException}, and an exchange started late is
+ * sent with the time left only. An exchange cancelled while queued is removed from the queue and
+ * never started.
+ */
+final class StreamLimiter {
+
+  private final int maxStreams;
+  private final ScheduledExecutorService scheduler;
+  private final LongSupplier nanoTime;
+
+  // Guarded by this
+  private final Queue<Exchange<?>> pending = new ArrayDeque<>();
+  private int active = 0;
+
+  StreamLimiter(int maxStreams, ScheduledExecutorService scheduler) {
+    this(maxStreams, scheduler, System::nanoTime);
+  }
+
+  /**
+   * @param nanoTime The time source the time left to the exchanges is measured with, {@link
+   *     System#nanoTime()} but in tests
+   */
+  StreamLimiter(int maxStreams, ScheduledExecutorService scheduler, LongSupplier nanoTime) {
+    this.maxStreams = maxStreams;
+    this.scheduler = scheduler;
+    this.nanoTime = nanoTime;
+  }
+
+  /** The number of exchanges in flight or queued, to pick the least loaded connection. */
+  synchronized int load() {
+    return active + pending.size();
+  }
+
+  /**
+   * Starts the exchange now if a stream is available, or once one is released.
+   *
+   * @param send Sends the request with the given timeout, in milliseconds, and returns its response
+   * @param timeout The time allowed to the exchange from now, queueing included. In milliseconds
+   * @return The response. Cancelling it cancels the exchange
+   */
+  <T> CompletableFuture<T> submit(LongFunction<CompletableFuture<T>> send, long timeout) {
+    Exchange<T> exchange =
+        new Exchange<>(send, nanoTime.getAsLong() + TimeUnit.MILLISECONDS.toNanos(timeout));
+
+    synchronized (this) {
+      if (active >= maxStreams) {
+        pending.add(exchange);
+        exchange.expiry =
+            scheduler.schedule(() -> expire(exchange), timeout, TimeUnit.MILLISECONDS);
+        exchange.result.whenComplete((r, t) -> dequeue(exchange));
+        return exchange.result;
+      }
+      active++;
+    }
+
+    start(exchange);
+    return exchange.result;
+  }
+
+  private <T> void start(Exchange<T> exchange) {
+    if (exchange.expiry != null) {
+      exchange.expiry.cancel(false);
+    }
+
+    long timeLeft = TimeUnit.NANOSECONDS.toMillis(exchange.deadline - nanoTime.getAsLong());
+
+    if (timeLeft <= 0) {
+      release();
+      exchange.result.completeExceptionally(timedOut());
+      return;
+    }
+
+    CompletableFuture<T> response;
+
+    try {
+      response = exchange.send.apply(timeLeft);
+    } catch (RuntimeException e) {
+      release();
+      exchange.result.completeExceptionally(e);
+      return;
+    }
+
+    response.whenComplete(
+        (r, t) -> {
+          release();
+          if (t != null) {
+            exchange.result.completeExceptionally(t);
+          } else {
+            exchange.result.complete(r);
+          }
+        });
+
+    exchange.result.whenComplete(
+        (r, t) -> {
+          if (exchange.result.isCancelled()) {
+            response.cancel(true);
+          }
+        });
+  }
+
+  /** Hands the stream over to the next queued exchange still expected, or frees it. */
+  private void release() {
+    Exchange<?> next;
+
+    synchronized (this) {
+      do {
+        next = pending.poll();
+      } while (next != null && next.result.isDone());
+
+      if (next == null) {
+        active--;
+        return;
+      }
+    }
+
+    start(next);
+  }
+
+  /** Fails the exchange if it's still queued once its timeout has elapsed. */
+  private void expire(Exchange<?> exchange) {
+    synchronized (this) {
+      if (!pending.remove(exchange)) {
+        return;
+      }
+    }
+
+    exchange.result.completeExceptionally(timedOut());
+  }
+
+  /** Removes an exchange completed while queued, e.g. cancelled, so that it isn't counted. */
+  private void dequeue(Exchange<?> exchange) {
+    boolean removed;
+
+    synchronized (this) {
+      removed = pending.remove(exchange);
+    }
+
+    if (removed) {
+      exchange.expiry.cancel(false);
+    }
+  }
+
+  private static HttpTimeoutException timedOut() {
+    return new HttpTimeoutException("Request timed out while waiting for a stream");
+  }
+
+  private static final class Exchange<T> {
+
+    private final LongFunction<CompletableFuture<T>> send;
+    private final long deadline;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+
+    // Set while queued, guarded by the limiter
+    private ScheduledFuture<?> expiry;
+
+    private Exchange(LongFunction<CompletableFuture<T>> send, long deadline) {
+      this.send = send;
+      this.deadline = deadline;
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class StreamLimiterTest {
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  @AfterEach
+  void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void testExchangesOverTheLimitAreQueued() throws Exception {
+    StreamLimiter limiter = new StreamLimiter(2, scheduler);
+    List<CompletableFuture<String>> sent = new ArrayList<>();
+
+    List<CompletableFuture<String>> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      results.add(limiter.submit(timeLeft -> send(sent), 10_000));
+    }
+
+    assertThat(sent).hasSize(2);
+    assertThat(limiter.load()).isEqualTo(3);
+
+    // The stream released by the first exchange is handed over to the queued one
+    sent.get(0).complete("first");
+    assertThat(results.get(0).get(1, TimeUnit.SECONDS)).isEqualTo("first");
+    assertThat(sent).hasSize(3);
+    assertThat(limiter.load()).isEqualTo(2);
+
+    sent.get(1).complete("second");
+    sent.get(2).complete("third");
+    assertThat(results.get(2).get(1, TimeUnit.SECONDS)).isEqualTo("third");
+    assertThat(limiter.load()).isEqualTo(0);
+  }
+
+  @Test
+  void testCancelledQueuedExchangeIsNeverStarted() {
+    StreamLimiter limiter = new StreamLimiter(1, scheduler);
+    List<CompletableFuture<String>> sent = new ArrayList<>();
+
+    limiter.submit(timeLeft -> send(sent), 10_000);
+    CompletableFuture<String> queued = limiter.submit(timeLeft -> send(sent), 10_000);
+
+    queued.cancel(true);
+    // The cancelled exchange isn't counted anymore
+    assertThat(limiter.load()).isEqualTo(1);
+
+    sent.get(0).complete("first");
+    assertThat(sent).hasSize(1);
+    assertThat(limiter.load()).isEqualTo(0);
+  }
+
+  @Test
+  void testTimeoutStartsWhenQueued() throws Exception {
+    AtomicLong now = new AtomicLong();
+    StreamLimiter limiter = new StreamLimiter(1, scheduler, now::get);
+    List<CompletableFuture<String>> sent = new ArrayList<>();
+    List<Long> timeouts = new ArrayList<>();
+
+    limiter.submit(timeLeft -> send(sent), 10_000);
+    CompletableFuture<String> expired = limiter.submit(timeLeft -> send(sent), 50);
+    CompletableFuture<String> late =
+        limiter.submit(
+            timeLeft -> {
+              timeouts.add(timeLeft);
+              return send(sent);
+            },
+            10_000);
+
+    assertThatThrownBy(() -> expired.get(1, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(HttpTimeoutException.class);
+    assertThat(limiter.load()).isEqualTo(2);
+
+    // The exchange started late is sent with the time left only
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(3_000));
+    sent.get(0).complete("first");
+    assertThat(sent).hasSize(2);
+    assertThat(timeouts).containsExactly(7_000L);
+
+    sent.get(1).complete("late");
+    assertThat(late.get(1, TimeUnit.SECONDS)).isEqualTo("late");
+  }
+
+  @Test
+  void testExchangeStillQueuedAtItsDeadlineIsNeverStarted() {
+    AtomicLong now = new AtomicLong();
+    StreamLimiter limiter = new StreamLimiter(1, scheduler, now::get);
+    List<CompletableFuture<String>> sent = new ArrayList<>();
+
+    limiter.submit(timeLeft -> send(sent), 10_000);
+    CompletableFuture<String> late = limiter.submit(timeLeft -> send(sent), 10_000);
+
+    // The stream is released past the deadline, before the expiry timer has fired
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(10_000));
+    sent.get(0).complete("first");
+
+    assertThat(sent).hasSize(1);
+    assertThat(late).isCompletedExceptionally();
+    assertThat(limiter.load()).isEqualTo(0);
+  }
+
+  @Test
+  void testSynchronousSendFailureReleasesTheStream() throws Exception {
+    StreamLimiter limiter = new StreamLimiter(1, scheduler);
+    List<CompletableFuture<String>> sent = new ArrayList<>();
+
+    limiter.submit(timeLeft -> send(sent), 10_000);
+    CompletableFuture<String> failed =
+        limiter.submit(
+            timeLeft -> {
+              throw new IllegalStateException("Can't send");
+            },
+            10_000);
+    CompletableFuture<String> next = limiter.submit(timeLeft -> send(sent), 10_000);
+
+    sent.get(0).complete("first");
+
+    assertThatThrownBy(() -> failed.get(1, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+
+    // The stream of the failed exchange is handed over to the next one
+    assertThat(sent).hasSize(2);
+    sent.get(1).complete("next");
+    assertThat(next.get(1, TimeUnit.SECONDS)).isEqualTo("next");
+    assertThat(limiter.load()).isEqualTo(0);
+  }
+
+  private static CompletableFuture<String> send(List<CompletableFuture<String>> sent) {
+    CompletableFuture<String> response = new CompletableFuture<>();
+    sent.add(response);
+    return response;
+  }
+}
@@ -0,0 +1,580 @@
+package com.algolia.search;
+
+import com.algolia.search.exceptions.AlgoliaRuntimeException;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpRequestBody;
+import com.algolia.search.models.HttpResponse;
+import com.algolia.search.util.HttpStatusCodeUtils;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpContentDecompressor;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2SecurityUtil;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamChannelBootstrap;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
+import io.netty.handler.ssl.SupportedCipherSuiteFilter;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.concurrent.ScheduledFuture;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URL;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nonnull;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * Implementation of {@code HttpRequester} for Netty
+ *
+ * <p>Connections are pooled per host, at most {@link ConfigBase#getMaxConnectionsPerHost()} of
+ * them. HTTPS connections negotiate HTTP/2 when the host supports it, and then carry many requests
+ * at once, each one on its own stream. Otherwise, and for plain HTTP, connections are kept alive
+ * and carry one request at a time.
+ *
+ * <p>Bodies are held in pooled buffers. A successful response body is handed to the deserializer as
+ * is, and its buffer goes back to the pool once the body has been read.
+ *
+ * <p>The requester runs on the given event loops, e.g. the ones of an application already using
+ * Netty, or else on its own epoll event loops on Linux, NIO ones elsewhere. The system proxy isn't
+ * supported: a configuration asking for it is rejected.
+ */
+public final class NettyHttpRequester implements HttpRequester {
+
+  /** The protocol negotiated by a connection, completed once it can carry requests. */
+  private static final AttributeKey<Promise<String>> PROTOCOL =
+      AttributeKey.valueOf(NettyHttpRequester.class, "protocol");
+
+  private static final String EXCHANGE_HANDLER = "algolia-exchange";
+
+  private final EventLoopGroup group;
+  private final boolean isGroupOwned;
+  private final Bootstrap bootstrap;
+  private final SslContext sslContext;
+  private final int maxConnectionsPerHost;
+
+  /** Pools of connections, by scheme, host and port */
+  private final Map<String, ChannelPool> pools = new ConcurrentHashMap<>();
+
+  /**
+   * Builds the requester on its own event loops, with {@link ConfigBase#getIoThreadCount()}
+   * threads. They are shut down when the requester is closed.
+   *
+   * @param config HTTPClient agnostic Algolia's configuration.
+   * @throws IllegalArgumentException When the configuration asks for the system proxy
+   */
+  public NettyHttpRequester(@Nonnull ConfigBase config) {
+    // Checked before the event loops are created, not to leak them
+    this(checkConfig(config), createEventLoopGroup(config), true, null);
+  }
+
+  /**
+   * Builds the requester on the given event loops. They are left running when the requester is
+   * closed.
+   *
+   * @param config HTTPClient agnostic Algolia's configuration.
+   * @param group Epoll or NIO event loops, shared with the application
+   * @throws IllegalArgumentException When the configuration asks for the system proxy
+   */
+  public NettyHttpRequester(@Nonnull ConfigBase config, @Nonnull EventLoopGroup group) {
+    this(checkConfig(config), group, false, null);
+  }
+
+  /**
+   * Builds the requester on its own event loops, trusting the certificates of the given factory
+   * instead of the default ones, e.g. the self-signed certificate of a test server.
+   */
+  NettyHttpRequester(@Nonnull ConfigBase config, @Nonnull TrustManagerFactory trustManagerFactory) {
+    this(checkConfig(config), createEventLoopGroup(config), true, trustManagerFactory);
+  }
+
+  private NettyHttpRequester(
+      ConfigBase config,
+      EventLoopGroup group,
+      boolean isGroupOwned,
+      TrustManagerFactory trustManagerFactory) {
+    this.group = group;
+    this.isGroupOwned = isGroupOwned;
+    this.maxConnectionsPerHost = config.getMaxConnectionsPerHost();
+
+    bootstrap =
+        new Bootstrap()
+            .group(group)
+            .channel(channelClass(group))
+            .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getConnectTimeOut())
+            .option(ChannelOption.TCP_NODELAY, true)
+            .option(ChannelOption.SO_KEEPALIVE, true);
+
+    try {
+      sslContext =
+          SslContextBuilder.forClient()
+              // The default certificates when null
+              .trustManager(trustManagerFactory)
+              .sslProvider(
+                  SslProvider.isAlpnSupported(SslProvider.OPENSSL)
+                      ? SslProvider.OPENSSL
+                      : SslProvider.JDK)
+              .ciphers(Http2SecurityUtil.CIPHERS, SupportedCipherSuiteFilter.INSTANCE)
+              .applicationProtocolConfig(
+                  new ApplicationProtocolConfig(
+                      ApplicationProtocolConfig.Protocol.ALPN,
+                      ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+                      ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+                      ApplicationProtocolNames.HTTP_2,
+                      ApplicationProtocolNames.HTTP_1_1))
+              .build();
+    } catch (SSLException e) {
+      throw new AlgoliaRuntimeException("Error while creating the SSL context", e);
+    }
+  }
+
+  private static ConfigBase checkConfig(ConfigBase config) {
+    if (config.getUseSystemProxy()) {
+      throw new IllegalArgumentException(
+          "The system proxy isn't supported by the Netty requester.");
+    }
+    return config;
+  }
+
+  private static EventLoopGroup createEventLoopGroup(ConfigBase config) {
+    // Zero lets Netty pick its default number of threads
+    int threads = config.getIoThreadCount() != null ? config.getIoThreadCount() : 0;
+    return Epoll.isAvailable() ? new EpollEventLoopGroup(threads) : new NioEventLoopGroup(threads);
+  }
+
+  private static Class<? extends SocketChannel> channelClass(EventLoopGroup group) {
+    return group instanceof EpollEventLoopGroup ? EpollSocketChannel.class : NioSocketChannel.class;
+  }
+
+  /**
+   * Sends the http request asynchronously to the API If the request is time out it creates a new
+   * response object with timeout set to true Otherwise it throws a run time exception
+   *
+   * @param request the request to send
+   * @throws AlgoliaRuntimeException When an error occurred while sending the request
+   */
+  public CompletableFuture<HttpResponse> performRequestAsync(@Nonnull HttpRequest request) {
+    CompletableFuture<FullHttpResponse> exchange = new CompletableFuture<>();
+    CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+
+    ScheduledFuture<?> timeout =
+        group
+            .next()
+            .schedule(
+                () -> exchange.completeExceptionally(new TimeoutException("Request timed out")),
+                request.getTimeout(),
+                TimeUnit.MILLISECONDS);
+
+    exchange.whenComplete(
+        (msg, t) -> {
+          timeout.cancel(false);
+
+          if (t != null) {
+            try {
+              response.complete(buildFailedResponse(t));
+            } catch (AlgoliaRuntimeException e) {
+              response.completeExceptionally(e);
+            }
+            return;
+          }
+
+          HttpResponse built = buildResponse(msg);
+          // The body is no longer expected, e.g. the loser of a hedged read
+          if (!response.complete(built)) {
+            discard(built);
+          }
+        });
+
+    // Aborting the exchange when the caller cancels the request, e.g. the loser of a hedged read
+    response.whenComplete(
+        (r, t) -> {
+          if (response.isCancelled()) {
+            exchange.cancel(true);
+          }
+        });
+
+    URL url = request.getUri();
+    ChannelPool pool = pools.computeIfAbsent(poolKey(url), k -> createPool(url));
+
+    pool.acquire()
+        .addListener(
+            (FutureListener<Channel>)
+                acquired -> {
+                  if (!acquired.isSuccess()) {
+                    exchange.completeExceptionally(acquired.cause());
+                    return;
+                  }
+
+                  Channel channel = acquired.getNow();
+                  channel
+                      .attr(PROTOCOL)
+                      .get()
+                      .addListener(
+                          (FutureListener<String>)
+                              negotiated -> {
+                                if (!negotiated.isSuccess()) {
+                                  channel.close();
+                                  pool.release(channel);
+                                  exchange.completeExceptionally(negotiated.cause());
+                                } else if (ApplicationProtocolNames.HTTP_2.equals(
+                                    negotiated.getNow())) {
+                                  sendOnStream(pool, channel, request, exchange);
+                                } else {
+                                  sendOnConnection(pool, channel, request, exchange);
+                                }
+                              });
+                });
+
+    return response;
+  }
+
+  /**
+   * Sends the request on its own stream of an HTTP/2 connection. The connection goes back to the
+   * pool right away, so that the next requests share it.
+   */
+  private void sendOnStream(
+      ChannelPool pool,
+      Channel connection,
+      HttpRequest request,
+      CompletableFuture<FullHttpResponse> exchange) {
+
+    io.netty.util.concurrent.Future<Http2StreamChannel> stream =
+        new Http2StreamChannelBootstrap(connection)
+            .handler(
+                new ChannelInitializer<Http2StreamChannel>() {
+                  @Override
+                  protected void initChannel(Http2StreamChannel ch) {
+                    ch.pipeline()
+                        .addLast(
+                            new Http2StreamFrameToHttpObjectCodec(false),
+                            new HttpContentDecompressor(),
+                            new HttpObjectAggregator(Integer.MAX_VALUE),
+                            new ExchangeHandler(exchange));
+                  }
+                })
+            .open();
+
+    pool.release(connection);
+
+    stream.addListener(
+        (FutureListener<Http2StreamChannel>)
+            opened -> {
+              if (!opened.isSuccess()) {
+                exchange.completeExceptionally(opened.cause());
+                return;
+              }
+
+              Http2StreamChannel channel = opened.getNow();
+              // Resets the stream if the exchange is aborted before its end
+              exchange.whenComplete((r, t) -> channel.close());
+              channel
+                  .writeAndFlush(buildRequest(channel.alloc(), request))
+                  .addListener(failOnError(exchange));
+            });
+  }
+
+  /**
+   * Sends the request on an HTTP/1.1 connection, which goes back to the pool once the response has
+   * been received. A connection the response can't be fully read from is closed instead of being
+   * reused.
+   */
+  private void sendOnConnection(
+      ChannelPool pool,
+      Channel channel,
+      HttpRequest request,
+      CompletableFuture<FullHttpResponse> exchange) {
+
+    ExchangeHandler handler = new ExchangeHandler(exchange);
+    channel.pipeline().addLast(EXCHANGE_HANDLER, handler);
+
+    exchange.whenComplete(
+        (msg, t) ->
+            channel
+                .eventLoop()
+                .execute(
+                    () -> {
+                      if (channel.pipeline().context(handler) != null) {
+                        channel.pipeline().remove(handler);
+                      }
+                      if (t != null || !HttpUtil.isKeepAlive(msg)) {
+                        channel.close();
+                      }
+                      pool.release(channel);
+                    }));
+
+    channel
+        .writeAndFlush(buildRequest(channel.alloc(), request))
+        .addListener(failOnError(exchange));
+  }
+
+  private static ChannelFutureListener failOnError(CompletableFuture<?> exchange) {
+    return f -> {
+      if (!f.isSuccess()) {
+        exchange.completeExceptionally(f.cause());
+      }
+    };
+  }
+
+  private static String poolKey(URL url) {
+    return url.getProtocol() + "://" + url.getHost() + ":" + port(url);
+  }
+
+  private static int port(URL url) {
+    return url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+  }
+
+  /** Builds the pool of connections to the host of the given url. */
+  private ChannelPool createPool(URL url) {
+    String host = url.getHost();
+    int port = port(url);
+    boolean isSecure = "https".equals(url.getProtocol());
+
+    return new FixedChannelPool(
+        bootstrap.clone().remoteAddress(host, port),
+        new AbstractChannelPoolHandler() {
+          @Override
+          public void channelCreated(Channel ch) {
+            Promise<String> protocol = ch.eventLoop().newPromise();
+            ch.attr(PROTOCOL).set(protocol);
+            ch.closeFuture()
+                .addListener(
+                    (ChannelFutureListener) f -> protocol.tryFailure(new ClosedChannelException()));
+
+            if (!isSecure) {
+              configureHttp1(ch.pipeline());
+              protocol.trySuccess(ApplicationProtocolNames.HTTP_1_1);
+              return;
+            }
+
+            ch.pipeline()
+                .addLast(
+                    sslContext.newHandler(ch.alloc(), host, port),
+                    new ApplicationProtocolNegotiationHandler(ApplicationProtocolNames.HTTP_1_1) {
+                      @Override
+                      protected void configurePipeline(ChannelHandlerContext ctx, String p) {
+                        if (ApplicationProtocolNames.HTTP_2.equals(p)) {
+                          configureHttp2(ctx.pipeline());
+                        } else {
+                          configureHttp1(ctx.pipeline());
+                        }
+                        protocol.trySuccess(p);
+                      }
+
+                      @Override
+                      protected void handshakeFailure(ChannelHandlerContext ctx, Throwable cause) {
+                        protocol.tryFailure(cause);
+                        ctx.close();
+                      }
+                    });
+          }
+        },
+        maxConnectionsPerHost);
+  }
+
+  private static void configureHttp1(ChannelPipeline pipeline) {
+    pipeline.addLast(
+        new HttpClientCodec(),
+        new HttpContentDecompressor(),
+        new HttpObjectAggregator(Integer.MAX_VALUE));
+  }
+
+  private static void configureHttp2(ChannelPipeline pipeline) {
+    pipeline.addLast(
+        Http2FrameCodecBuilder.forClient()
+            .initialSettings(Http2Settings.defaultSettings().pushEnabled(false))
+            .build(),
+        // Server push is disabled, so no stream is ever opened by the server
+        new Http2MultiplexHandler(new ChannelInboundHandlerAdapter()));
+  }
+
+  /**
+   * Builds an http request from an AlgoliaRequest object. The body is copied in a pooled direct
+   * buffer, released once written.
+   *
+   * @param alloc The allocator of the channel
+   * @param algoliaRequest The Algolia request object
+   */
+  private static FullHttpRequest buildRequest(
+      ByteBufAllocator alloc, @Nonnull HttpRequest algoliaRequest) {
+
+    HttpRequestBody body = algoliaRequest.getRequestBody();
+    ByteBuf content =
+        body == null
+            ? Unpooled.EMPTY_BUFFER
+            : alloc
+                .directBuffer(body.getLength())
+                .writeBytes(body.getBuffer(), body.getOffset(), body.getLength());
+
+    URL url = algoliaRequest.getUri();
+    FullHttpRequest request =
+        new DefaultFullHttpRequest(
+            HttpVersion.HTTP_1_1,
+            io.netty.handler.codec.http.HttpMethod.valueOf(algoliaRequest.getMethod().name),
+            url.getFile(),
+            content);
+
+    for (Map.Entry<String, String> entry : algoliaRequest.getHeaders().entrySet()) {
+      request.headers().set(entry.getKey(), entry.getValue());
+    }
+
+    request
+        .headers()
+        .set(
+            HttpHeaderNames.HOST,
+            url.getPort() == -1 ? url.getHost() : url.getHost() + ":" + url.getPort())
+        .set(HttpHeaderNames.ACCEPT_ENCODING, HttpHeaderValues.GZIP_DEFLATE);
+
+    if (body != null) {
+      if (algoliaRequest.canCompress()) {
+        request.headers().set(Defaults.CONTENT_ENCODING_HEADER, Defaults.CONTENT_ENCODING_GZIP);
+      } else {
+        request.headers().set(Defaults.CONTENT_TYPE_HEADER, Defaults.APPLICATION_JSON);
+      }
+    }
+
+    HttpUtil.setContentLength(request, content.readableBytes());
+    return request;
+  }
+
+  /**
+   * Builds an Algolia response from the server response. A successful body is read straight from
+   * its buffer, which is released once the body is closed.
+   *
+   * @param response The server response, released by this method or by the returned body
+   */
+  private static HttpResponse buildResponse(FullHttpResponse response) {
+    int status = response.status().code();
+
+    if (HttpStatusCodeUtils.isSuccess(status)) {
+      return new HttpResponse(status, new ByteBufInputStream(response.content(), true));
+    }
+
+    try {
+      return new HttpResponse(status, response.content().toString(StandardCharsets.UTF_8));
+    } finally {
+      response.release();
+    }
+  }
+
+  /**
+   * Builds an Algolia response from a failed exchange
+   *
+   * @param t The failure
+   * @throws AlgoliaRuntimeException When the failure is neither a timeout nor a network error
+   */
+  private static HttpResponse buildFailedResponse(Throwable t) {
+    Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+
+    if (cause instanceof TimeoutException || cause instanceof ConnectException) {
+      return new HttpResponse(true);
+    } else if (cause instanceof IOException
+        || cause instanceof DecoderException
+        || cause instanceof Http2Exception) {
+      return new HttpResponse().setNetworkError(true);
+    }
+
+    throw new AlgoliaRuntimeException(cause);
+  }
+
+  /** Releases the buffer of a response no one will read. */
+  private static void discard(HttpResponse response) {
+    if (response.getBody() != null) {
+      try {
+        response.getBody().close();
+      } catch (IOException ignored) {
+        // Nothing to do, the buffer is released anyway
+      }
+    }
+  }
+
+  /** Closes the connections, and shuts the event loops down if they were created by this. */
+  @Override
+  public void close() {
+    pools.values().forEach(ChannelPool::close);
+    pools.clear();
+
+    if (isGroupOwned) {
+      group.shutdownGracefully();
+    }
+  }
+
+  /** Completes the exchange with the aggregated response, or with the failure of the channel. */
+  private static final class ExchangeHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+    private final CompletableFuture<FullHttpResponse> exchange;
+
+    private ExchangeHandler(CompletableFuture<FullHttpResponse> exchange) {
+      this.exchange = exchange;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse msg) {
+      // Retained for the response body, released right away if the exchange was aborted
+      if (!exchange.complete(msg.retain())) {
+        msg.release();
+      }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+      exchange.completeExceptionally(new ClosedChannelException());
+      ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      exchange.completeExceptionally(cause);
+    }
+  }
+}
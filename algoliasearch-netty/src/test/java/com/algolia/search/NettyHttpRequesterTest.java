@@ -0,0 +1,384 @@
+package com.algolia.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.algolia.search.models.HttpMethod;
+import com.algolia.search.models.HttpRequest;
+import com.algolia.search.models.HttpResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2SecurityUtil;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
+import io.netty.handler.ssl.SupportedCipherSuiteFilter;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.handler.ssl.util.SelfSignedCertificate;
+import io.netty.util.ResourceLeakDetector;
+import io.netty.util.ResourceLeakDetectorFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the requester against a local HTTP/1.1 server, and against a local HTTPS server negotiating
+ * HTTP/2.
+ */
+class NettyHttpRequesterTest {
+
+  private static final String BODY = "{\"ok\":true}";
+
+  /** The buffers garbage collected without having been released */
+  private static final List<String> LEAKS = new CopyOnWriteArrayList<>();
+
+  static {
+    // Installed before any buffer class is loaded, every buffer is tracked
+    ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+    ResourceLeakDetectorFactory.setResourceLeakDetectorFactory(new RecordingLeakDetectorFactory());
+  }
+
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private ExecutorService serverExecutor;
+  private HttpServer server;
+  private NettyHttpRequester requester;
+  private Http2Server http2Server;
+
+  @BeforeEach
+  void start() throws IOException {
+    serverExecutor = Executors.newCachedThreadPool();
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(serverExecutor);
+    server.createContext("/ok", exchange -> answer(exchange, 0));
+    server.createContext("/slow", exchange -> answer(exchange, 1_000));
+    server.start();
+
+    // A single connection, so that a connection not given back to the pool blocks the next request
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY").setMaxConnectionsPerHost(1).build();
+    requester = new NettyHttpRequester(config);
+  }
+
+  @AfterEach
+  void stop() {
+    requester.close();
+    if (http2Server != null) {
+      http2Server.close();
+    }
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  @Test
+  void testConnectionIsKeptAlive() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      HttpResponse response =
+          requester.performRequestAsync(get("/ok", 1_000)).get(1, TimeUnit.SECONDS);
+
+      assertThat(response.getHttpStatusCode()).isEqualTo(200);
+      assertThat(read(response)).isEqualTo(BODY);
+    }
+
+    assertThat(clientPorts).hasSize(1);
+    assertNoLeak();
+  }
+
+  @Test
+  void testTimedOutRequest() throws Exception {
+    HttpResponse response =
+        requester.performRequestAsync(get("/slow", 100)).get(1, TimeUnit.SECONDS);
+    assertThat(response.isTimedOut()).isTrue();
+
+    // The connection of the timed out request is closed and replaced
+    HttpResponse next = requester.performRequestAsync(get("/ok", 1_000)).get(1, TimeUnit.SECONDS);
+    assertThat(read(next)).isEqualTo(BODY);
+    assertThat(clientPorts).hasSize(2);
+    assertNoLeak();
+  }
+
+  @Test
+  void testCancelledRequestReleasesItsConnectionAndBuffers() throws Exception {
+    CompletableFuture<HttpResponse> cancelled = requester.performRequestAsync(get("/slow", 5_000));
+    Thread.sleep(50);
+    cancelled.cancel(true);
+
+    // The single connection is back in the pool well before the slow response
+    HttpResponse next =
+        requester.performRequestAsync(get("/ok", 1_000)).get(500, TimeUnit.MILLISECONDS);
+    assertThat(read(next)).isEqualTo(BODY);
+
+    // The slow response, if read before the connection is closed, is released as well
+    Thread.sleep(1_000);
+    assertNoLeak();
+  }
+
+  @Test
+  void testSystemProxyIsRejected() {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY").setUseSystemProxy(true).build();
+
+    assertThatThrownBy(() -> new NettyHttpRequester(config))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void testHttp2RequestsShareOneConnection() throws Exception {
+    http2Server = new Http2Server();
+    NettyHttpRequester http2Requester = http2Requester();
+
+    try {
+      List<CompletableFuture<HttpResponse>> responses = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        responses.add(http2Requester.performRequestAsync(http2Server.get("/ok", 1_000)));
+      }
+
+      for (CompletableFuture<HttpResponse> response : responses) {
+        HttpResponse r = response.get(5, TimeUnit.SECONDS);
+        assertThat(r.getHttpStatusCode()).isEqualTo(200);
+        assertThat(read(r)).isEqualTo(BODY);
+      }
+
+      // Each request is carried by its own stream of the single connection
+      assertThat(http2Server.streams).hasSize(5);
+      assertThat(http2Server.clientPorts).hasSize(1);
+    } finally {
+      http2Requester.close();
+    }
+    assertNoLeak();
+  }
+
+  @Test
+  void testHttp2TimedOutStreamIsReset() throws Exception {
+    http2Server = new Http2Server();
+    NettyHttpRequester http2Requester = http2Requester();
+
+    try {
+      HttpResponse response =
+          http2Requester
+              .performRequestAsync(http2Server.get("/slow", 100))
+              .get(5, TimeUnit.SECONDS);
+      assertThat(response.isTimedOut()).isTrue();
+
+      // Only the stream is reset, the connection carries the next request
+      HttpResponse next =
+          http2Requester
+              .performRequestAsync(http2Server.get("/ok", 1_000))
+              .get(1, TimeUnit.SECONDS);
+      assertThat(read(next)).isEqualTo(BODY);
+      assertThat(http2Server.clientPorts).hasSize(1);
+
+      // The slow response, if sent before the stream is reset, is released as well
+      Thread.sleep(1_000);
+    } finally {
+      http2Requester.close();
+    }
+    assertNoLeak();
+  }
+
+  private NettyHttpRequester http2Requester() {
+    SearchConfig config =
+        new SearchConfig.Builder("appID", "apiKEY").setMaxConnectionsPerHost(1).build();
+    return new NettyHttpRequester(config, InsecureTrustManagerFactory.INSTANCE);
+  }
+
+  private HttpRequest get(String path, int timeout) throws IOException {
+    return new HttpRequest(HttpMethod.GET, path, new HashMap<>(), timeout)
+        .setUri(new URL("http", "localhost", server.getAddress().getPort(), path));
+  }
+
+  private void answer(HttpExchange exchange, long delay) throws IOException {
+    clientPorts.add(exchange.getRemoteAddress().getPort());
+
+    try {
+      Thread.sleep(delay);
+      byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private static String read(HttpResponse response) throws IOException {
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+      return reader.readLine();
+    }
+  }
+
+  /** Leaks are reported when buffers are allocated after the leaked ones are garbage collected. */
+  private static void assertNoLeak() throws InterruptedException {
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+      Thread.sleep(20);
+      PooledByteBufAllocator.DEFAULT.directBuffer(1).release();
+    }
+    assertThat(LEAKS).isEmpty();
+  }
+
+  /**
+   * An HTTPS server only speaking HTTP/2, negotiated with ALPN. It answers {@code /slow} after one
+   * second, and every other path right away.
+   */
+  private static final class Http2Server implements AutoCloseable {
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> streams = ConcurrentHashMap.newKeySet();
+    private final EventLoopGroup group = new NioEventLoopGroup(1);
+    private final SelfSignedCertificate certificate;
+    private final Channel channel;
+
+    private Http2Server() throws Exception {
+      certificate = new SelfSignedCertificate("localhost");
+      SslContext sslContext =
+          SslContextBuilder.forServer(certificate.certificate(), certificate.privateKey())
+              .sslProvider(SslProvider.JDK)
+              .ciphers(Http2SecurityUtil.CIPHERS, SupportedCipherSuiteFilter.INSTANCE)
+              .applicationProtocolConfig(
+                  new ApplicationProtocolConfig(
+                      ApplicationProtocolConfig.Protocol.ALPN,
+                      ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+                      ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+                      ApplicationProtocolNames.HTTP_2))
+              .build();
+
+      channel =
+          new ServerBootstrap()
+              .group(group)
+              .channel(NioServerSocketChannel.class)
+              .childHandler(
+                  new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                      clientPorts.add(ch.remoteAddress().getPort());
+                      ch.pipeline()
+                          .addLast(
+                              sslContext.newHandler(ch.alloc()),
+                              Http2FrameCodecBuilder.forServer().build(),
+                              new Http2MultiplexHandler(
+                                  new ChannelInitializer<Http2StreamChannel>() {
+                                    @Override
+                                    protected void initChannel(Http2StreamChannel stream) {
+                                      streams.add(stream.stream().id());
+                                      stream
+                                          .pipeline()
+                                          .addLast(
+                                              new Http2StreamFrameToHttpObjectCodec(true),
+                                              new HttpObjectAggregator(1 << 16),
+                                              new AnswerHandler());
+                                    }
+                                  }));
+                    }
+                  })
+              .bind(InetAddress.getLoopbackAddress(), 0)
+              .sync()
+              .channel();
+    }
+
+    private HttpRequest get(String path, int timeout) throws IOException {
+      int port = ((InetSocketAddress) channel.localAddress()).getPort();
+      return new HttpRequest(HttpMethod.GET, path, new HashMap<>(), timeout)
+          .setUri(new URL("https", "localhost", port, path));
+    }
+
+    @Override
+    public void close() {
+      channel.close().syncUninterruptibly();
+      group.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+      certificate.delete();
+    }
+  }
+
+  private static final class AnswerHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+      FullHttpResponse response =
+          new DefaultFullHttpResponse(
+              HttpVersion.HTTP_1_1,
+              HttpResponseStatus.OK,
+              ctx.alloc().buffer().writeBytes(BODY.getBytes(StandardCharsets.UTF_8)));
+      response.headers().set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
+      HttpUtil.setContentLength(response, response.content().readableBytes());
+
+      if (request.uri().equals("/slow")) {
+        ctx.executor().schedule(() -> ctx.writeAndFlush(response), 1, TimeUnit.SECONDS);
+      } else {
+        ctx.writeAndFlush(response);
+      }
+    }
+  }
+
+  private static final class RecordingLeakDetectorFactory extends ResourceLeakDetectorFactory {
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public <T> ResourceLeakDetector<T> newResourceLeakDetector(
+        Class<T> resource, int samplingInterval, long maxActive) {
+      return new ResourceLeakDetector<T>(resource, samplingInterval) {
+        @Override
+        protected boolean needReport() {
+          return true;
+        }
+
+        @Override
+        protected void reportTracedLeak(String resourceType, String records) {
+          LEAKS.add(resourceType + records);
+        }
+
+        @Override
+        protected void reportUntracedLeak(String resourceType) {
+          LEAKS.add(resourceType);
+        }
+      };
+    }
+  }
+}